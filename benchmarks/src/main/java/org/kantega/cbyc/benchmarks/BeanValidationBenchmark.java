@@ -0,0 +1,90 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._1beanvalidation.ContactInfo;
+import org.kantega.cbyc.BeanValidation;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first validation of ContactInfo in a new JVM with a BeanValidation that was and was not warmed up,
+ * and the steady state of the bridge against a Validator used directly and a ValidatorFactory built per call, like
+ * Example1 does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanValidationBenchmark {
+
+    static final ContactInfo invalid = new ContactInfo("ola.normann_test");
+
+    @State(Scope.Benchmark)
+    public static class Cold {
+
+        BeanValidation beanValidation;
+
+        @Setup
+        public void setup() {
+            beanValidation = BeanValidation.builder().build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Warmed {
+
+        BeanValidation beanValidation;
+
+        @Setup
+        public void setup() {
+            beanValidation = BeanValidation.builder().warmUp(ContactInfo.class).build();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public Validated<ContactInfo> firstValidationCold(Cold cold) {
+        return cold.beanValidation.validate(invalid);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public Validated<ContactInfo> firstValidationWarmed(Warmed warmed) {
+        return warmed.beanValidation.validate(invalid);
+    }
+
+    @Benchmark
+    public Validated<ContactInfo> bridge(Warmed warmed) {
+        return warmed.beanValidation.validate(invalid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ContactInfo>> validator(Warmed warmed) {
+        return warmed.beanValidation.validator().validate(invalid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ContactInfo>> factoryPerCall() {
+        return Validation.buildDefaultValidatorFactory().getValidator().validate(invalid);
+    }
+}
@@ -0,0 +1,70 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.Binder;
+import org.kantega.cbyc.Validated;
+import org.katenga.cbc.validated.Age;
+import org.katenga.cbc.validated.Settings;
+import org.katenga.cbc.validated.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a User from settings with a Binder, and with the hand written accum that the Binder replaces, for a valid
+ * snapshot and for one where both fields fail.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinderBenchmark {
+
+    static final Binder<User> binder = Binder.of(User.class);
+
+    Settings valid;
+    Settings invalid;
+
+    @Setup
+    public void setup() {
+        valid = Settings.builder().put("username", "Ola").put("age", 35).build();
+        invalid = Settings.builder().put("age", 235).build();
+    }
+
+    @Benchmark
+    public Validated<User> binderValid() {
+        return binder.bind(valid::value);
+    }
+
+    @Benchmark
+    public Validated<User> handWrittenValid() {
+        return handWritten(valid);
+    }
+
+    @Benchmark
+    public Validated<User> binderInvalid() {
+        return binder.bind(invalid::value);
+    }
+
+    @Benchmark
+    public Validated<User> handWrittenInvalid() {
+        return handWritten(invalid);
+    }
+
+    private static Validated<User> handWritten(Settings settings) {
+        return Validated.accum(
+          settings.getAsString("username"),
+          settings.getAsInt("age").flatMapToObj(Age::toAge),
+          User::new);
+    }
+}
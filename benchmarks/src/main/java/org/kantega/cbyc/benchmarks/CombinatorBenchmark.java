@@ -0,0 +1,113 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the combinators of Validated on inputs that are all valid, all invalid or a mix of the two.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinatorBenchmark {
+
+    @Param({"valid", "invalid", "mixed"})
+    public String inputs;
+
+    Validated<Integer> a;
+    Validated<Integer> b;
+    Validated<Integer> c;
+    Validated<Integer> d;
+    Validated<Integer> e;
+    Validated<Function<Integer, Integer>> f;
+
+    @Setup
+    public void setup() {
+        a = input(0, 1);
+        b = input(1, 2);
+        c = input(2, 3);
+        d = input(3, 4);
+        e = input(4, 5);
+        f = inputs.equals("invalid") ? Validated.invalid("function is invalid") : Validated.valid(i -> i + 1);
+    }
+
+    private Validated<Integer> input(int index, int value) {
+        switch (inputs) {
+            case "valid":
+                return Validated.valid(value);
+            case "invalid":
+                return Validated.invalid("value " + index + " is invalid");
+            default:
+                return index % 2 == 0 ? Validated.valid(value) : Validated.invalid("value " + index + " is invalid");
+        }
+    }
+
+    @Benchmark
+    public Validated<Integer> map() {
+        return a.map(i -> i + 1);
+    }
+
+    @Benchmark
+    public Validated<Integer> flatMap() {
+        return a.flatMap(i -> Validated.validate(i, v -> v > 0, "must be positive"));
+    }
+
+    @Benchmark
+    public Validated<Integer> apply() {
+        return a.apply(f);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum2() {
+        return Validated.accum(a, b, Integer::sum);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum3() {
+        return Validated.accum(a, b, c, i -> j -> k -> i + j + k);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum4() {
+        return Validated.accum(a, b, c, d, i -> j -> k -> l -> i + j + k + l);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum5() {
+        return Validated.accum(a, b, c, d, e, i -> j -> k -> l -> m -> i + j + k + l + m);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum5Flat() {
+        return Validated.accum(a, b, c, d, e, (i, j, k, l, m) -> i + j + k + l + m);
+    }
+
+    @Benchmark
+    public Validated<Integer> accum15Flat() {
+        return
+          Validated.accum(a, b, c, d, e, a, b, c, d, e, a, b, c, d, e,
+            (i1, j1, k1, l1, m1, i2, j2, k2, l2, m2, i3, j3, k3, l3, m3) ->
+              i1 + j1 + k1 + l1 + m1 + i2 + j2 + k2 + l2 + m2 + i3 + j3 + k3 + l3 + m3);
+    }
+
+    @Benchmark
+    public Validated<Integer> accumBind() {
+        return Validated.accumBind(a, b, i -> j -> Validated.validate(i + j, v -> v > 0, "must be positive"));
+    }
+}
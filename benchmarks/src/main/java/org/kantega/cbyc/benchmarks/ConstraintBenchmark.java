@@ -0,0 +1,82 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._1beanvalidation.ContactInfo;
+import org.kantega.cbc.testless._1beanvalidation.ContactInfoValidated;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates the ContactInfo of Example1 with Hibernate Validator, and with the ContactInfoValidated that
+ * ConstraintProcessor generates from the same annotations.
+ * <br/>
+ * The cold benchmarks run once in a new JVM, and measure the first validation, including building the
+ * ValidatorFactory and loading the classes. The warm benchmarks measure the steady state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstraintBenchmark {
+
+    @State(Scope.Thread)
+    public static class Warm {
+
+        @Param({"ola.normann@test.org", "ola.normann_test"})
+        public String email;
+
+        Validator validator;
+
+        @Setup
+        public void setup() {
+            validator = Validation.buildDefaultValidatorFactory().getValidator();
+        }
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ContactInfo>> hibernateWarm(Warm warm) {
+        return warm.validator.validate(new ContactInfo(warm.email));
+    }
+
+    @Benchmark
+    public Validated<ContactInfo> generatedWarm(Warm warm) {
+        return ContactInfoValidated.of(warm.email);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Set<ConstraintViolation<ContactInfo>> hibernateCold() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        return validator.validate(new ContactInfo("ola.normann@test.org"));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Validated<ContactInfo> generatedCold() {
+        return ContactInfoValidated.of("ola.normann@test.org");
+    }
+}
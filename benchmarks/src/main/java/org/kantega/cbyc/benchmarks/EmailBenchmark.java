@@ -0,0 +1,41 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.apache.commons.validator.routines.EmailValidator;
+import org.kantega.cbyc.EmailSyntax;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks email addresses with EmailSyntax and with commons-validator's EmailValidator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailBenchmark {
+
+    @Param({"ola.normann@test.com", "kari+nyhetsbrev@post.mail.example.no", "ola.normann_test.com"})
+    public String email;
+
+    @Benchmark
+    public boolean emailSyntax() {
+        return EmailSyntax.isValid(email);
+    }
+
+    @Benchmark
+    public boolean emailValidator() {
+        return EmailValidator.getInstance().isValid(email);
+    }
+}
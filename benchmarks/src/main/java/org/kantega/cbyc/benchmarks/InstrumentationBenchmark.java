@@ -0,0 +1,84 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.CompiledRule;
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.InMemoryMetrics;
+import org.kantega.cbyc.Instrumentation;
+import org.kantega.cbyc.JfrListener;
+import org.kantega.cbyc.Rule;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The username rule of RuleBenchmark without a name, with a name, and through <code>Validated.validate</code> with an
+ * error code, without a listener, with InMemoryMetrics, and with a JfrListener while no recording is running.
+ * <br/>
+ * Without a listener, the named rule should cost the same as the unnamed one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    static final ErrorCode missing = ErrorCode.of("benchmark.username.missing", "The username is missing");
+    static final ErrorCode tooShort = ErrorCode.of("benchmark.username.short", "The username must have at least {0} characters");
+    static final ErrorCode tooLong = ErrorCode.of("benchmark.username.long", "The username can have at most {1} characters");
+
+    static final Rule<String> username =
+      Rule.<String>notNull(missing)
+        .and(Rule.length(3, Integer.MAX_VALUE, tooShort))
+        .and(Rule.length(0, 32, tooLong));
+
+    static final CompiledRule<String> unnamed = username.compile();
+    static final CompiledRule<String> named = username.compile("username");
+
+    @Param({"none", "metrics", "jfr"})
+    public String listener;
+
+    String value = "ola.normann";
+
+    @Setup(Level.Trial)
+    public void install() {
+        if (listener.equals("metrics"))
+            Instrumentation.install(new InMemoryMetrics());
+        else if (listener.equals("jfr"))
+            Instrumentation.install(new JfrListener());
+    }
+
+    @TearDown(Level.Trial)
+    public void uninstall() {
+        Instrumentation.uninstall();
+    }
+
+    @Benchmark
+    public Validated<String> unnamedRule() {
+        return unnamed.validate(value);
+    }
+
+    @Benchmark
+    public Validated<String> namedRule() {
+        return named.validate(value);
+    }
+
+    @Benchmark
+    public Validated<String> validateWithCode() {
+        return Validated.validate(value, v -> v.length() >= 3, tooShort);
+    }
+}
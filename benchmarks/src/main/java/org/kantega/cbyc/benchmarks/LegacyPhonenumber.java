@@ -0,0 +1,30 @@
+package org.kantega.cbyc.benchmarks;
+
+import fj.Digit;
+import fj.data.List;
+import fj.data.NonEmptyList;
+import fj.data.Option;
+import fj.data.Stream;
+import org.kantega.cbc.testless._2validated.Phonenumber;
+import org.kantega.cbyc.Validated;
+
+/**
+ * The Phonenumber parser from before the digits were packed, kept as a baseline for PhonenumberBenchmark.
+ */
+public class LegacyPhonenumber {
+
+    final NonEmptyList<Digit> digits;
+
+    private LegacyPhonenumber(NonEmptyList<Digit> digits) {
+        this.digits = digits;
+    }
+
+    public static Validated<LegacyPhonenumber> of(String numberAsString) {
+
+        List<Digit> digitList = Option.somes(Stream.fromString(numberAsString).map(Digit::fromChar)).toList();
+
+        return digitList.isEmpty() ?
+          Validated.invalid(Phonenumber.digitsError) :
+          Validated.valid(new LegacyPhonenumber(NonEmptyList.nel(digitList.head(), digitList.tail())));
+    }
+}
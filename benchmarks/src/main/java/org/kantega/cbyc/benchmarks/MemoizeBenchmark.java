@@ -0,0 +1,54 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._2validated.EmailAddress;
+import org.kantega.cbyc.CachePolicy;
+import org.kantega.cbyc.Memoized;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates email addresses drawn from a fixed set of addresses, with and without memoization, from four threads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MemoizeBenchmark {
+
+    String[] emails;
+    Memoized<String, EmailAddress> memoized;
+
+    @Setup
+    public void setup() {
+        emails = new String[10_000];
+        for (int i = 0; i < emails.length; i++)
+            emails[i] = "user" + i + "@example.com";
+        memoized = Validated.memoize(EmailAddress::of, CachePolicy.maximumSize(20_000));
+    }
+
+    @Benchmark
+    public Validated<EmailAddress> direct() {
+        return EmailAddress.of(emails[ThreadLocalRandom.current().nextInt(emails.length)]);
+    }
+
+    @Benchmark
+    public Validated<EmailAddress> memoized() {
+        return memoized.apply(emails[ThreadLocalRandom.current().nextInt(emails.length)]);
+    }
+}
@@ -0,0 +1,42 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._2validated.Phonenumber;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses phone numbers with the packed single pass scanner, and with the old parser that went through fj Streams
+ * and Lists of Digits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhonenumberBenchmark {
+
+    @Param({"12345678", "+47 123 45 678", "+47 (0) 1234 5678 9012 3456"})
+    public String number;
+
+    @Benchmark
+    public Validated<Phonenumber> packed() {
+        return Phonenumber.of(number);
+    }
+
+    @Benchmark
+    public Validated<LegacyPhonenumber> legacy() {
+        return LegacyPhonenumber.of(number);
+    }
+}
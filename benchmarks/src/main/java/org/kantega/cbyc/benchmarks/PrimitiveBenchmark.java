@@ -0,0 +1,49 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Validated;
+import org.kantega.cbyc.ValidatedInt;
+import org.katenga.cbc.validated.Age;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A numeric range check, boxed through <code>Validated.validate</code> and unboxed through <code>ValidatedInt</code>.
+ * Run with <code>-prof gc</code> to compare the allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitiveBenchmark {
+
+    static final ErrorCode rangeError = ErrorCode.of("benchmark.range", "The value must be in the range [0,5000)");
+
+    int value = 4711;
+
+    @Benchmark
+    public Validated<Integer> boxedCheck() {
+        return Validated.validate(value, v -> v >= 0 && v < 5000, rangeError);
+    }
+
+    @Benchmark
+    public ValidatedInt primitiveCheck() {
+        return ValidatedInt.validate(value, v -> v >= 0 && v < 5000, rangeError);
+    }
+
+    @Benchmark
+    public Validated<Age> toAge() {
+        return Age.toAge(value % 150);
+    }
+}
@@ -0,0 +1,59 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.CompiledRule;
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Rule;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A composite username rule, compiled from a Rule, against the same checks written by hand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleBenchmark {
+
+    static final ErrorCode missing = ErrorCode.of("benchmark.username.missing", "The username is missing");
+    static final ErrorCode tooShort = ErrorCode.of("benchmark.username.short", "The username must have at least {0} characters");
+    static final ErrorCode tooLong = ErrorCode.of("benchmark.username.long", "The username can have at most {1} characters");
+    static final ErrorCode reserved = ErrorCode.of("benchmark.username.reserved", "The username is reserved");
+
+    static final CompiledRule<String> username =
+      Rule.<String>notNull(missing)
+        .and(Rule.length(3, Integer.MAX_VALUE, tooShort))
+        .and(Rule.length(0, 32, tooLong))
+        .and(Rule.<String>of("admin"::equals, reserved).not(reserved))
+        .compile();
+
+    String value = "ola.normann";
+
+    @Benchmark
+    public Validated<String> compiled() {
+        return username.validate(value);
+    }
+
+    @Benchmark
+    public Validated<String> handWritten() {
+        String v = value;
+        return
+          v == null ? Validated.invalid(missing) :
+            v.length() < 3 ? Validated.invalid(tooShort, 3, Integer.MAX_VALUE) :
+              v.length() > 32 ? Validated.invalid(tooLong, 0, 32) :
+                v.equals("admin") ? Validated.invalid(reserved) :
+                  Validated.valid(v);
+    }
+}
@@ -0,0 +1,65 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbyc.Validated;
+import org.katenga.cbc.validated.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a setting from a snapshot of a thousand settings, by name and through a Key, and builds the snapshot with a
+ * Builder and with one with() per setting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SettingsBenchmark {
+
+    static final Settings.Key<Integer> timeout = Settings.key("service.timeout", Integer.class);
+
+    Settings settings;
+    String name = "service.timeout";
+
+    @Setup
+    public void setup() {
+        settings = build();
+    }
+
+    @Benchmark
+    public Validated<Integer> byName() {
+        return settings.getAs(name, Integer.class);
+    }
+
+    @Benchmark
+    public Validated<Integer> byKey() {
+        return settings.get(timeout);
+    }
+
+    @Benchmark
+    public Settings build() {
+        Settings.Builder builder = Settings.builder();
+        for (int i = 0; i < 1000; i++)
+            builder.put("setting." + i, i);
+        return builder.put(name, 30).build();
+    }
+
+    @Benchmark
+    public Settings buildWithWith() {
+        Settings s = Settings.empty();
+        for (int i = 0; i < 100; i++)
+            s = s.with("setting." + i, i);
+        return s;
+    }
+}
@@ -0,0 +1,53 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._2validated.EmailAddress;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a list of email addresses sequentially and in parallel. Every tenth address is invalid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraverseBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    List<String> emails;
+
+    @Setup
+    public void setup() {
+        emails = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            emails.add(i % 10 == 0 ? "user" + i + "_example.com" : "user" + i + "@example.com");
+    }
+
+    @Benchmark
+    public Validated<List<EmailAddress>> traverse() {
+        return Validated.traverse(emails, EmailAddress::of);
+    }
+
+    @Benchmark
+    public Validated<List<EmailAddress>> parallelTraverse() {
+        return Validated.parallelTraverse(emails, EmailAddress::of);
+    }
+}
@@ -0,0 +1,78 @@
+package org.kantega.cbyc.benchmarks;
+
+import org.kantega.cbc.testless._3confirm.Database;
+import org.kantega.cbc.testless._3confirm.DigestMessage;
+import org.kantega.cbyc.Validated;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the three validation styles from the examples end to end: Bean Validation with Hibernate Validator
+ * (_1beanvalidation), smart constructors combined with Validated.accum (_2validated), and the confirmed email digest
+ * (_3confirm).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationStyleBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String inputs;
+
+    Validator validator;
+    String email;
+    String phonenumber;
+    String id;
+
+    @Setup
+    public void setup() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        boolean valid = inputs.equals("valid");
+        email = valid ? "ola.normann@test.org" : "ola.normann_test";
+        phonenumber = valid ? "12345678" : "abcdefgh";
+        id = valid ? "b" : "a";
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<org.kantega.cbc.testless._1beanvalidation.ContactInfo>> beanValidation() {
+        return validator.validate(new org.kantega.cbc.testless._1beanvalidation.ContactInfo(email));
+    }
+
+    @Benchmark
+    public Validated<org.kantega.cbc.testless._2validated.ContactInfo> validatedAccum() {
+        return
+          Validated.accum(
+            org.kantega.cbc.testless._2validated.EmailAddress.of(email),
+            org.kantega.cbc.testless._2validated.Phonenumber.of(phonenumber),
+            org.kantega.cbc.testless._2validated.ContactInfo::new
+          );
+    }
+
+    @Benchmark
+    public Validated<DigestMessage> confirmedDigest() {
+        return
+          Database.infoForId(id)
+            .map(contactInfo -> contactInfo.email)
+            .flatMap(emailAddress -> emailAddress.fold(
+              unconfirmed -> Validated.<DigestMessage>invalid("Epostadressen er ikke bekreftet"),
+              confirmed -> Validated.valid(new DigestMessage(confirmed, "Dette er en oppsummering"))));
+    }
+}
@@ -0,0 +1,647 @@
+package org.kantega.cbyc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An AsyncValidated is a Validated that is computed asynchronously, typically because the validation needs I/O like
+ * a database lookup. It has the same combinators as Validated, but <code>accum()</code> runs its arguments
+ * concurrently, so accumulating five lookups takes as long as the slowest one, not the sum of all five.
+ * <br/>
+ * Validations are run on the supplied Executor. The default executor runs every validation in its own virtual thread
+ * when the JVM supports it, and in a cached pool of daemon threads if not.
+ * <br/>
+ * <code>accum()</code> can be given an ErrorBudget. Once the budget is used up, the result is completed right away and
+ * the validations that are still running are cancelled.
+ *
+ * @param <A> the type of the value that is validated
+ */
+public final class AsyncValidated<A> {
+
+    private final CompletableFuture<Validated<A>> future;
+    private final Runnable cancel;
+
+    private AsyncValidated(CompletableFuture<Validated<A>> future, Runnable cancel) {
+        this.future = future;
+        this.cancel = cancel;
+    }
+
+    /**
+     * @return the executor that is used when no executor is given.
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.executor;
+    }
+
+    /**
+     * Runs the validation asynchronously on the default executor.
+     *
+     * @param validation The validation to run
+     * @param <A>        The type of the validated value
+     * @return a new AsyncValidated
+     */
+    public static <A> AsyncValidated<A> supply(Supplier<Validated<A>> validation) {
+        return supply(validation, defaultExecutor());
+    }
+
+    /**
+     * Runs the validation asynchronously on the supplied executor. Cancelling the AsyncValidated interrupts the
+     * validation if it is running.
+     *
+     * @param validation The validation to run
+     * @param executor   The executor that runs the validation
+     * @param <A>        The type of the validated value
+     * @return a new AsyncValidated
+     */
+    public static <A> AsyncValidated<A> supply(Supplier<Validated<A>> validation, Executor executor) {
+        CompletableFuture<Validated<A>> future = new CompletableFuture<>();
+        FutureTask<Validated<A>> task = new FutureTask<>(validation::get) {
+            @Override
+            protected void set(Validated<A> v) {
+                super.set(v);
+                future.complete(v);
+            }
+
+            @Override
+            protected void setException(Throwable t) {
+                super.setException(t);
+                future.completeExceptionally(t);
+            }
+        };
+        executor.execute(task);
+        return new AsyncValidated<>(future, () -> {
+            task.cancel(true);
+            future.cancel(false);
+        });
+    }
+
+    /**
+     * Runs the validation asynchronously on the supplied executor, like <code>supply(Supplier, Executor)</code>, and
+     * gives up after the timeout.
+     *
+     * @param validation The validation to run
+     * @param executor   The executor that runs the validation
+     * @param timeout    The longest time the validation may take
+     * @param <A>        The type of the validated value
+     * @return a new AsyncValidated
+     */
+    public static <A> AsyncValidated<A> supply(Supplier<Validated<A>> validation, Executor executor, Duration timeout) {
+        return supply(validation, executor).timeout(timeout);
+    }
+
+    /**
+     * Wraps a validation that has already been run.
+     *
+     * @param validated The result of the validation
+     * @param <A>       The type of the validated value
+     * @return a completed AsyncValidated
+     */
+    public static <A> AsyncValidated<A> completed(Validated<A> validated) {
+        return new AsyncValidated<>(CompletableFuture.completedFuture(validated), () -> {
+        });
+    }
+
+    /**
+     * Wraps a CompletableFuture of a Validated. Cancelling the AsyncValidated cancels the future.
+     *
+     * @param future The future result of the validation
+     * @param <A>    The type of the validated value
+     * @return a new AsyncValidated
+     */
+    public static <A> AsyncValidated<A> of(CompletableFuture<Validated<A>> future) {
+        return new AsyncValidated<>(future, () -> future.cancel(true));
+    }
+
+    /**
+     * Gives up the validation if it does not complete within the timeout. The result is then an Invalid, and the
+     * validation is cancelled.
+     *
+     * @param timeout The longest time the validation may take
+     * @return a new AsyncValidated
+     */
+    public AsyncValidated<A> timeout(Duration timeout) {
+        long millis = timeout.toMillis();
+        CompletableFuture<Validated<A>> timed =
+          future
+            .copy()
+            .completeOnTimeout(Validated.invalid(ErrorCode.timeout, millis), millis, TimeUnit.MILLISECONDS);
+        timed.whenComplete((v, t) -> {
+            if (!future.isDone())
+                cancel.run();
+        });
+        return new AsyncValidated<>(timed, cancel);
+    }
+
+    /**
+     * Transforms the value when the validation completes, if it is Valid.
+     *
+     * @param f   The transformation function
+     * @param <B> the type of the value that the function returns
+     * @return a new AsyncValidated
+     */
+    public <B> AsyncValidated<B> map(Function<A, B> f) {
+        return new AsyncValidated<>(future.thenApply(v -> v.map(f)), cancel);
+    }
+
+    /**
+     * Applies a new validation to the value when the validation completes, if it is Valid.
+     *
+     * @param f   the function that applies a new validation
+     * @param <B> the type of the value the next validation validates
+     * @return a new AsyncValidated
+     */
+    public <B> AsyncValidated<B> flatMap(Function<A, Validated<B>> f) {
+        return new AsyncValidated<>(future.thenApply(v -> v.flatMap(f)), cancel);
+    }
+
+    /**
+     * Continues with another asynchronous validation when this one completes, if it is Valid.
+     *
+     * @param f   the function that starts the next validation
+     * @param <B> the type of the value the next validation validates
+     * @return a new AsyncValidated
+     */
+    public <B> AsyncValidated<B> flatMapAsync(Function<A, AsyncValidated<B>> f) {
+        return
+          new AsyncValidated<>(
+            future.thenCompose(v -> {
+                Chain<Failure> msgs = Validated.Invalid.msgsOf(v);
+                return
+                  msgs == null ?
+                    f.apply(Validated.Valid.valueOf(v)).future :
+                    CompletableFuture.completedFuture(Validated.Invalid.<B>of(msgs));
+            }),
+            cancel);
+    }
+
+    /**
+     * Applies the function of the supplied validation if both are Valid. Accumulates the failure messages if either
+     * or both are Invalid. The two validations run concurrently.
+     *
+     * @param vf  The validated function to apply
+     * @param <B> the type of the return value of the function.
+     * @return a new AsyncValidated.
+     */
+    public <B> AsyncValidated<B> apply(AsyncValidated<Function<A, B>> vf) {
+        return accum(vf, this, (f, a) -> f.apply(a));
+    }
+
+    /**
+     * Cancels the validation, interrupting it if it is running.
+     */
+    public void cancel() {
+        cancel.run();
+    }
+
+    /**
+     * @return a future that completes with the result of the validation.
+     */
+    public CompletableFuture<Validated<A>> toCompletableFuture() {
+        return future;
+    }
+
+    /**
+     * Waits for the validation to complete.
+     *
+     * @return the result of the validation
+     */
+    public Validated<A> join() {
+        return future.join();
+    }
+
+    /**
+     * Accumulates two asynchronous validations. They run concurrently, and when both have completed the values are
+     * applied to the provided function if both are Valid. If not, their messages are accumulated, in the order of the
+     * arguments.
+     *
+     * @param va  An asynchronous validation of a
+     * @param vb  An asynchronous validation of b
+     * @param f   the function that joins the values
+     * @param <A> the type of a
+     * @param <B> the type of b
+     * @param <T> the return type of the provided function
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, BiFunction<A, B, T> f) {
+        return accum(ErrorBudget.all(), va, vb, f);
+    }
+
+    /**
+     * Accumulates two asynchronous validations within the budget. As soon as the completed validations have used up
+     * the budget, the result completes, and the validations that are still running are cancelled.
+     *
+     * @param budget the number of messages to collect before giving up
+     * @param va     An asynchronous validation of a
+     * @param vb     An asynchronous validation of b
+     * @param f      the function that joins the values
+     * @param <A>    the type of a
+     * @param <B>    the type of b
+     * @param <T>    the return type of the provided function
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, BiFunction<A, B, T> f) {
+        return all(budget, va, vb).map(values -> f.apply((A) values[0], (B) values[1]));
+    }
+
+    /**
+     * Accumulates three asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, Function3<A, B, C, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, f);
+    }
+
+    /**
+     * Accumulates three asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, Function3<A, B, C, T> f) {
+        return all(budget, va, vb, vc).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2]));
+    }
+
+    /**
+     * Accumulates four asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, Function4<A, B, C, D, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, f);
+    }
+
+    /**
+     * Accumulates four asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, Function4<A, B, C, D, T> f) {
+        return all(budget, va, vb, vc, vd).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3]));
+    }
+
+    /**
+     * Accumulates five asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, Function5<A, B, C, D, E, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, f);
+    }
+
+    /**
+     * Accumulates five asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, Function5<A, B, C, D, E, T> f) {
+        return all(budget, va, vb, vc, vd, ve).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4]));
+    }
+
+    /**
+     * Accumulates six asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, Function6<A, B, C, D, E, F, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, f);
+    }
+
+    /**
+     * Accumulates six asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, Function6<A, B, C, D, E, F, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5]));
+    }
+
+    /**
+     * Accumulates seven asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, Function7<A, B, C, D, E, F, G, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, f);
+    }
+
+    /**
+     * Accumulates seven asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, Function7<A, B, C, D, E, F, G, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6]));
+    }
+
+    /**
+     * Accumulates eight asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, Function8<A, B, C, D, E, F, G, H, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, f);
+    }
+
+    /**
+     * Accumulates eight asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, Function8<A, B, C, D, E, F, G, H, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7]));
+    }
+
+    /**
+     * Accumulates nine asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, Function9<A, B, C, D, E, F, G, H, I, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, f);
+    }
+
+    /**
+     * Accumulates nine asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, Function9<A, B, C, D, E, F, G, H, I, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8]));
+    }
+
+    /**
+     * Accumulates ten asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, Function10<A, B, C, D, E, F, G, H, I, J, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, f);
+    }
+
+    /**
+     * Accumulates ten asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, Function10<A, B, C, D, E, F, G, H, I, J, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9]));
+    }
+
+    /**
+     * Accumulates eleven asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, Function11<A, B, C, D, E, F, G, H, I, J, K, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, f);
+    }
+
+    /**
+     * Accumulates eleven asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, Function11<A, B, C, D, E, F, G, H, I, J, K, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10]));
+    }
+
+    /**
+     * Accumulates twelve asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, Function12<A, B, C, D, E, F, G, H, I, J, K, L, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, f);
+    }
+
+    /**
+     * Accumulates twelve asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, Function12<A, B, C, D, E, F, G, H, I, J, K, L, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10], (L) values[11]));
+    }
+
+    /**
+     * Accumulates thirteen asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, Function13<A, B, C, D, E, F, G, H, I, J, K, L, M, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, f);
+    }
+
+    /**
+     * Accumulates thirteen asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, Function13<A, B, C, D, E, F, G, H, I, J, K, L, M, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10], (L) values[11], (M) values[12]));
+    }
+
+    /**
+     * Accumulates fourteen asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, Function14<A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn, f);
+    }
+
+    /**
+     * Accumulates fourteen asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, Function14<A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10], (L) values[11], (M) values[12], (N) values[13]));
+    }
+
+    /**
+     * Accumulates fifteen asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, AsyncValidated<O> vo, Function15<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn, vo, f);
+    }
+
+    /**
+     * Accumulates fifteen asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, AsyncValidated<O> vo, Function15<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn, vo).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10], (L) values[11], (M) values[12], (N) values[13], (O) values[14]));
+    }
+
+    /**
+     * Accumulates sixteen asynchronous validations, see <code>accum(AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> AsyncValidated<T> accum(AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, AsyncValidated<O> vo, AsyncValidated<P> vp, Function16<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> f) {
+        return accum(ErrorBudget.all(), va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn, vo, vp, f);
+    }
+
+    /**
+     * Accumulates sixteen asynchronous validations within the budget, see
+     * <code>accum(ErrorBudget, AsyncValidated, AsyncValidated, BiFunction)</code>.
+     *
+     * @return a new AsyncValidated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> AsyncValidated<T> accum(ErrorBudget budget, AsyncValidated<A> va, AsyncValidated<B> vb, AsyncValidated<C> vc, AsyncValidated<D> vd, AsyncValidated<E> ve, AsyncValidated<F> vf, AsyncValidated<G> vg, AsyncValidated<H> vh, AsyncValidated<I> vi, AsyncValidated<J> vj, AsyncValidated<K> vk, AsyncValidated<L> vl, AsyncValidated<M> vm, AsyncValidated<N> vn, AsyncValidated<O> vo, AsyncValidated<P> vp, Function16<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> f) {
+        return all(budget, va, vb, vc, vd, ve, vf, vg, vh, vi, vj, vk, vl, vm, vn, vo, vp).map(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4], (F) values[5], (G) values[6], (H) values[7], (I) values[8], (J) values[9], (K) values[10], (L) values[11], (M) values[12], (N) values[13], (O) values[14], (P) values[15]));
+    }
+
+    /**
+     * Waits for all the validations, and completes with an array of their values in argument order if all are Valid.
+     */
+    private static AsyncValidated<Object[]> all(ErrorBudget budget, AsyncValidated<?>... validations) {
+        Accumulation accumulation = new Accumulation(budget.maxMessages, validations);
+        for (int i = 0; i < validations.length; i++) {
+            int index = i;
+            validations[i].future.whenComplete((v, t) -> accumulation.complete(index, v, t));
+        }
+        return new AsyncValidated<>(accumulation.result, accumulation::cancel);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncValidated{" +
+          "future=" + future +
+          '}';
+    }
+
+    /**
+     * Collects the results of concurrent validations. The results are stored by argument index, so that the messages
+     * are accumulated in argument order regardless of the order in which the validations complete.
+     */
+    private static final class Accumulation {
+
+        final int maxMessages;
+        final AsyncValidated<?>[] validations;
+        final Validated<?>[] results;
+        final CompletableFuture<Validated<Object[]>> result = new CompletableFuture<>();
+        int completed;
+        long messages;
+
+        Accumulation(int maxMessages, AsyncValidated<?>[] validations) {
+            this.maxMessages = maxMessages;
+            this.validations = validations;
+            this.results = new Validated<?>[validations.length];
+        }
+
+        void complete(int index, Validated<?> validated, Throwable failure) {
+            boolean cancelRest;
+            synchronized (this) {
+                if (result.isDone())
+                    return;
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                    cancelRest = true;
+                } else {
+                    results[index] = validated;
+                    completed++;
+                    Chain<Failure> msgs = Validated.Invalid.msgsOf(validated);
+                    if (msgs != null)
+                        messages += msgs.size();
+                    if (completed == results.length)
+                        result.complete(collect(0));
+                    else if (messages >= maxMessages)
+                        result.complete(collect(results.length - completed));
+                    cancelRest = result.isDone() && completed < results.length;
+                }
+            }
+            if (cancelRest)
+                cancel();
+        }
+
+        private Validated<Object[]> collect(int cancelled) {
+            MessageBuffer buffer = new MessageBuffer(maxMessages);
+            for (Validated<?> v : results) {
+                Chain<Failure> msgs = v == null ? null : Validated.Invalid.msgsOf(v);
+                if (msgs != null)
+                    buffer.add(msgs);
+            }
+            if (buffer.isEmpty()) {
+                Object[] values = new Object[results.length];
+                for (int i = 0; i < results.length; i++)
+                    values[i] = Validated.Valid.valueOf(results[i]);
+                return Validated.valid(values);
+            }
+            Chain<Failure> msgs = buffer.toChain();
+            return
+              Validated.Invalid.of(
+                cancelled == 0 ?
+                  msgs :
+                  msgs.append(Chain.one(Failure.of(ErrorCode.cancelled, cancelled, maxMessages))));
+        }
+
+        void cancel() {
+            result.cancel(false);
+            for (AsyncValidated<?> validation : validations)
+                if (!validation.future.isDone())
+                    validation.cancel();
+        }
+    }
+
+    /**
+     * Creates the default executor on first use.
+     */
+    private static final class DefaultExecutor {
+
+        static final Executor executor = create();
+
+        private static Executor create() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "async-validated");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.kantega.cbyc;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A BatchLoader validates keys by looking them up in bulk. Instead of one round-trip per key, the keys that are
+ * requested within a batch are collected, duplicates are removed, and all of them are looked up with one call to the
+ * bulk lookup function. Every requester then gets a Validated of its own key, which is Invalid if the lookup did not
+ * find the key.
+ * <br/>
+ * Keys are collected in two ways:
+ * <br/>
+ * <code>load()</code> adds a key to the current batch and returns an AsyncValidated. The batch is looked up when
+ * <code>dispatch()</code> is called, when the batch window has passed, or when the batch is full.
+ * <br/>
+ * <code>loadAll()</code> and <code>traverse()</code> look up a whole collection of keys at once.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values that are looked up
+ */
+public final class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, Optional<V>>> bulkLookup;
+    private final Function<K, String> missingMessage;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Executor executor;
+
+    private LinkedHashMap<K, CompletableFuture<Validated<V>>> batch = new LinkedHashMap<>();
+
+    private BatchLoader(
+      Function<Set<K>, Map<K, Optional<V>>> bulkLookup,
+      Function<K, String> missingMessage,
+      Duration window,
+      int maxBatchSize,
+      Executor executor) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("The batch size must be positive, was " + maxBatchSize);
+        this.bulkLookup = bulkLookup;
+        this.missingMessage = missingMessage;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a BatchLoader that only looks up the keys passed to <code>load()</code> when <code>dispatch()</code> is
+     * called.
+     *
+     * @param bulkLookup     looks up a set of keys with one call. Keys that are not found may be missing from the map,
+     *                       or map to an empty Optional.
+     * @param missingMessage the message of the Invalid when a key is not found
+     * @param <K>            the type of the keys
+     * @param <V>            the type of the values that are looked up
+     * @return a new BatchLoader
+     */
+    public static <K, V> BatchLoader<K, V> of(Function<Set<K>, Map<K, Optional<V>>> bulkLookup, Function<K, String> missingMessage) {
+        return new BatchLoader<>(bulkLookup, missingMessage, null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Creates a BatchLoader that looks up the keys passed to <code>load()</code> when the window has passed since the
+     * first key of the batch was requested, or as soon as the batch contains maxBatchSize keys.
+     *
+     * @param bulkLookup     looks up a set of keys with one call
+     * @param missingMessage the message of the Invalid when a key is not found
+     * @param window         how long to collect keys before looking them up
+     * @param maxBatchSize   the largest number of keys to look up in one call
+     * @param executor       the executor that runs lookups when the window has passed
+     * @param <K>            the type of the keys
+     * @param <V>            the type of the values that are looked up
+     * @return a new BatchLoader
+     */
+    public static <K, V> BatchLoader<K, V> windowed(
+      Function<Set<K>, Map<K, Optional<V>>> bulkLookup,
+      Function<K, String> missingMessage,
+      Duration window,
+      int maxBatchSize,
+      Executor executor) {
+        return new BatchLoader<>(bulkLookup, missingMessage, window, maxBatchSize, executor);
+    }
+
+    /**
+     * Adds the key to the current batch. Requesting a key that is already in the batch returns the same result.
+     *
+     * @param key the key to look up
+     * @return the validated value, completed when the batch has been looked up
+     */
+    public AsyncValidated<V> load(K key) {
+        CompletableFuture<Validated<V>> result;
+        Map<K, CompletableFuture<Validated<V>>> full = null;
+        synchronized (this) {
+            result = batch.get(key);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                batch.put(key, result);
+                if (batch.size() >= maxBatchSize)
+                    full = takeBatch();
+                else if (batch.size() == 1 && window != null)
+                    scheduleDispatch();
+            }
+        }
+        if (full != null)
+            lookup(full);
+        return AsyncValidated.of(result);
+    }
+
+    /**
+     * Looks up all the keys of the current batch with one call, and completes their results.
+     */
+    public void dispatch() {
+        Map<K, CompletableFuture<Validated<V>>> current;
+        synchronized (this) {
+            current = takeBatch();
+        }
+        if (!current.isEmpty())
+            lookup(current);
+    }
+
+    /**
+     * Looks up all the keys with one call, each distinct key once.
+     *
+     * @param keys the keys to look up
+     * @return a map from each key to its validated value
+     */
+    public Map<K, Validated<V>> loadAll(Collection<K> keys) {
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        Map<K, Optional<V>> found = bulkLookup.apply(distinct);
+        Map<K, Validated<V>> results = new HashMap<>(distinct.size() * 2);
+        for (K key : distinct)
+            results.put(key, toValidated(key, found));
+        return results;
+    }
+
+    /**
+     * Looks up all the keys with one call, and accumulates the results into a Validated list in the order of the keys.
+     * The messages of missing keys are tagged with the index of the key.
+     *
+     * @param keys the keys to look up
+     * @return a Validated list of the values
+     */
+    public Validated<List<V>> traverse(List<K> keys) {
+        Map<K, Validated<V>> results = loadAll(keys);
+        return Validated.traverse(keys, results::get);
+    }
+
+    private Validated<V> toValidated(K key, Map<K, Optional<V>> found) {
+        Optional<V> value = found.get(key);
+        return
+          value != null && value.isPresent() ?
+            Validated.valid(value.get()) :
+            Validated.invalid(missingMessage.apply(key));
+    }
+
+    private Map<K, CompletableFuture<Validated<V>>> takeBatch() {
+        Map<K, CompletableFuture<Validated<V>>> current = batch;
+        batch = new LinkedHashMap<>();
+        return current;
+    }
+
+    /**
+     * The timer only dispatches the batch it was scheduled for. If that batch was already taken, because it became full
+     * or dispatch() was called, the newer batch has a timer of its own.
+     */
+    private void scheduleDispatch() {
+        Map<K, CompletableFuture<Validated<V>>> scheduled = batch;
+        CompletableFuture
+          .delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, executor)
+          .execute(() -> dispatch(scheduled));
+    }
+
+    private void dispatch(Map<K, CompletableFuture<Validated<V>>> scheduled) {
+        synchronized (this) {
+            if (batch != scheduled)
+                return;
+            takeBatch();
+        }
+        lookup(scheduled);
+    }
+
+    private void lookup(Map<K, CompletableFuture<Validated<V>>> requests) {
+        Map<K, Optional<V>> found;
+        try {
+            found = bulkLookup.apply(Collections.unmodifiableSet(requests.keySet()));
+        } catch (RuntimeException e) {
+            requests.values().forEach(r -> r.completeExceptionally(e));
+            return;
+        }
+        requests.forEach((key, result) -> result.complete(toValidated(key, found)));
+    }
+}
@@ -0,0 +1,195 @@
+package org.kantega.cbyc;
+
+import javax.validation.Configuration;
+import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A bridge from Bean Validation to Validated, for code that must keep its constraint annotations and a Validator.
+ * <br/>
+ * Building a ValidatorFactory is slow, and so is the first validation of every class, since that is when the
+ * provider discovers the constraints of the class and loads the message bundles. A BeanValidation holds one factory
+ * and one Validator, which are thread safe, and can warm up a list of classes when it is built, so that the first
+ * request does not pay for it. Use <code>shared()</code> for a default instance, or a Builder to configure one.
+ * <br/>
+ * The violations become failures with the code <code>beanvalidation.violation</code>, with the property path and the
+ * message of the violation as arguments. The failures are sorted by property path, so that they come out in the same
+ * order every time.
+ */
+public final class BeanValidation implements AutoCloseable {
+
+    public static final ErrorCode violationError = ErrorCode.of("beanvalidation.violation", "{0} {1}");
+
+    private static final String failFastProperty = "hibernate.validator.fail_fast";
+
+    private static final Comparator<ConstraintViolation<?>> byPath =
+      Comparator.comparing((ConstraintViolation<?> v) -> v.getPropertyPath().toString())
+        .thenComparing(ConstraintViolation::getMessage);
+
+    private final ValidatorFactory factory;
+    private final Validator validator;
+
+    private BeanValidation(ValidatorFactory factory) {
+        this.factory = factory;
+        this.validator = factory.getValidator();
+    }
+
+    /**
+     * @return a BeanValidation with the default configuration, that is created the first time it is asked for
+     */
+    public static BeanValidation shared() {
+        return Shared.instance;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Validates the object against all its constraints in the given groups, or in the default group if there are no
+     * groups.
+     *
+     * @param value  the object to validate
+     * @param groups the groups of the constraints to check
+     * @param <T>    the type of the object
+     * @return the object if it has no violations, or the violations as failures
+     */
+    public <T> Validated<T> validate(T value, Class<?>... groups) {
+        if (value == null)
+            return Validated.invalid(Constraints.notNullError, "value");
+        Set<ConstraintViolation<T>> violations = validator.validate(value, groups);
+        return violations.isEmpty() ? Validated.valid(value) : Validated.Invalid.of(failures(violations));
+    }
+
+    /**
+     * Does the work of the first validation of the classes now. Discovering the constraints is only part of it, so
+     * this also interpolates the message of every constraint, which loads the message bundles and parses the
+     * templates, and validates a null value for every constrained property, which loads the validation engine.
+     *
+     * @param types the classes that will be validated
+     * @return this
+     */
+    public BeanValidation warmUp(Class<?>... types) {
+        MessageInterpolator interpolator = factory.getMessageInterpolator();
+        for (Class<?> type : types) {
+            BeanDescriptor bean = validator.getConstraintsForClass(type);
+            interpolate(interpolator, bean.getConstraintDescriptors());
+            for (PropertyDescriptor property : bean.getConstrainedProperties()) {
+                interpolate(interpolator, property.getConstraintDescriptors());
+                validator.validateValue(type, property.getPropertyName(), null);
+            }
+        }
+        return this;
+    }
+
+    private static void interpolate(MessageInterpolator interpolator, Set<ConstraintDescriptor<?>> descriptors) {
+        for (ConstraintDescriptor<?> descriptor : descriptors)
+            interpolator.interpolate(descriptor.getMessageTemplate(), new WarmUpContext(descriptor));
+    }
+
+    /**
+     * @return the Validator, for the parts of Bean Validation that the bridge does not cover
+     */
+    public Validator validator() {
+        return validator;
+    }
+
+    @Override
+    public void close() {
+        factory.close();
+    }
+
+    private static <T> Chain<Failure> failures(Set<ConstraintViolation<T>> violations) {
+        List<ConstraintViolation<T>> sorted = new ArrayList<>(violations);
+        if (sorted.size() > 1)
+            sorted.sort(byPath);
+        List<Failure> failures = new ArrayList<>(sorted.size());
+        for (ConstraintViolation<T> violation : sorted)
+            failures.add(Failure.of(violationError, violation.getPropertyPath().toString(), violation.getMessage()));
+        return Chain.ofAll(failures);
+    }
+
+    /**
+     * Configures a BeanValidation.
+     */
+    public static final class Builder {
+
+        private boolean failFast;
+        private final List<Class<?>> warmUp = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Stops at the first violation of an object, instead of reporting all of them. This is a Hibernate Validator
+         * property, and is ignored by other providers.
+         */
+        public Builder failFast(boolean failFast) {
+            this.failFast = failFast;
+            return this;
+        }
+
+        /**
+         * Adds classes whose constraints are discovered when the BeanValidation is built.
+         */
+        public Builder warmUp(Class<?>... types) {
+            warmUp.addAll(Arrays.asList(types));
+            return this;
+        }
+
+        public BeanValidation build() {
+            Configuration<?> configuration = Validation.byDefaultProvider().configure();
+            if (failFast)
+                configuration.addProperty(failFastProperty, "true");
+            BeanValidation beanValidation = new BeanValidation(configuration.buildValidatorFactory());
+            return beanValidation.warmUp(warmUp.toArray(new Class<?>[0]));
+        }
+    }
+
+    /**
+     * The context of interpolating a message without a value, when warming up.
+     */
+    private static final class WarmUpContext implements MessageInterpolator.Context {
+
+        private final ConstraintDescriptor<?> descriptor;
+
+        WarmUpContext(ConstraintDescriptor<?> descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return descriptor;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return null;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new ValidationException("Cannot unwrap the warm up context to " + type.getName());
+        }
+    }
+
+    /**
+     * Holds the shared instance, so that it is not created until it is used.
+     */
+    private static final class Shared {
+
+        static final BeanValidation instance = builder().build();
+    }
+}
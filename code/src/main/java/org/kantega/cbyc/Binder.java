@@ -0,0 +1,354 @@
+package org.kantega.cbyc;
+
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A Binder creates objects from named values, like settings or the fields of a form, by validating every value and
+ * passing them to a constructor. Values that fail are accumulated, and every failure names the field it belongs to.
+ * <br/>
+ * <code>Binder.of(type)</code> inspects the constructor of the type once. Every constructor parameter is a field,
+ * named by the parameter name, so the type must be compiled with <code>-parameters</code>. If the type of a parameter
+ * has a smart constructor, a public static method that takes one argument and returns a Validated of the type, like
+ * <code>Age.toAge(int)</code>, the value is passed through it. Otherwise the value must already have the type of the
+ * parameter.
+ * <br/>
+ * The constructor and the smart constructors are spun into lambdas with LambdaMetafactory when the binder is created,
+ * so binding does no reflection, and calls them like hand written code would. Binders are immutable and thread safe.
+ *
+ * @param <T> the type of the objects the binder creates
+ */
+public final class Binder<T> {
+
+    public static final ErrorCode missingError = ErrorCode.of("binder.missing", "{0} is missing");
+    public static final ErrorCode typeError = ErrorCode.of("binder.type", "{0} must be a {1}, but was a {2}");
+
+    private static final Class<?>[] functions = {
+      Supplier.class, Function.class, BiFunction.class, Function3.class, Function4.class, Function5.class,
+      Function6.class, Function7.class, Function8.class, Function9.class, Function10.class, Function11.class,
+      Function12.class, Function13.class, Function14.class, Function15.class, Function16.class
+    };
+
+    private final Class<T> type;
+    private final Field[] fields;
+    private final Function<Object[], Object> constructor;
+
+    private Binder(Class<T> type, Field[] fields, Function<Object[], Object> constructor) {
+        this.type = type;
+        this.fields = fields;
+        this.constructor = constructor;
+    }
+
+    /**
+     * Creates a binder for a public type, using its public constructor with the most parameters.
+     *
+     * @param type the type of the objects to create
+     * @param <T>  the type of the objects to create
+     * @return a new Binder
+     * @throws IllegalArgumentException if the type has no suitable constructor, or was compiled without parameter
+     *                                  names, or a parameter type has more than one smart constructor
+     */
+    public static <T> Binder<T> of(Class<T> type) {
+        return of(type, MethodHandles.lookup());
+    }
+
+    /**
+     * Creates a binder, with access to the constructor and smart constructors through the supplied lookup. The lookup
+     * must have full privilege access, like the one returned by <code>MethodHandles.lookup()</code>, since the
+     * functions of the binder are spun as lambdas in the class of the lookup.
+     *
+     * @param type   the type of the objects to create
+     * @param lookup a lookup that has access to the constructor and the smart constructors
+     * @param <T>    the type of the objects to create
+     * @return a new Binder
+     */
+    public static <T> Binder<T> of(Class<T> type, MethodHandles.Lookup lookup) {
+        Constructor<?> constructor = constructor(type);
+        Parameter[] parameters = constructor.getParameters();
+        Field[] fields = new Field[parameters.length];
+        try {
+            for (int i = 0; i < parameters.length; i++) {
+                Parameter parameter = parameters[i];
+                if (!parameter.isNamePresent())
+                    throw new IllegalArgumentException(type.getName() + " must be compiled with -parameters to be bound");
+                Method smart = smartConstructor(parameter.getType());
+                fields[i] =
+                  smart == null ?
+                    new Field(parameter.getName(), wrap(parameter.getType()), null) :
+                    new Field(parameter.getName(), wrap(smart.getParameterTypes()[0]), smartFunction(lookup, smart));
+            }
+            return new Binder<>(type, fields, spread(constructorFunction(lookup, constructor), parameters.length));
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            throw new IllegalArgumentException("Cannot access the constructors of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @return the names of the fields, in the order of the constructor parameters
+     */
+    public List<String> fieldNames() {
+        List<String> names = new ArrayList<>(fields.length);
+        for (Field field : fields)
+            names.add(field.name);
+        return names;
+    }
+
+    /**
+     * Binds the values of the source to a new object.
+     *
+     * @param source gives the value of a field, by name, or null if it has no value
+     * @return a Valid with the new object, or an Invalid with the failures of all the fields that failed
+     */
+    public Validated<T> bind(Function<String, ?> source) {
+        Object[] args = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            Object value = source.apply(field.name);
+            // Comparing the class first is cheaper than isInstance() with a class that is not a constant
+            if (value == null || (value.getClass() != field.valueType && !field.valueType.isInstance(value)))
+                return bind(source, args, i, value, null);
+            if (field.smartConstructor == null)
+                args[i] = value;
+            else {
+                Validated<?> validated = field.smartConstructor.apply(value);
+                if (!(validated instanceof Validated.Valid))
+                    return bind(source, args, i, value, validated);
+                args[i] = ((Validated.Valid<?>) validated).value;
+            }
+        }
+        return Validated.valid(type.cast(constructor.apply(args)));
+    }
+
+    /**
+     * Binds the rest of the fields, from the first one that did not pass the fast path of bind(), and accumulates the
+     * failures. Kept out of bind(), so that bind() is small enough to be inlined. The value of the first field, and the
+     * result of its smart constructor if it got that far, are passed on from the fast path, so that neither the source
+     * nor the smart constructor is called twice for the same field.
+     */
+    private Validated<T> bind(Function<String, ?> source, Object[] args, int from, Object fromValue, Validated<?> fromValidated) {
+        Chain<Failure> msgs = null;
+        for (int i = from; i < fields.length; i++) {
+            Field field = fields[i];
+            Object value = i == from ? fromValue : source.apply(field.name);
+            if (value == null)
+                msgs = Chain.append(msgs, field.missing);
+            else if (!field.valueType.isInstance(value))
+                msgs = Chain.append(msgs, Chain.one(Failure.of(typeError, field.name, field.valueType.getSimpleName(), value.getClass().getSimpleName())));
+            else if (field.smartConstructor == null) {
+                if (msgs == null)
+                    args[i] = value;
+            } else {
+                Validated<?> validated = i == from && fromValidated != null ? fromValidated : field.smartConstructor.apply(value);
+                Chain<Failure> failures = Validated.Invalid.msgsOf(validated);
+                if (failures != null)
+                    msgs = Chain.append(msgs, failures.map(failure -> Failure.of(ErrorCode.field, field.name, failure)));
+                else if (msgs == null)
+                    args[i] = Validated.Valid.valueOf(validated);
+            }
+        }
+        return msgs == null ? Validated.valid(type.cast(constructor.apply(args))) : Validated.Invalid.of(msgs);
+    }
+
+    /**
+     * Wraps the function of the constructor in a function of the argument array, so that binding calls it through one
+     * small lambda that the JIT can inline.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<Object[], Object> spread(Object function, int n) {
+        switch (n) {
+            case 0: {
+                Supplier f = (Supplier) function;
+                return args -> f.get();
+            }
+            case 1: {
+                Function f = (Function) function;
+                return args -> f.apply(args[0]);
+            }
+            case 2: {
+                BiFunction f = (BiFunction) function;
+                return args -> f.apply(args[0], args[1]);
+            }
+            case 3: {
+                Function3 f = (Function3) function;
+                return args -> f.apply(args[0], args[1], args[2]);
+            }
+            case 4: {
+                Function4 f = (Function4) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3]);
+            }
+            case 5: {
+                Function5 f = (Function5) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4]);
+            }
+            case 6: {
+                Function6 f = (Function6) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5]);
+            }
+            case 7: {
+                Function7 f = (Function7) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6]);
+            }
+            case 8: {
+                Function8 f = (Function8) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]);
+            }
+            case 9: {
+                Function9 f = (Function9) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8]);
+            }
+            case 10: {
+                Function10 f = (Function10) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9]);
+            }
+            case 11: {
+                Function11 f = (Function11) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10]);
+            }
+            case 12: {
+                Function12 f = (Function12) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11]);
+            }
+            case 13: {
+                Function13 f = (Function13) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11], args[12]);
+            }
+            case 14: {
+                Function14 f = (Function14) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11], args[12], args[13]);
+            }
+            case 15: {
+                Function15 f = (Function15) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11], args[12], args[13], args[14]);
+            }
+            case 16: {
+                Function16 f = (Function16) function;
+                return args -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7], args[8], args[9], args[10], args[11], args[12], args[13], args[14], args[15]);
+            }
+            default: {
+                MethodHandle handle = (MethodHandle) function;
+                return args -> {
+                    try {
+                        return handle.invokeExact(args);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * Spins a Supplier, Function, BiFunction or FunctionN that calls the constructor, or a spreading method handle
+     * if it has more parameters than the largest FunctionN.
+     */
+    private static Object constructorFunction(MethodHandles.Lookup lookup, Constructor<?> constructor) throws IllegalAccessException, LambdaConversionException {
+        MethodHandle handle = lookup.unreflectConstructor(constructor);
+        int n = constructor.getParameterCount();
+        if (n > functions.length - 1)
+            return handle
+              .asSpreader(Object[].class, n)
+              .asType(MethodType.methodType(Object.class, Object[].class));
+        return spin(lookup, functions[n], n == 0 ? "get" : "apply", handle);
+    }
+
+    /**
+     * Spins a Function that calls the smart constructor, unboxing the argument if it takes a primitive.
+     */
+    private static Function<Object, Validated<?>> smartFunction(MethodHandles.Lookup lookup, Method smart) throws IllegalAccessException, LambdaConversionException {
+        @SuppressWarnings("unchecked")
+        Function<Object, Validated<?>> f = (Function<Object, Validated<?>>) spin(lookup, Function.class, "apply", lookup.unreflect(smart));
+        return f;
+    }
+
+    private static Object spin(MethodHandles.Lookup lookup, Class<?> functionType, String name, MethodHandle handle) throws LambdaConversionException {
+        MethodType type = handle.type();
+        MethodType instantiated = type.wrap().changeReturnType(Object.class);
+        try {
+            return LambdaMetafactory.metafactory(
+              lookup,
+              name,
+              MethodType.methodType(functionType),
+              instantiated.erase(),
+              handle,
+              instantiated)
+              .getTarget()
+              .invoke();
+        } catch (LambdaConversionException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Constructor<?> constructor(Class<?> type) {
+        Constructor<?> best = null;
+        boolean tie = false;
+        for (Constructor<?> c : type.getConstructors()) {
+            if (best == null || c.getParameterCount() > best.getParameterCount()) {
+                best = c;
+                tie = false;
+            } else if (c.getParameterCount() == best.getParameterCount())
+                tie = true;
+        }
+        if (best == null || tie)
+            throw new IllegalArgumentException(type.getName() + " must have one public constructor with the most parameters");
+        return best;
+    }
+
+    /**
+     * Finds the public static method of the type that takes one argument and returns a Validated of the type.
+     */
+    private static Method smartConstructor(Class<?> type) {
+        if (type.isPrimitive() || type.isArray())
+            return null;
+        Method found = null;
+        for (Method m : type.getMethods()) {
+            if (!Modifier.isStatic(m.getModifiers()) || m.getParameterCount() != 1 || m.getDeclaringClass() != type)
+                continue;
+            Type returnType = m.getGenericReturnType();
+            if (returnType instanceof ParameterizedType
+              && ((ParameterizedType) returnType).getRawType() == Validated.class
+              && ((ParameterizedType) returnType).getActualTypeArguments()[0] == type) {
+                if (found != null)
+                    throw new IllegalArgumentException(type.getName() + " has more than one smart constructor: " + found.getName() + " and " + m.getName());
+                found = m;
+            }
+        }
+        return found;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static final class Field {
+
+        final String name;
+        final Class<?> valueType;
+        final Function<Object, Validated<?>> smartConstructor;
+        final Chain<Failure> missing;
+
+        Field(String name, Class<?> valueType, Function<Object, Validated<?>> smartConstructor) {
+            this.name = name;
+            this.valueType = valueType;
+            this.smartConstructor = smartConstructor;
+            this.missing = Chain.one(Failure.of(missingError, name));
+        }
+    }
+}
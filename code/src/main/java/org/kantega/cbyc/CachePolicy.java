@@ -0,0 +1,55 @@
+package org.kantega.cbyc;
+
+import java.time.Duration;
+
+/**
+ * Describes how many results a memoized validation keeps, and for how long. A CachePolicy is immutable, the
+ * <code>expireAfterWrite()</code> method returns a new policy.
+ * <pre>
+ * Memoized&lt;String, EmailAddress&gt; email =
+ *   Validated.memoize(EmailAddress::of, CachePolicy.maximumSize(100_000).expireAfterWrite(Duration.ofMinutes(10)));
+ * </pre>
+ */
+public final class CachePolicy {
+
+    final long maximumSize;
+    final long expireAfterWriteNanos;
+
+    private CachePolicy(long maximumSize, long expireAfterWriteNanos) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    /**
+     * Creates a policy that keeps at most maximumSize results. When the cache is full, the least recently used
+     * results are evicted first.
+     *
+     * @param maximumSize the largest number of results to keep, must be positive
+     * @return a new CachePolicy
+     */
+    public static CachePolicy maximumSize(long maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("The maximum size must be positive, was " + maximumSize);
+        return new CachePolicy(maximumSize, 0);
+    }
+
+    /**
+     * Creates a copy of this policy where results expire when they have been kept for the supplied duration.
+     *
+     * @param timeToLive how long a result is kept after it was computed, must be positive
+     * @return a new CachePolicy
+     */
+    public CachePolicy expireAfterWrite(Duration timeToLive) {
+        if (timeToLive.isNegative() || timeToLive.isZero())
+            throw new IllegalArgumentException("The time to live must be positive, was " + timeToLive);
+        return new CachePolicy(maximumSize, timeToLive.toNanos());
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicy{" +
+          "maximumSize=" + maximumSize +
+          ", expireAfterWrite=" + (expireAfterWriteNanos == 0 ? "never" : Duration.ofNanos(expireAfterWriteNanos)) +
+          '}';
+    }
+}
@@ -0,0 +1,59 @@
+package org.kantega.cbyc;
+
+/**
+ * A snapshot of the statistics of a memoized validation.
+ */
+public final class CacheStats {
+
+    /**
+     * The number of calls that were answered from the cache.
+     */
+    public final long hits;
+
+    /**
+     * The number of calls that ran the validation, including calls where the cached result had expired.
+     */
+    public final long misses;
+
+    /**
+     * The number of results that were removed to make room for new ones.
+     */
+    public final long evictions;
+
+    /**
+     * The number of results that were removed because they had expired.
+     */
+    public final long expirations;
+
+    /**
+     * The number of results in the cache when the snapshot was taken.
+     */
+    public final long size;
+
+    CacheStats(long hits, long misses, long evictions, long expirations, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+    }
+
+    /**
+     * @return the fraction of calls that were answered from the cache, or 1 if there have been no calls.
+     */
+    public double hitRate() {
+        long calls = hits + misses;
+        return calls == 0 ? 1.0 : (double) hits / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+          "hits=" + hits +
+          ", misses=" + misses +
+          ", evictions=" + evictions +
+          ", expirations=" + expirations +
+          ", size=" + size +
+          '}';
+    }
+}
@@ -0,0 +1,191 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable, nonempty sequence that supports appending another Chain in constant time. Appending does not copy any
+ * elements, the two chains are shared structurally by the result. The chain is only flattened into a List when someone
+ * asks for it, and the flattened list is cached.
+ * <br/>
+ * Chains are safe to share between threads.
+ *
+ * @param <A> the type of the elements
+ */
+abstract class Chain<A> {
+
+    private volatile List<A> flattened;
+
+    private Chain() {
+    }
+
+    /**
+     * Creates a Chain with one element.
+     *
+     * @param a   the element
+     * @param <A> the type of the element
+     * @return a new Chain
+     */
+    static <A> Chain<A> one(A a) {
+        return new One<>(a);
+    }
+
+    /**
+     * Creates a Chain from the contents of the list. The list must not be empty.
+     *
+     * @param list the elements of the chain
+     * @param <A>  the type of the elements
+     * @return a new chain
+     */
+    static <A> Chain<A> ofAll(List<A> list) {
+        if (list.isEmpty())
+            throw new IllegalArgumentException("A Chain cannot be empty");
+        return new Flat<>(Collections.unmodifiableList(new ArrayList<>(list)));
+    }
+
+    /**
+     * Appends two chains, either of them may be null, which is treated as the empty chain.
+     *
+     * @param first  the first chain, or null
+     * @param second the second chain, or null
+     * @param <A>    the type of the elements
+     * @return the appended chain, or null if both chains were null
+     */
+    static <A> Chain<A> append(Chain<A> first, Chain<A> second) {
+        return
+          first == null ? second :
+            second == null ? first :
+              new Concat<>(first, second);
+    }
+
+    /**
+     * @return the number of elements in this chain
+     */
+    abstract int size();
+
+    /**
+     * Appends the other chain to the end of this chain without copying either of them.
+     *
+     * @param other the chain to append
+     * @return a new chain
+     */
+    Chain<A> append(Chain<A> other) {
+        return new Concat<>(this, other);
+    }
+
+    /**
+     * Flattens the chain into an unmodifiable list. The list is computed once and then reused.
+     *
+     * @return the elements of the chain in order
+     */
+    List<A> toList() {
+        List<A> list = flattened;
+        if (list == null) {
+            list = flatten();
+            flattened = list;
+        }
+        return list;
+    }
+
+    /**
+     * Creates a new chain with the function applied to every element.
+     *
+     * @param f   the function to apply
+     * @param <B> the type of the new elements
+     * @return a new chain of the same size
+     */
+    <B> Chain<B> map(Function<A, B> f) {
+        List<A> list = toList();
+        ArrayList<B> mapped = new ArrayList<>(list.size());
+        for (A a : list)
+            mapped.add(f.apply(a));
+        return new Flat<>(Collections.unmodifiableList(mapped));
+    }
+
+    abstract void addTo(List<A> list, Deque<Chain<A>> stack);
+
+    private List<A> flatten() {
+        ArrayList<A> list = new ArrayList<>(size());
+        Deque<Chain<A>> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty())
+            stack.pop().addTo(list, stack);
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private static final class One<A> extends Chain<A> {
+
+        final A value;
+
+        One(A value) {
+            this.value = value;
+        }
+
+        @Override
+        int size() {
+            return 1;
+        }
+
+        @Override
+        void addTo(List<A> list, Deque<Chain<A>> stack) {
+            list.add(value);
+        }
+    }
+
+    private static final class Flat<A> extends Chain<A> {
+
+        final List<A> values;
+
+        Flat(List<A> values) {
+            this.values = values;
+        }
+
+        @Override
+        int size() {
+            return values.size();
+        }
+
+        @Override
+        List<A> toList() {
+            return values;
+        }
+
+        @Override
+        void addTo(List<A> list, Deque<Chain<A>> stack) {
+            list.addAll(values);
+        }
+    }
+
+    private static final class Concat<A> extends Chain<A> {
+
+        final Chain<A> left;
+        final Chain<A> right;
+        final int size;
+
+        Concat(Chain<A> left, Chain<A> right) {
+            this.left = left;
+            this.right = right;
+            this.size = left.size() + right.size();
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void addTo(List<A> list, Deque<Chain<A>> stack) {
+            stack.push(right);
+            stack.push(left);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package org.kantega.cbyc;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link Rule} that has been compiled into a single check. The Invalid of every failure the rule can report is
+ * created when the rule is compiled, so checking a value allocates nothing, whether it is valid or not, except the
+ * Valid that holds a valid value.
+ * <br/>
+ * A CompiledRule is immutable and thread safe. A rule with a name is timed and reported to the listener of
+ * {@link Instrumentation} when one is installed.
+ *
+ * @param <A> the type of the values the rule applies to
+ */
+public final class CompiledRule<A> implements Function<A, Validated<A>> {
+
+    private final Check<A> check;
+    private final String name;
+
+    CompiledRule(Check<A> check, String name) {
+        this.check = check;
+        this.name = name;
+    }
+
+    /**
+     * Gives the rule a name, so that its checks are timed and reported when instrumentation is enabled.
+     *
+     * @param name the name of the rule
+     * @return a rule with the same checks and the name
+     */
+    public CompiledRule<A> named(String name) {
+        return new CompiledRule<>(check, name);
+    }
+
+    /**
+     * @return the name of the rule, or null if it has none
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @param value the value to check
+     * @return true if the rule holds for the value
+     */
+    public boolean test(A value) {
+        return check(value) == null;
+    }
+
+    /**
+     * Checks the value.
+     *
+     * @param value the value to check
+     * @return a Valid with the value, or an Invalid with the first failure of the rule
+     */
+    @SuppressWarnings("unchecked")
+    public Validated<A> validate(A value) {
+        Validated<?> invalid = check(value);
+        return invalid == null ? Validated.valid(value) : (Validated<A>) invalid;
+    }
+
+    /**
+     * Checks the value, and creates an object from it if the rule holds. Typically used in smart constructors.
+     *
+     * @param value the value to check
+     * @param f     the function that creates the object
+     * @param <B>   the type of the object
+     * @return a Valid with the object, or an Invalid with the first failure of the rule
+     */
+    @SuppressWarnings("unchecked")
+    public <B> Validated<B> validate(A value, Function<? super A, ? extends B> f) {
+        Validated<?> invalid = check(value);
+        return invalid == null ? Validated.valid(f.apply(value)) : (Validated<B>) invalid;
+    }
+
+    /**
+     * Checks an int against a rule over Integer, and creates an object from it if the rule holds. Range checks over the
+     * int itself, like <code>Rule.range(min, max, code)</code>, compare the int directly, so a rule made of those never
+     * boxes the value. Other checks in the rule box it.
+     *
+     * @param rule  the rule to check
+     * @param value the value to check
+     * @param f     the function that creates the object
+     * @param <B>   the type of the object
+     * @return a Valid with the object, or an Invalid with the first failure of the rule
+     */
+    @SuppressWarnings("unchecked")
+    public static <B> Validated<B> validateInt(CompiledRule<Integer> rule, int value, IntFunction<? extends B> f) {
+        Validated<?> invalid = rule.checkInt(value);
+        return invalid == null ? Validated.valid(f.apply(value)) : (Validated<B>) invalid;
+    }
+
+    /**
+     * Same as <code>validate(value)</code>.
+     */
+    @Override
+    public Validated<A> apply(A value) {
+        return validate(value);
+    }
+
+    private Validated<?> check(A value) {
+        if (name != null) {
+            ValidationListener listener = Instrumentation.listener;
+            if (listener != null) {
+                long start = System.nanoTime();
+                Validated<?> invalid = check.check(value);
+                listener.onValidation(name, invalid == null, System.nanoTime() - start);
+                return invalid;
+            }
+        }
+        return check.check(value);
+    }
+
+    private Validated<?> checkInt(int value) {
+        if (name != null) {
+            ValidationListener listener = Instrumentation.listener;
+            if (listener != null) {
+                long start = System.nanoTime();
+                Validated<?> invalid = check.checkInt(value);
+                listener.onValidation(name, invalid == null, System.nanoTime() - start);
+                return invalid;
+            }
+        }
+        return check.checkInt(value);
+    }
+
+    /**
+     * A compiled check returns null if the value passes, or the shared Invalid of the failure.
+     */
+    abstract static class Check<A> {
+
+        abstract Validated<?> check(A a);
+
+        /**
+         * Only called on checks of Integer. Checks that can read the int directly override it, the rest box it.
+         */
+        @SuppressWarnings("unchecked")
+        Validated<?> checkInt(int i) {
+            return check((A) Integer.valueOf(i));
+        }
+    }
+
+    /**
+     * A predicate, or a negated predicate if expected is false.
+     */
+    static final class TestCheck<A> extends Check<A> {
+
+        final Predicate<A> predicate;
+        final boolean expected;
+        final Validated<?> invalid;
+
+        TestCheck(Predicate<A> predicate, boolean expected, Failure failure) {
+            this.predicate = predicate;
+            this.expected = expected;
+            this.invalid = Validated.invalid(failure);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            return predicate.test(a) == expected ? null : invalid;
+        }
+    }
+
+    static final class NotNullCheck<A> extends Check<A> {
+
+        final Validated<?> invalid;
+
+        NotNullCheck(Failure failure) {
+            this.invalid = Validated.invalid(failure);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            return a != null ? null : invalid;
+        }
+    }
+
+    /**
+     * One or more merged range checks on the same projection. The value is projected once, and compared to the
+     * intersection of the ranges. Only if it is outside the intersection are the ranges checked one by one, to find
+     * the first that fails.
+     */
+    static final class RangeCheck<A> extends Check<A> {
+
+        final ToIntFunction<? super A> projection;
+        final int low;
+        final int high;
+        final int[] lows;
+        final int[] highs;
+        final Validated<?>[] invalids;
+
+        RangeCheck(ToIntFunction<? super A> projection, int[] lows, int[] highs, Failure[] failures) {
+            this.projection = projection;
+            this.lows = lows;
+            this.highs = highs;
+            this.invalids = new Validated<?>[failures.length];
+            int l = Integer.MIN_VALUE;
+            int h = Integer.MAX_VALUE;
+            for (int i = 0; i < failures.length; i++) {
+                l = Math.max(l, lows[i]);
+                h = Math.min(h, highs[i]);
+                invalids[i] = Validated.invalid(failures[i]);
+            }
+            this.low = l;
+            this.high = h;
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            return range(projection.applyAsInt(a));
+        }
+
+        @Override
+        Validated<?> checkInt(int i) {
+            return projection == Rule.intValue ? range(i) : super.checkInt(i);
+        }
+
+        private Validated<?> range(int v) {
+            if (v >= low && v <= high)
+                return null;
+            for (int i = 0; i < invalids.length; i++)
+                if (v < lows[i] || v > highs[i])
+                    return invalids[i];
+            return invalids[0];
+        }
+    }
+
+    static final class FieldCheck<A, B> extends Check<A> {
+
+        final Function<? super A, ? extends B> projection;
+        final Check<B> check;
+
+        FieldCheck(Function<? super A, ? extends B> projection, Check<B> check) {
+            this.projection = projection;
+            this.check = check;
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            return check.check(projection.apply(a));
+        }
+    }
+
+    /**
+     * Conjunctions of two to four checks have their own classes, so that every check is called from its own call site.
+     * The JIT can then inline each of them, which it would not do for the calls in the loop of a longer conjunction.
+     */
+    static <A> Check<A> all(List<Check<A>> checks) {
+        switch (checks.size()) {
+            case 1:
+                return checks.get(0);
+            case 2:
+                return new AllCheck2<>(checks.get(0), checks.get(1));
+            case 3:
+                return new AllCheck3<>(checks.get(0), checks.get(1), checks.get(2));
+            case 4:
+                return new AllCheck4<>(checks.get(0), checks.get(1), checks.get(2), checks.get(3));
+            default:
+                return new AllCheck<>(checks);
+        }
+    }
+
+    static final class AllCheck2<A> extends Check<A> {
+
+        final Check<A> c1;
+        final Check<A> c2;
+
+        AllCheck2(Check<A> c1, Check<A> c2) {
+            this.c1 = c1;
+            this.c2 = c2;
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            Validated<?> invalid = c1.check(a);
+            return invalid != null ? invalid : c2.check(a);
+        }
+
+        @Override
+        Validated<?> checkInt(int i) {
+            Validated<?> invalid = c1.checkInt(i);
+            return invalid != null ? invalid : c2.checkInt(i);
+        }
+    }
+
+    static final class AllCheck3<A> extends Check<A> {
+
+        final Check<A> c1;
+        final Check<A> c2;
+        final Check<A> c3;
+
+        AllCheck3(Check<A> c1, Check<A> c2, Check<A> c3) {
+            this.c1 = c1;
+            this.c2 = c2;
+            this.c3 = c3;
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            Validated<?> invalid = c1.check(a);
+            if (invalid != null)
+                return invalid;
+            invalid = c2.check(a);
+            return invalid != null ? invalid : c3.check(a);
+        }
+
+        @Override
+        Validated<?> checkInt(int i) {
+            Validated<?> invalid = c1.checkInt(i);
+            if (invalid != null)
+                return invalid;
+            invalid = c2.checkInt(i);
+            return invalid != null ? invalid : c3.checkInt(i);
+        }
+    }
+
+    static final class AllCheck4<A> extends Check<A> {
+
+        final Check<A> c1;
+        final Check<A> c2;
+        final Check<A> c3;
+        final Check<A> c4;
+
+        AllCheck4(Check<A> c1, Check<A> c2, Check<A> c3, Check<A> c4) {
+            this.c1 = c1;
+            this.c2 = c2;
+            this.c3 = c3;
+            this.c4 = c4;
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            Validated<?> invalid = c1.check(a);
+            if (invalid != null)
+                return invalid;
+            invalid = c2.check(a);
+            if (invalid != null)
+                return invalid;
+            invalid = c3.check(a);
+            return invalid != null ? invalid : c4.check(a);
+        }
+
+        @Override
+        Validated<?> checkInt(int i) {
+            Validated<?> invalid = c1.checkInt(i);
+            if (invalid != null)
+                return invalid;
+            invalid = c2.checkInt(i);
+            if (invalid != null)
+                return invalid;
+            invalid = c3.checkInt(i);
+            return invalid != null ? invalid : c4.checkInt(i);
+        }
+    }
+
+    static final class AllCheck<A> extends Check<A> {
+
+        final List<Check<A>> checks;
+
+        AllCheck(List<Check<A>> checks) {
+            this.checks = List.copyOf(checks);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            for (int i = 0; i < checks.size(); i++) {
+                Validated<?> invalid = checks.get(i).check(a);
+                if (invalid != null)
+                    return invalid;
+            }
+            return null;
+        }
+
+        @Override
+        Validated<?> checkInt(int v) {
+            for (int i = 0; i < checks.size(); i++) {
+                Validated<?> invalid = checks.get(i).checkInt(v);
+                if (invalid != null)
+                    return invalid;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Runs every check, and reports the failures of all that fail. The shared Invalid is returned if only one fails,
+     * so only a value that breaks several checks allocates a new one.
+     */
+    static final class EveryCheck<A> extends Check<A> {
+
+        final List<Check<A>> checks;
+
+        EveryCheck(List<Check<A>> checks) {
+            this.checks = List.copyOf(checks);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            Validated<?> invalid = null;
+            Chain<Failure> msgs = null;
+            for (int i = 0; i < checks.size(); i++) {
+                Validated<?> next = checks.get(i).check(a);
+                if (next == null)
+                    continue;
+                if (invalid == null)
+                    invalid = next;
+                else
+                    msgs = Chain.append(msgs != null ? msgs : Validated.Invalid.msgsOf(invalid), Validated.Invalid.msgsOf(next));
+            }
+            return msgs == null ? invalid : Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        Validated<?> checkInt(int v) {
+            Validated<?> invalid = null;
+            Chain<Failure> msgs = null;
+            for (int i = 0; i < checks.size(); i++) {
+                Validated<?> next = checks.get(i).checkInt(v);
+                if (next == null)
+                    continue;
+                if (invalid == null)
+                    invalid = next;
+                else
+                    msgs = Chain.append(msgs != null ? msgs : Validated.Invalid.msgsOf(invalid), Validated.Invalid.msgsOf(next));
+            }
+            return msgs == null ? invalid : Validated.Invalid.of(msgs);
+        }
+    }
+
+    static final class AnyCheck<A> extends Check<A> {
+
+        final List<Check<A>> checks;
+
+        AnyCheck(List<Check<A>> checks) {
+            this.checks = List.copyOf(checks);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            Validated<?> invalid = null;
+            for (int i = 0; i < checks.size(); i++) {
+                invalid = checks.get(i).check(a);
+                if (invalid == null)
+                    return null;
+            }
+            return invalid;
+        }
+
+        @Override
+        Validated<?> checkInt(int v) {
+            Validated<?> invalid = null;
+            for (int i = 0; i < checks.size(); i++) {
+                invalid = checks.get(i).checkInt(v);
+                if (invalid == null)
+                    return null;
+            }
+            return invalid;
+        }
+    }
+
+    static final class NotCheck<A> extends Check<A> {
+
+        final Check<A> check;
+        final Validated<?> invalid;
+
+        NotCheck(Check<A> check, Failure failure) {
+            this.check = check;
+            this.invalid = Validated.invalid(failure);
+        }
+
+        @Override
+        Validated<?> check(A a) {
+            return check.check(a) == null ? invalid : null;
+        }
+
+        @Override
+        Validated<?> checkInt(int i) {
+            return check.checkInt(i) == null ? invalid : null;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package org.kantega.cbyc;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates smart constructors from Bean Validation constraints at compile time, so that validating an object needs
+ * neither a ValidatorFactory, nor reflection, nor a set of violations.
+ * <br/>
+ * For every class annotated with {@link GenerateValidated}, the processor picks the non private constructor with the
+ * most parameters. The constraints of a parameter are read from the parameter, or, if it has none, from the field with
+ * the same name. The constraints of each parameter become one {@link CompiledRule}, built from {@link Constraints}
+ * and kept in a static field of the generated class, and <code>of(...)</code> accumulates the failures of all the
+ * parameters with <code>Validated.accum()</code>. The rule of a parameter checks all its constraints with
+ * <code>Rule.andAlso()</code>, so every constraint that fails is reported, like in Bean Validation.
+ * The rules are named after the class and the parameter, like <code>com.example.ContactInfo.email</code>, so that they
+ * are reported when {@link Instrumentation} is enabled.
+ * <br/>
+ * A constraint that the processor does not know, or a constraint on a type it does not apply to, is a compile error,
+ * so constraints are never silently ignored. Run the processor with <code>-processor</code>, or the
+ * <code>annotationProcessors</code> of the maven compiler plugin.
+ */
+@SupportedAnnotationTypes("org.kantega.cbyc.GenerateValidated")
+public final class ConstraintProcessor extends AbstractProcessor {
+
+    private static final String constraints = "javax.validation.constraints.";
+    private static final int maxParameters = 16;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateValidated.class)) {
+            if (element.getKind().isClass())
+                generate((TypeElement) element);
+            else
+                error(element, "@GenerateValidated can only be put on classes");
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@GenerateValidated does not support generic classes");
+            return;
+        }
+        ExecutableElement constructor = constructor(type);
+        if (constructor == null)
+            return;
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        if (parameters.size() > maxParameters) {
+            error(constructor, "@GenerateValidated supports at most " + maxParameters + " constructor parameters");
+            return;
+        }
+
+        List<String> rules = new ArrayList<>();
+        boolean ok = true;
+        for (VariableElement parameter : parameters) {
+            String rule = rule(type, parameter);
+            ok &= rule != null;
+            rules.add(rule);
+        }
+        if (!ok)
+            return;
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String className = generatedName(type);
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualified(packageName, className), type).openWriter())) {
+            write(out, packageName, typeName, className, parameters, rules);
+        } catch (IOException e) {
+            error(type, "Could not write " + className + ": " + e.getMessage());
+        }
+    }
+
+    private void write(PrintWriter out, String packageName, String typeName, String className, List<? extends VariableElement> parameters, List<String> rules) {
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * Generated by " + ConstraintProcessor.class.getName() + " from the constraints of {@link " + typeName + "}.");
+        out.println(" */");
+        out.println("@javax.annotation.processing.Generated(\"" + ConstraintProcessor.class.getName() + "\")");
+        out.println("public final class " + className + " {");
+        out.println();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (rules.get(i).isEmpty())
+                continue;
+            out.println("    private static final org.kantega.cbyc.CompiledRule<" + boxedName(parameters.get(i).asType()) + "> " + ruleName(parameters.get(i)) + " =");
+            out.println("      " + rules.get(i) + ".compile(\"" + typeName + "." + parameters.get(i).getSimpleName() + "\");");
+            out.println();
+        }
+        out.println("    private " + className + "() {");
+        out.println("    }");
+        out.println();
+
+        String prefix = lambdaPrefix(parameters);
+        StringBuilder declared = new StringBuilder();
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            String sep = i == 0 ? "" : ", ";
+            declared.append(sep).append(typeName(parameter.asType())).append(' ').append(parameter.getSimpleName());
+            names.append(sep).append(prefix).append(i);
+        }
+        out.println("    /**");
+        out.println("     * @return a valid " + typeName.substring(typeName.lastIndexOf('.') + 1) + ", or the failures of every parameter that breaks its constraints");
+        out.println("     */");
+        out.println("    public static org.kantega.cbyc.Validated<" + typeName + "> of(" + declared + ") {");
+        if (parameters.isEmpty())
+            out.println("        return org.kantega.cbyc.Validated.valid(new " + typeName + "());");
+        else if (parameters.size() == 1 && !rules.get(0).isEmpty())
+            out.println("        return " + className + "." + ruleName(parameters.get(0)) + ".validate(" + parameters.get(0).getSimpleName() + ", " + names + " -> new " + typeName + "(" + names + "));");
+        else if (parameters.size() == 1)
+            out.println("        return " + validated(className, parameters.get(0), false) + ".map(" + names + " -> new " + typeName + "(" + names + "));");
+        else {
+            out.println("        return org.kantega.cbyc.Validated.accum(");
+            for (int i = 0; i < parameters.size(); i++)
+                out.println("          " + validated(className, parameters.get(i), !rules.get(i).isEmpty()) + ",");
+            out.println("          (" + names + ") -> new " + typeName + "(" + names + "));");
+        }
+        out.println("    }");
+        out.println("}");
+    }
+
+    /**
+     * The prefix of the lambda parameters in the generated code. The lambdas are declared inside of(), so their
+     * parameters must not have the same names as the parameters of of(), which are the names of the constructor
+     * parameters.
+     */
+    private static String lambdaPrefix(List<? extends VariableElement> parameters) {
+        String prefix = "a";
+        while (collides(prefix, parameters))
+            prefix += "_";
+        return prefix;
+    }
+
+    private static boolean collides(String prefix, List<? extends VariableElement> parameters) {
+        for (VariableElement parameter : parameters) {
+            String name = parameter.getSimpleName().toString();
+            if (name.startsWith(prefix) && name.length() > prefix.length() && name.substring(prefix.length()).chars().allMatch(Character::isDigit))
+                return true;
+        }
+        return false;
+    }
+
+    private String validated(String className, VariableElement parameter, boolean constrained) {
+        return
+          constrained ?
+            className + "." + ruleName(parameter) + ".validate(" + parameter.getSimpleName() + ")" :
+            "org.kantega.cbyc.Validated.<" + boxedName(parameter.asType()) + ">valid(" + parameter.getSimpleName() + ")";
+    }
+
+    /**
+     * The constructor with the most parameters that the generated class can call.
+     */
+    private ExecutableElement constructor(TypeElement type) {
+        ExecutableElement best = null;
+        boolean tie = false;
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (c.getModifiers().contains(Modifier.PRIVATE))
+                continue;
+            if (best == null || c.getParameters().size() > best.getParameters().size()) {
+                best = c;
+                tie = false;
+            } else if (c.getParameters().size() == best.getParameters().size())
+                tie = true;
+        }
+        if (best == null || tie) {
+            error(type, "@GenerateValidated needs one non private constructor with the most parameters");
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * Builds the expression of the rule of a parameter, from the constraints on the parameter or on the field with
+     * the same name. Returns an empty string if there are no constraints, and null if some of them are in error.
+     */
+    private String rule(TypeElement type, VariableElement parameter) {
+        String name = parameter.getSimpleName().toString();
+        List<? extends AnnotationMirror> annotations = constraintsOf(parameter);
+        Element source = parameter;
+        if (annotations.isEmpty()) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements()))
+                if (field.getSimpleName().contentEquals(name)) {
+                    annotations = constraintsOf(field);
+                    source = field;
+                }
+        }
+
+        TypeMirror t = parameter.asType();
+        if (hasElementConstraints(t)) {
+            error(parameter, "@GenerateValidated does not support constraints on type arguments or array elements");
+            return null;
+        }
+        String boxed = boxedName(t);
+        List<String> rules = new ArrayList<>();
+        boolean ok = true;
+        for (AnnotationMirror annotation : annotations) {
+            String rule = rule(source, annotation, name, t, boxed);
+            if (rule == null)
+                ok = false;
+            else if (annotationName(annotation).equals("NotNull"))
+                rules.add(0, rule);
+            else
+                rules.add(rule);
+        }
+        if (!ok)
+            return null;
+        if (rules.isEmpty())
+            return "";
+        StringBuilder rule = new StringBuilder(rules.get(0));
+        for (int i = 1; i < rules.size(); i++)
+            rule.append("\n        .andAlso(").append(rules.get(i)).append(')');
+        return rule.toString();
+    }
+
+    private String rule(Element source, AnnotationMirror annotation, String name, TypeMirror t, String boxed) {
+        String call = "org.kantega.cbyc.Constraints.<" + boxed + ">";
+        String field = literal(name);
+        switch (annotationName(annotation)) {
+            case "NotNull":
+                return call + "notNull(" + field + ")";
+            case "Null":
+                return call + "isNull(" + field + ")";
+            case "NotEmpty":
+                return hasSize(t) ? call + "notEmpty(" + field + ")" : wrongType(source, annotation, t);
+            case "Size":
+                return
+                  hasSize(t) ?
+                    call + "size(" + field + ", " + value(annotation, "min", 0) + ", " + value(annotation, "max", Integer.MAX_VALUE) + ")" :
+                    wrongType(source, annotation, t);
+            case "NotBlank":
+                return isText(t) ? call + "notBlank(" + field + ")" : wrongType(source, annotation, t);
+            case "Email": {
+                if (!isText(t))
+                    return wrongType(source, annotation, t);
+                String regexp = value(annotation, "regexp", ".*");
+                String email = call + "email(" + field + ")";
+                return regexp.equals(".*") ? email : email + ".and(" + call + "pattern(" + field + ", " + literal(regexp) + ", " + flags(annotation) + "))";
+            }
+            case "Pattern":
+                return
+                  isText(t) ?
+                    call + "pattern(" + field + ", " + literal(value(annotation, "regexp", "")) + ", " + flags(annotation) + ")" :
+                    wrongType(source, annotation, t);
+            case "Min":
+            case "Max": {
+                String method = annotationName(annotation).equals("Min") ? "min" : "max";
+                return isNumber(t) ? call + method + "(" + field + ", " + value(annotation, "value", 0L) + "L)" : wrongType(source, annotation, t);
+            }
+            case "DecimalMin":
+            case "DecimalMax": {
+                String method = annotationName(annotation).equals("DecimalMin") ? "decimalMin" : "decimalMax";
+                return
+                  isNumber(t) ?
+                    call + method + "(" + field + ", " + literal(value(annotation, "value", "0")) + ", " + value(annotation, "inclusive", true) + ")" :
+                    wrongType(source, annotation, t);
+            }
+            case "Positive":
+            case "PositiveOrZero":
+            case "Negative":
+            case "NegativeOrZero": {
+                String simple = annotationName(annotation);
+                String method = Character.toLowerCase(simple.charAt(0)) + simple.substring(1);
+                return isNumber(t) ? call + method + "(" + field + ")" : wrongType(source, annotation, t);
+            }
+            case "AssertTrue":
+                return boxed.equals("java.lang.Boolean") ? "org.kantega.cbyc.Constraints.assertTrue(" + field + ")" : wrongType(source, annotation, t);
+            case "AssertFalse":
+                return boxed.equals("java.lang.Boolean") ? "org.kantega.cbyc.Constraints.assertFalse(" + field + ")" : wrongType(source, annotation, t);
+            default:
+                error(source, "@GenerateValidated does not support @" + annotationName(annotation));
+                return null;
+        }
+    }
+
+    private String wrongType(Element source, AnnotationMirror annotation, TypeMirror t) {
+        error(source, "@" + annotationName(annotation) + " does not apply to " + typeName(t));
+        return null;
+    }
+
+    /**
+     * The constraint annotations: the ones from javax.validation.constraints, and any other annotation that is
+     * annotated with @Constraint, so that the processor can report custom constraints it does not support.
+     */
+    private static List<? extends AnnotationMirror> constraintsOf(Element element) {
+        return constraintsOf(element.getAnnotationMirrors());
+    }
+
+    private static List<? extends AnnotationMirror> constraintsOf(List<? extends AnnotationMirror> annotations) {
+        List<AnnotationMirror> found = new ArrayList<>();
+        for (AnnotationMirror annotation : annotations) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().toString().startsWith(constraints))
+                found.add(annotation);
+            else
+                for (AnnotationMirror meta : annotationType.getAnnotationMirrors())
+                    if (((TypeElement) meta.getAnnotationType().asElement()).getQualifiedName().contentEquals("javax.validation.Constraint"))
+                        found.add(annotation);
+        }
+        return found;
+    }
+
+    /**
+     * Whether the type has constraints on its type arguments or array elements, like <code>List&lt;@NotNull
+     * String&gt;</code>.
+     */
+    private static boolean hasElementConstraints(TypeMirror t) {
+        List<TypeMirror> elements = new ArrayList<>();
+        if (t.getKind() == TypeKind.DECLARED)
+            elements.addAll(((DeclaredType) t).getTypeArguments());
+        else if (t.getKind() == TypeKind.ARRAY)
+            elements.add(((ArrayType) t).getComponentType());
+        for (TypeMirror element : elements)
+            if (!constraintsOf(element.getAnnotationMirrors()).isEmpty() || hasElementConstraints(element))
+                return true;
+        return false;
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+        String name = type.getQualifiedName().toString();
+        return name.startsWith(constraints) ? type.getSimpleName().toString() : name;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A value(AnnotationMirror annotation, String name, A defaultValue) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : annotation.getElementValues().entrySet())
+            if (e.getKey().getSimpleName().contentEquals(name))
+                return (A) e.getValue().getValue();
+        return defaultValue;
+    }
+
+    /**
+     * The flags of a @Pattern or @Email, as the sum of the java.util.regex.Pattern constants they stand for.
+     */
+    private static String flags(AnnotationMirror annotation) {
+        List<?> flags = value(annotation, "flags", List.of());
+        if (flags.isEmpty())
+            return "0";
+        StringBuilder sum = new StringBuilder();
+        for (Object flag : flags) {
+            if (sum.length() > 0)
+                sum.append(" | ");
+            sum.append("java.util.regex.Pattern.").append(((VariableElement) ((AnnotationValue) flag).getValue()).getSimpleName());
+        }
+        return sum.toString();
+    }
+
+    private boolean isText(TypeMirror t) {
+        return isSubtype(t, "java.lang.CharSequence");
+    }
+
+    private boolean hasSize(TypeMirror t) {
+        return t.getKind() == TypeKind.ARRAY || isText(t) || isSubtype(t, "java.util.Collection") || isSubtype(t, "java.util.Map");
+    }
+
+    private boolean isNumber(TypeMirror t) {
+        switch (t.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return isSubtype(t, "java.lang.Number");
+        }
+    }
+
+    private boolean isSubtype(TypeMirror t, String name) {
+        if (t.getKind() != TypeKind.DECLARED)
+            return false;
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(name);
+        return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(t), processingEnv.getTypeUtils().erasure(type.asType()));
+    }
+
+    private String boxedName(TypeMirror t) {
+        return
+          t.getKind().isPrimitive() ?
+            typeName(processingEnv.getTypeUtils().boxedClass((PrimitiveType) t).asType()) :
+            typeName(t);
+    }
+
+    /**
+     * The source name of a type, without the type annotations that toString() would include, since the constraints
+     * of Bean Validation 2 may be put on type uses.
+     */
+    private static String typeName(TypeMirror t) {
+        switch (t.getKind()) {
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) t;
+                StringBuilder name = new StringBuilder(((TypeElement) declared.asElement()).getQualifiedName());
+                List<? extends TypeMirror> args = declared.getTypeArguments();
+                if (!args.isEmpty()) {
+                    name.append('<');
+                    for (int i = 0; i < args.size(); i++)
+                        name.append(i == 0 ? "" : ", ").append(typeName(args.get(i)));
+                    name.append('>');
+                }
+                return name.toString();
+            }
+            case ARRAY:
+                return typeName(((ArrayType) t).getComponentType()) + "[]";
+            case WILDCARD: {
+                WildcardType wildcard = (WildcardType) t;
+                return
+                  wildcard.getExtendsBound() != null ? "? extends " + typeName(wildcard.getExtendsBound()) :
+                    wildcard.getSuperBound() != null ? "? super " + typeName(wildcard.getSuperBound()) :
+                      "?";
+            }
+            case TYPEVAR:
+                return ((TypeVariable) t).asElement().getSimpleName().toString();
+            default:
+                return t.getKind().name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private static String ruleName(VariableElement parameter) {
+        return parameter.getSimpleName() + "Rule";
+    }
+
+    /**
+     * The name of the generated class. Nested classes are named after all their enclosing classes.
+     */
+    private static String generatedName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); !(e instanceof PackageElement); e = e.getEnclosingElement())
+            name.insert(0, e.getSimpleName() + "_");
+        return name.append("Validated").toString();
+    }
+
+    private static String qualified(String packageName, String className) {
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    private static String literal(String s) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < ' ')
+                        literal.append(String.format("\\u%04x", (int) c));
+                    else
+                        literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,270 @@
+package org.kantega.cbyc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Rules with the meaning of the Bean Validation constraints, like <code>@NotNull</code>, <code>@Size</code> and
+ * <code>@Email</code>. The factories that {@link ConstraintProcessor} generates are built from these rules, but they
+ * can be used directly as well.
+ * <br/>
+ * Like in Bean Validation, every rule except notNull(), notEmpty() and notBlank() holds for null. Every failure has
+ * the name of the field as its first argument, followed by the attributes of the constraint, and is created once, when
+ * the rule is created.
+ * <br/>
+ * Also like in Hibernate Validator, a Double or Float that is NaN breaks every numeric constraint, and the infinities
+ * compare as greater or less than every bound.
+ */
+public final class Constraints {
+
+    public static final ErrorCode notNullError = ErrorCode.of("constraint.notnull", "{0} must not be null");
+    public static final ErrorCode nullError = ErrorCode.of("constraint.null", "{0} must be null");
+    public static final ErrorCode notEmptyError = ErrorCode.of("constraint.notempty", "{0} must not be empty");
+    public static final ErrorCode notBlankError = ErrorCode.of("constraint.notblank", "{0} must not be blank");
+    public static final ErrorCode emailError = ErrorCode.of("constraint.email", "{0} must be a well-formed email address");
+    public static final ErrorCode sizeError = ErrorCode.of("constraint.size", "{0} size must be between {1} and {2}");
+    public static final ErrorCode patternError = ErrorCode.of("constraint.pattern", "{0} must match \"{1}\"");
+    public static final ErrorCode minError = ErrorCode.of("constraint.min", "{0} must be greater than or equal to {1}");
+    public static final ErrorCode maxError = ErrorCode.of("constraint.max", "{0} must be less than or equal to {1}");
+    public static final ErrorCode decimalMinExclusiveError = ErrorCode.of("constraint.decimalmin.exclusive", "{0} must be greater than {1}");
+    public static final ErrorCode decimalMaxExclusiveError = ErrorCode.of("constraint.decimalmax.exclusive", "{0} must be less than {1}");
+    public static final ErrorCode positiveError = ErrorCode.of("constraint.positive", "{0} must be greater than 0");
+    public static final ErrorCode positiveOrZeroError = ErrorCode.of("constraint.positiveorzero", "{0} must be greater than or equal to 0");
+    public static final ErrorCode negativeError = ErrorCode.of("constraint.negative", "{0} must be less than 0");
+    public static final ErrorCode negativeOrZeroError = ErrorCode.of("constraint.negativeorzero", "{0} must be less than or equal to 0");
+    public static final ErrorCode assertTrueError = ErrorCode.of("constraint.asserttrue", "{0} must be true");
+    public static final ErrorCode assertFalseError = ErrorCode.of("constraint.assertfalse", "{0} must be false");
+
+    private Constraints() {
+    }
+
+    /**
+     * <code>@NotNull</code>. Put it first in a conjunction, so that the rules after it never see a null.
+     */
+    public static <A> Rule<A> notNull(String field) {
+        return new Rule.NotNull<>(Failure.of(notNullError, field));
+    }
+
+    /**
+     * <code>@Null</code>.
+     */
+    public static <A> Rule<A> isNull(String field) {
+        return new Rule.Test<>(a -> a == null, Failure.of(nullError, field));
+    }
+
+    /**
+     * <code>@NotEmpty</code>, for texts, collections, maps and arrays.
+     */
+    public static <A> Rule<A> notEmpty(String field) {
+        return new Rule.Test<>(a -> a != null && sizeOf(a) > 0, Failure.of(notEmptyError, field));
+    }
+
+    /**
+     * <code>@NotBlank</code>: not null, and at least one char that is not whitespace.
+     */
+    public static <S extends CharSequence> Rule<S> notBlank(String field) {
+        return new Rule.Test<>(Constraints::isNotBlank, Failure.of(notBlankError, field));
+    }
+
+    /**
+     * <code>@Email</code>, checked with {@link EmailSyntax}. Unlike Hibernate Validator, which only checks the syntax
+     * of the domain, this also requires a known top level domain.
+     */
+    public static <S extends CharSequence> Rule<S> email(String field) {
+        return new Rule.Test<>(s -> s == null || EmailSyntax.isValid(s.toString()), Failure.of(emailError, field));
+    }
+
+    /**
+     * <code>@Size</code>, for texts, collections, maps and arrays. Both min and max are inclusive.
+     */
+    public static <A> Rule<A> size(String field, int min, int max) {
+        return new Rule.Test<>(a -> {
+            if (a == null)
+                return true;
+            int size = sizeOf(a);
+            return size >= min && size <= max;
+        }, Failure.of(sizeError, field, min, max));
+    }
+
+    /**
+     * <code>@Pattern</code>. The whole text must match. The expression is compiled when the rule is created.
+     */
+    public static <S extends CharSequence> Rule<S> pattern(String field, String regexp, int flags) {
+        Pattern pattern = Pattern.compile(regexp, flags);
+        return new Rule.Test<>(s -> s == null || pattern.matcher(s).matches(), Failure.of(patternError, field, regexp));
+    }
+
+    /**
+     * <code>@Min</code>.
+     */
+    public static <N extends Number> Rule<N> min(String field, long min) {
+        BigDecimal bound = BigDecimal.valueOf(min);
+        return new Rule.Test<>(n -> n == null || compare(n, min, bound, -1) >= 0, Failure.of(minError, field, min));
+    }
+
+    /**
+     * <code>@Max</code>.
+     */
+    public static <N extends Number> Rule<N> max(String field, long max) {
+        BigDecimal bound = BigDecimal.valueOf(max);
+        return new Rule.Test<>(n -> n == null || compare(n, max, bound, 1) <= 0, Failure.of(maxError, field, max));
+    }
+
+    /**
+     * <code>@DecimalMin</code>. A bound that is not inclusive fails with <code>decimalMinExclusiveError</code>.
+     */
+    public static <N extends Number> Rule<N> decimalMin(String field, String min, boolean inclusive) {
+        BigDecimal bound = new BigDecimal(min);
+        return
+          inclusive ?
+            new Rule.Test<>(n -> n == null || compare(n, bound, -1) >= 0, Failure.of(minError, field, min)) :
+            new Rule.Test<>(n -> n == null || compare(n, bound, -1) > 0, Failure.of(decimalMinExclusiveError, field, min));
+    }
+
+    /**
+     * <code>@DecimalMax</code>. A bound that is not inclusive fails with <code>decimalMaxExclusiveError</code>.
+     */
+    public static <N extends Number> Rule<N> decimalMax(String field, String max, boolean inclusive) {
+        BigDecimal bound = new BigDecimal(max);
+        return
+          inclusive ?
+            new Rule.Test<>(n -> n == null || compare(n, bound, 1) <= 0, Failure.of(maxError, field, max)) :
+            new Rule.Test<>(n -> n == null || compare(n, bound, 1) < 0, Failure.of(decimalMaxExclusiveError, field, max));
+    }
+
+    /**
+     * <code>@Positive</code>.
+     */
+    public static <N extends Number> Rule<N> positive(String field) {
+        return sign(field, s -> s > 0, -1, positiveError);
+    }
+
+    /**
+     * <code>@PositiveOrZero</code>.
+     */
+    public static <N extends Number> Rule<N> positiveOrZero(String field) {
+        return sign(field, s -> s >= 0, -1, positiveOrZeroError);
+    }
+
+    /**
+     * <code>@Negative</code>.
+     */
+    public static <N extends Number> Rule<N> negative(String field) {
+        return sign(field, s -> s < 0, 1, negativeError);
+    }
+
+    /**
+     * <code>@NegativeOrZero</code>.
+     */
+    public static <N extends Number> Rule<N> negativeOrZero(String field) {
+        return sign(field, s -> s <= 0, 1, negativeOrZeroError);
+    }
+
+    /**
+     * <code>@AssertTrue</code>.
+     */
+    public static Rule<Boolean> assertTrue(String field) {
+        return new Rule.Test<>(b -> b == null || b, Failure.of(assertTrueError, field));
+    }
+
+    /**
+     * <code>@AssertFalse</code>.
+     */
+    public static Rule<Boolean> assertFalse(String field) {
+        return new Rule.Test<>(b -> b == null || !b, Failure.of(assertFalseError, field));
+    }
+
+    /**
+     * @param nan the signum of NaN, which is chosen so that NaN breaks the constraint
+     */
+    private static <N extends Number> Rule<N> sign(String field, IntPredicate signum, int nan, ErrorCode code) {
+        return new Rule.Test<>(n -> n == null || signum.test(signum(n, nan)), Failure.of(code, field));
+    }
+
+    private static boolean isNotBlank(CharSequence s) {
+        if (s == null)
+            return false;
+        for (int i = 0; i < s.length(); i++)
+            if (!Character.isWhitespace(s.charAt(i)))
+                return true;
+        return false;
+    }
+
+    private static int sizeOf(Object a) {
+        if (a instanceof CharSequence)
+            return ((CharSequence) a).length();
+        if (a instanceof Collection)
+            return ((Collection<?>) a).size();
+        if (a instanceof Map)
+            return ((Map<?, ?>) a).size();
+        if (a instanceof Object[])
+            return ((Object[]) a).length;
+        if (a instanceof int[])
+            return ((int[]) a).length;
+        if (a instanceof long[])
+            return ((long[]) a).length;
+        if (a instanceof byte[])
+            return ((byte[]) a).length;
+        if (a instanceof char[])
+            return ((char[]) a).length;
+        if (a instanceof double[])
+            return ((double[]) a).length;
+        if (a instanceof float[])
+            return ((float[]) a).length;
+        if (a instanceof short[])
+            return ((short[]) a).length;
+        if (a instanceof boolean[])
+            return ((boolean[]) a).length;
+        throw new IllegalArgumentException("The size of a " + a.getClass().getName() + " is not defined");
+    }
+
+    /**
+     * Compares without rounding for the integral types, which are the common case, and through BigDecimal otherwise.
+     *
+     * @param nan what NaN compares as, which is chosen so that NaN breaks the constraint
+     */
+    private static int compare(Number n, long bound, BigDecimal decimalBound, int nan) {
+        if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)
+            return Long.compare(n.longValue(), bound);
+        return compare(n, decimalBound, nan);
+    }
+
+    /**
+     * A BigDecimal has no NaN or infinities, so a Double or Float that is not finite is compared before it is
+     * converted.
+     */
+    private static int compare(Number n, BigDecimal bound, int nan) {
+        if (n instanceof Double || n instanceof Float) {
+            double d = n.doubleValue();
+            if (Double.isNaN(d))
+                return nan;
+            if (Double.isInfinite(d))
+                return d > 0 ? 1 : -1;
+        }
+        return decimal(n).compareTo(bound);
+    }
+
+    private static int signum(Number n, int nan) {
+        if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)
+            return Long.signum(n.longValue());
+        if (n instanceof Double || n instanceof Float) {
+            double d = n.doubleValue();
+            return Double.isNaN(d) ? nan : (int) Math.signum(d);
+        }
+        return decimal(n).signum();
+    }
+
+    private static BigDecimal decimal(Number n) {
+        if (n instanceof BigDecimal)
+            return (BigDecimal) n;
+        if (n instanceof BigInteger)
+            return new BigDecimal((BigInteger) n);
+        if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)
+            return BigDecimal.valueOf(n.longValue());
+        return new BigDecimal(n.toString());
+    }
+}
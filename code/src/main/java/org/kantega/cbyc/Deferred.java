@@ -0,0 +1,107 @@
+package org.kantega.cbyc;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A Deferred is a description of a validation that has not been run yet. Nothing is evaluated when a Deferred is
+ * created or composed, the validation runs when <code>run()</code> or <code>fold()</code> is called, and it runs anew
+ * every time.
+ * <br/>
+ * Consecutive calls to <code>map()</code> are fused into one step, so a Valid is only created once for the whole
+ * chain. Running a Deferred is stack safe, also for very long chains of <code>flatMap()</code> and for
+ * <code>flatMapDeferred()</code> calls that nest deeply.
+ *
+ * @param <A> the type of the value that is validated
+ */
+public final class Deferred<A> {
+
+    final Supplier<? extends Validated<?>> source;
+    final Steps steps;
+
+    Deferred(Supplier<? extends Validated<?>> source, Steps steps) {
+        this.source = source;
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a Deferred that runs the supplied validation when it is run.
+     *
+     * @param validation The validation to defer
+     * @param <A>        The type of the validated value
+     * @return a new Deferred
+     */
+    public static <A> Deferred<A> of(Supplier<Validated<A>> validation) {
+        return new Deferred<>(validation, Steps.none);
+    }
+
+    /**
+     * Transforms the value when the Deferred is run, if it is Valid.
+     *
+     * @param f   The transformation function
+     * @param <B> the type of the value that the function returns
+     * @return a new Deferred
+     */
+    public <B> Deferred<B> map(Function<A, B> f) {
+        return new Deferred<>(source, steps.add(Steps.MAP, f));
+    }
+
+    /**
+     * Applies a new validation to the value when the Deferred is run, if it is Valid.
+     *
+     * @param f   the function that applies a new validation
+     * @param <B> the type of the value the next validation validates
+     * @return a new Deferred
+     */
+    public <B> Deferred<B> flatMap(Function<A, Validated<B>> f) {
+        return new Deferred<>(source, steps.add(Steps.FLAT_MAP, f));
+    }
+
+    /**
+     * Continues with another Deferred when this one is run, if it is Valid.
+     *
+     * @param f   the function that returns the next Deferred
+     * @param <B> the type of the value the next Deferred validates
+     * @return a new Deferred
+     */
+    public <B> Deferred<B> flatMapDeferred(Function<A, Deferred<B>> f) {
+        return new Deferred<>(source, steps.add(Steps.FLAT_MAP_DEFERRED, f));
+    }
+
+    /**
+     * Turns an Invalid into a Valid when the Deferred is run. The function is only called if the validation failed.
+     *
+     * @param f the function that creates a value from the messages
+     * @return a new Deferred that is always Valid
+     */
+    public Deferred<A> recover(Function<List<String>, A> f) {
+        return new Deferred<>(source, steps.add(Steps.RECOVER, f));
+    }
+
+    /**
+     * Runs the validation.
+     *
+     * @return the result of the validation
+     */
+    public Validated<A> run() {
+        return steps.run(source.get());
+    }
+
+    /**
+     * Runs the validation, and introspects the result.
+     *
+     * @param onInvalid The function that is called if the result is Invalid
+     * @param onSuccess The function that is called if the result is Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    public <T> T fold(Function<List<String>, T> onInvalid, Function<A, T> onSuccess) {
+        return run().fold(onInvalid, onSuccess);
+    }
+
+    @Override
+    public String toString() {
+        return "Deferred{}";
+    }
+}
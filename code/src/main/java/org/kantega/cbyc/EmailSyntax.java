@@ -0,0 +1,210 @@
+package org.kantega.cbyc;
+
+import org.apache.commons.validator.routines.DomainValidator;
+import org.apache.commons.validator.routines.EmailValidator;
+
+import java.util.Locale;
+
+/**
+ * Checks the syntax of email addresses, with the same result as commons-validator's <code>EmailValidator</code>, but
+ * without regular expressions for the common case.
+ * <br/>
+ * <code>scan()</code> reads the address once, as a state machine over ASCII chars. Addresses with plain dotted local
+ * parts and domains of two or more labels are decided right away, and so are addresses without an @. Anything unusual,
+ * like quoted local parts, IP address domains, non ASCII chars, whitespace or unknown top level domains, is left to
+ * <code>EmailValidator</code>. <code>isValid()</code> combines the two.
+ * <br/>
+ * The top level domain is checked against a table of the domains that <code>DomainValidator</code> has accepted. The
+ * lookup compares the chars of the address in place, so a valid address is checked without allocating anything.
+ */
+public final class EmailSyntax {
+
+    /**
+     * The result of the fast path.
+     */
+    public enum Verdict {
+        VALID, INVALID, UNKNOWN
+    }
+
+    private static final int maxLabelLength = 63;
+    private static final int maxDomainLength = 253;
+
+    private static volatile TldTable tlds = new TldTable(new String[64], 0);
+
+    private EmailSyntax() {
+    }
+
+    /**
+     * @param email the address to check
+     * @return true if the address is valid, exactly like <code>EmailValidator.getInstance().isValid(email)</code>
+     */
+    public static boolean isValid(String email) {
+        Verdict verdict = scan(email);
+        return verdict == Verdict.UNKNOWN ? EmailValidator.getInstance().isValid(email) : verdict == Verdict.VALID;
+    }
+
+    /**
+     * Decides the common cases in one pass over the address.
+     *
+     * @param email the address to check
+     * @return VALID or INVALID if the address could be decided, or UNKNOWN if it must be checked by EmailValidator
+     */
+    public static Verdict scan(String email) {
+        if (email == null)
+            return Verdict.INVALID;
+        int n = email.length();
+        int at = -1;
+
+        // The local part: atoms of allowed chars, separated by single dots
+        int i = 0;
+        boolean atomStart = true;
+        for (; i < n; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                at = i;
+                break;
+            }
+            if (c == '.') {
+                if (atomStart)
+                    return unknownOrInvalid(email, i);
+                atomStart = true;
+            } else if (isAtomChar(c))
+                atomStart = false;
+            else
+                return unknownOrInvalid(email, i);
+        }
+        if (at < 0)
+            return Verdict.INVALID;
+        if (atomStart || n - at - 1 > maxDomainLength)
+            return Verdict.UNKNOWN;
+
+        // The domain: labels of letters, digits and inner hyphens, at least two of them
+        int labelStart = at + 1;
+        int labels = 0;
+        for (i = labelStart; i <= n; i++) {
+            char c = i < n ? email.charAt(i) : '.';
+            if (c == '.') {
+                int length = i - labelStart;
+                if (length == 0 || length > maxLabelLength || email.charAt(i - 1) == '-')
+                    return Verdict.UNKNOWN;
+                labels++;
+                if (i == n)
+                    break;
+                labelStart = i + 1;
+            } else if (c == '-') {
+                if (i == labelStart)
+                    return Verdict.UNKNOWN;
+            } else if (!isLetterOrDigit(c))
+                return Verdict.UNKNOWN;
+        }
+        if (labels < 2 || !isLetter(email.charAt(labelStart)))
+            return Verdict.UNKNOWN;
+        return tlds.contains(email, labelStart, n - labelStart) || learn(email.substring(labelStart)) ?
+          Verdict.VALID :
+          Verdict.UNKNOWN;
+    }
+
+    /**
+     * A char the local part cannot have. If there is no @ after it, the address is invalid anyway.
+     */
+    private static Verdict unknownOrInvalid(String email, int from) {
+        return email.indexOf('@', from) < 0 ? Verdict.INVALID : Verdict.UNKNOWN;
+    }
+
+    private static boolean isAtomChar(char c) {
+        if (c <= ' ' || c >= 127)
+            return false;
+        switch (c) {
+            case '(':
+            case ')':
+            case '<':
+            case '>':
+            case ',':
+            case ';':
+            case ':':
+            case '\\':
+            case '"':
+            case '[':
+            case ']':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Asks DomainValidator about a top level domain that is not in the table yet, and adds it if it is valid. Invalid
+     * domains are not remembered, so the table only grows to the size of the list of DomainValidator.
+     */
+    private static boolean learn(String tld) {
+        if (!DomainValidator.getInstance().isValidTld(tld))
+            return false;
+        synchronized (EmailSyntax.class) {
+            tlds = tlds.with(tld);
+        }
+        return true;
+    }
+
+    /**
+     * An immutable open addressing table of lower case top level domains, that is replaced as a whole when a domain is
+     * added.
+     */
+    private static final class TldTable {
+
+        final String[] slots;
+        final int size;
+
+        TldTable(String[] slots, int size) {
+            this.slots = slots;
+            this.size = size;
+        }
+
+        boolean contains(String s, int offset, int length) {
+            int mask = slots.length - 1;
+            for (int slot = hash(s, offset, length) & mask; ; slot = (slot + 1) & mask) {
+                String tld = slots[slot];
+                if (tld == null)
+                    return false;
+                if (tld.length() == length && tld.regionMatches(true, 0, s, offset, length))
+                    return true;
+            }
+        }
+
+        TldTable with(String tld) {
+            String lower = tld.toLowerCase(Locale.ENGLISH);
+            if (contains(lower, 0, lower.length()))
+                return this;
+            String[] copy = new String[(size + 1) * 2 > slots.length ? slots.length * 2 : slots.length];
+            for (String existing : slots)
+                if (existing != null)
+                    insert(copy, existing);
+            insert(copy, lower);
+            return new TldTable(copy, size + 1);
+        }
+
+        private static void insert(String[] slots, String tld) {
+            int mask = slots.length - 1;
+            int slot = hash(tld, 0, tld.length()) & mask;
+            while (slots[slot] != null)
+                slot = (slot + 1) & mask;
+            slots[slot] = tld;
+        }
+
+        private static int hash(String s, int offset, int length) {
+            int h = 0;
+            for (int i = offset; i < offset + length; i++) {
+                char c = s.charAt(i);
+                h = 31 * h + (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
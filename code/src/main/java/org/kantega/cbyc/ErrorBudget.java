@@ -0,0 +1,458 @@
+package org.kantega.cbyc;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An ErrorBudget decides how many messages are collected when several validations are accumulated. The validations
+ * are given as Suppliers, and are run in order. Once the budget is used up, the remaining validations are skipped
+ * entirely, they are never run.
+ * <br/>
+ * <code>all()</code> runs every validation and collects every message, like <code>Validated.accum()</code>.
+ * <br/>
+ * <code>failFast()</code> stops at the first Invalid.
+ * <br/>
+ * <code>max(n)</code> stops when n messages have been collected.
+ * <br/>
+ * If a validation was skipped, or some messages were dropped, the Invalid ends with a message that says so.
+ * <pre>
+ * Validated&lt;ContactInfo&gt; info =
+ *   ErrorBudget.failFast().accum(
+ *     () -&gt; EmailAddress.of(email),
+ *     () -&gt; Phonenumber.of(phonenumber),
+ *     ContactInfo::new);
+ * </pre>
+ */
+public final class ErrorBudget {
+
+    private static final ErrorBudget all = new ErrorBudget(Integer.MAX_VALUE);
+    private static final ErrorBudget failFast = new ErrorBudget(1);
+
+    final int maxMessages;
+
+    private ErrorBudget(int maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    /**
+     * @return a budget that runs all validations and collects all messages.
+     */
+    public static ErrorBudget all() {
+        return all;
+    }
+
+    /**
+     * @return a budget that stops at the first message.
+     */
+    public static ErrorBudget failFast() {
+        return failFast;
+    }
+
+    /**
+     * @param maxMessages the number of messages to collect before stopping, must be positive.
+     * @return a budget that stops when maxMessages messages have been collected.
+     */
+    public static ErrorBudget max(int maxMessages) {
+        if (maxMessages < 1)
+            throw new IllegalArgumentException("The budget must allow at least one message, was " + maxMessages);
+        return new ErrorBudget(maxMessages);
+    }
+
+    /**
+     * Applies the validated function to the validated value, running the function validation only if the budget
+     * allows it after the value has been validated.
+     *
+     * @param sa  the validation of the value
+     * @param sf  the validation of the function
+     * @param <A> the type of the value
+     * @param <B> the type of the result of the function
+     * @return a new Validated.
+     */
+    public <A, B> Validated<B> apply(Supplier<Validated<A>> sa, Supplier<Validated<Function<A, B>>> sf) {
+        return accum(sa, sf, (a, f) -> f.apply(a));
+    }
+
+    /**
+     * Accumulates two validations within the budget. The validations are run in order. If both are Valid, the values
+     * are applied to the provided function. If not, the messages are collected until the budget is used up, and the
+     * remaining validations are skipped.
+     *
+     * @param sa  the first validation
+     * @param sb  the second validation
+     * @param f   the function that joins the values
+     * @param <A> the type of a
+     * @param <B> the type of b
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    public <A, B, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, BiFunction<A, B, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates three validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Function3<A, B, C, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates four validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Function4<A, B, C, D, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates five validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Function5<A, B, C, D, E, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates six validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Function6<A, B, C, D, E, F, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates seven validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Function7<A, B, C, D, E, F, G, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates eight validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Function8<A, B, C, D, E, F, G, H, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates nine validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Function9<A, B, C, D, E, F, G, H, I, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates ten validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Function10<A, B, C, D, E, F, G, H, I, J, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates eleven validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Function11<A, B, C, D, E, F, G, H, I, J, K, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates twelve validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, L, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Supplier<Validated<L>> sl, Function12<A, B, C, D, E, F, G, H, I, J, K, L, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        Validated<L> vl = evaluation.run(sl);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk), Validated.Valid.valueOf(vl))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates thirteen validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, L, M, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Supplier<Validated<L>> sl, Supplier<Validated<M>> sm, Function13<A, B, C, D, E, F, G, H, I, J, K, L, M, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        Validated<L> vl = evaluation.run(sl);
+        Validated<M> vm = evaluation.run(sm);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk), Validated.Valid.valueOf(vl), Validated.Valid.valueOf(vm))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates fourteen validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Supplier<Validated<L>> sl, Supplier<Validated<M>> sm, Supplier<Validated<N>> sn, Function14<A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        Validated<L> vl = evaluation.run(sl);
+        Validated<M> vm = evaluation.run(sm);
+        Validated<N> vn = evaluation.run(sn);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk), Validated.Valid.valueOf(vl), Validated.Valid.valueOf(vm), Validated.Valid.valueOf(vn))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates fifteen validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Supplier<Validated<L>> sl, Supplier<Validated<M>> sm, Supplier<Validated<N>> sn, Supplier<Validated<O>> so, Function15<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        Validated<L> vl = evaluation.run(sl);
+        Validated<M> vm = evaluation.run(sm);
+        Validated<N> vn = evaluation.run(sn);
+        Validated<O> vo = evaluation.run(so);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk), Validated.Valid.valueOf(vl), Validated.Valid.valueOf(vm), Validated.Valid.valueOf(vn), Validated.Valid.valueOf(vo))) :
+            evaluation.toInvalid();
+    }
+
+    /**
+     * Accumulates sixteen validations within the budget, see <code>accum(Supplier, Supplier, BiFunction)</code>.
+     *
+     * @return a new Validated.
+     */
+    public <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> Validated<T> accum(Supplier<Validated<A>> sa, Supplier<Validated<B>> sb, Supplier<Validated<C>> sc, Supplier<Validated<D>> sd, Supplier<Validated<E>> se, Supplier<Validated<F>> sf, Supplier<Validated<G>> sg, Supplier<Validated<H>> sh, Supplier<Validated<I>> si, Supplier<Validated<J>> sj, Supplier<Validated<K>> sk, Supplier<Validated<L>> sl, Supplier<Validated<M>> sm, Supplier<Validated<N>> sn, Supplier<Validated<O>> so, Supplier<Validated<P>> sp, Function16<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> f) {
+        Evaluation evaluation = new Evaluation(maxMessages);
+        Validated<A> va = evaluation.run(sa);
+        Validated<B> vb = evaluation.run(sb);
+        Validated<C> vc = evaluation.run(sc);
+        Validated<D> vd = evaluation.run(sd);
+        Validated<E> ve = evaluation.run(se);
+        Validated<F> vf = evaluation.run(sf);
+        Validated<G> vg = evaluation.run(sg);
+        Validated<H> vh = evaluation.run(sh);
+        Validated<I> vi = evaluation.run(si);
+        Validated<J> vj = evaluation.run(sj);
+        Validated<K> vk = evaluation.run(sk);
+        Validated<L> vl = evaluation.run(sl);
+        Validated<M> vm = evaluation.run(sm);
+        Validated<N> vn = evaluation.run(sn);
+        Validated<O> vo = evaluation.run(so);
+        Validated<P> vp = evaluation.run(sp);
+        return
+          evaluation.isValid() ?
+            Validated.valid(f.apply(Validated.Valid.valueOf(va), Validated.Valid.valueOf(vb), Validated.Valid.valueOf(vc), Validated.Valid.valueOf(vd), Validated.Valid.valueOf(ve), Validated.Valid.valueOf(vf), Validated.Valid.valueOf(vg), Validated.Valid.valueOf(vh), Validated.Valid.valueOf(vi), Validated.Valid.valueOf(vj), Validated.Valid.valueOf(vk), Validated.Valid.valueOf(vl), Validated.Valid.valueOf(vm), Validated.Valid.valueOf(vn), Validated.Valid.valueOf(vo), Validated.Valid.valueOf(vp))) :
+            evaluation.toInvalid();
+    }
+
+    @Override
+    public String toString() {
+        return "ErrorBudget{" +
+          "maxMessages=" + maxMessages +
+          '}';
+    }
+
+    /**
+     * Keeps track of the messages and the skipped validations of one accumulation.
+     */
+    private static final class Evaluation {
+
+        final MessageBuffer buffer;
+        int skipped;
+
+        Evaluation(int maxMessages) {
+            this.buffer = new MessageBuffer(maxMessages);
+        }
+
+        <A> Validated<A> run(Supplier<Validated<A>> validation) {
+            if (buffer.count() >= buffer.maxMessages) {
+                skipped++;
+                return null;
+            }
+            Validated<A> va = validation.get();
+            Chain<Failure> msgs = Validated.Invalid.msgsOf(va);
+            if (msgs != null)
+                buffer.add(msgs);
+            return va;
+        }
+
+        boolean isValid() {
+            return buffer.isEmpty();
+        }
+
+        <T> Validated<T> toInvalid() {
+            Chain<Failure> msgs = buffer.toChain();
+            return
+              Validated.Invalid.of(
+                skipped == 0 ?
+                  msgs :
+                  msgs.append(Chain.one(Failure.of(ErrorCode.skipped, skipped, buffer.maxMessages))));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.kantega.cbyc;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An ErrorCode identifies a kind of failure, like "email.format". Error codes are interned, there is exactly one
+ * ErrorCode instance for each name, so they can be compared with ==, and can be kept as static constants.
+ * <br/>
+ * Every code has a default message template, which is used when no {@link MessageBundle} registered in
+ * {@link Messages} has a template for the code. A template may refer to the arguments of a {@link Failure} with
+ * <code>{0}</code>, <code>{1}</code> and so on.
+ * <br/>
+ * Since an ErrorCode without arguments always renders the same, <code>Validated.invalid(ErrorCode)</code> returns one
+ * shared Invalid per code, and does not allocate at all.
+ */
+public final class ErrorCode {
+
+    private static final ConcurrentHashMap<String, ErrorCode> codes = new ConcurrentHashMap<>();
+
+    /**
+     * The code of failures that are created from a plain message, like <code>Validated.invalid(String)</code>.
+     */
+    public static final ErrorCode message = of("message", "{0}");
+
+    /**
+     * The code of the failures of a traversal, which tags a failure with the index of its element.
+     */
+    public static final ErrorCode indexed = of("validated.indexed", "[{0}] {1}");
+
+    /**
+     * The code of the failures of a {@link Binder}, which tags a failure with the name of its field.
+     */
+    public static final ErrorCode field = of("validated.field", "{0}: {1}");
+
+    /**
+     * Tells how many messages were left out because of a limit on the number of messages.
+     */
+    public static final ErrorCode omitted = of("validated.omitted", "{0} more messages were omitted");
+
+    /**
+     * Tells how many validations an ErrorBudget skipped.
+     */
+    public static final ErrorCode skipped = of("validated.skipped", "{0} validations were skipped, the budget of {1} messages was used up");
+
+    /**
+     * Tells how many concurrent validations were cancelled when an ErrorBudget was used up.
+     */
+    public static final ErrorCode cancelled = of("validated.cancelled", "{0} validations were cancelled, the budget of {1} messages was used up");
+
+    /**
+     * Tells that an asynchronous validation did not complete in time.
+     */
+    public static final ErrorCode timeout = of("validated.timeout", "The validation timed out after {0} ms");
+
+    /**
+     * The name of the code.
+     */
+    public final String name;
+
+    final String defaultTemplate;
+    final boolean interned;
+    final Failure failure;
+    final Validated<?> invalid;
+
+    //The shared Invalids of the primitive Validateds, created the first time they are asked for. Racing threads may
+    //each create one, which is harmless, since they are immutable and equal.
+    ValidatedInt invalidInt;
+    ValidatedLong invalidLong;
+    ValidatedDouble invalidDouble;
+
+    private ErrorCode(String name, String defaultTemplate, boolean interned) {
+        this.name = name;
+        this.defaultTemplate = defaultTemplate;
+        this.interned = interned;
+        this.failure = new Failure(this, Failure.noArgs);
+        this.invalid = Validated.Invalid.of(Chain.one(failure));
+    }
+
+    /**
+     * Returns the ErrorCode with the given name, creating it if it does not exist. If the code already exists, its
+     * default template is kept, and the supplied template is ignored.
+     *
+     * @param name            the name of the code
+     * @param defaultTemplate the message template that is used when no bundle has one for the code
+     * @return the one ErrorCode with the name
+     */
+    public static ErrorCode of(String name, String defaultTemplate) {
+        ErrorCode code = codes.get(name);
+        return code != null ? code : codes.computeIfAbsent(name, n -> new ErrorCode(n, defaultTemplate, true));
+    }
+
+    /**
+     * Returns the interned ErrorCode with the given name if it exists, and otherwise a new code that is not interned.
+     * For codes that are read from other processes, like by a {@link ValidatedCodec}, so that names that are not known
+     * here do not fill up the registry, and a code that is known keeps its local template.
+     * <br/>
+     * A code that is not interned is not == to a code with the same name that is interned later, when the class that
+     * declares it is initialized. Compare the names of codes that may come from other processes.
+     *
+     * @param name            the name of the code
+     * @param defaultTemplate the template of the code if it is not known here
+     * @return the interned ErrorCode, or a new one that is not interned
+     */
+    static ErrorCode lookup(String name, String defaultTemplate) {
+        ErrorCode code = codes.get(name);
+        return code != null ? code : new ErrorCode(name, defaultTemplate, false);
+    }
+
+    /**
+     * Returns the ErrorCode with the given name, creating it with the name as its default template if it does not
+     * exist.
+     *
+     * @param name the name of the code
+     * @return the one ErrorCode with the name
+     */
+    public static ErrorCode of(String name) {
+        return of(name, name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,139 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A Failure is the reason a validation failed: an {@link ErrorCode} and the arguments of the message. The message
+ * text is not created until someone asks for it, so failures that are only counted, or thrown away, never build any
+ * strings. The rendered text is cached.
+ * <br/>
+ * Failures are immutable, as long as their arguments are.
+ */
+public final class Failure {
+
+    static final Object[] noArgs = new Object[0];
+
+    /**
+     * The code of the failure.
+     */
+    public final ErrorCode code;
+
+    private final Object[] args;
+    private volatile Rendered rendered;
+
+    Failure(ErrorCode code, Object[] args) {
+        this.code = code;
+        this.args = args;
+    }
+
+    /**
+     * Creates a failure with a code and the arguments of its message.
+     *
+     * @param code the code of the failure
+     * @param args the arguments that the message template refers to
+     * @return a new Failure, or the shared failure of the code if there are no arguments
+     */
+    public static Failure of(ErrorCode code, Object... args) {
+        return args.length == 0 ? code.failure : new Failure(code, args.clone());
+    }
+
+    /**
+     * Creates a failure from a plain message.
+     *
+     * @param message the message
+     * @return a new Failure with the code <code>ErrorCode.message</code>
+     */
+    public static Failure of(String message) {
+        return new Failure(ErrorCode.message, new Object[]{message});
+    }
+
+    /**
+     * @return the arguments of the message
+     */
+    public List<Object> args() {
+        return Collections.unmodifiableList(Arrays.asList(args));
+    }
+
+    /**
+     * @return the message, rendered in the default locale of {@link Messages}
+     */
+    public String message() {
+        return message(Messages.defaultLocale());
+    }
+
+    /**
+     * Renders the message in the given locale, using the templates of the bundles registered in {@link Messages}.
+     *
+     * @param locale the locale of the message
+     * @return the message
+     */
+    public String message(Locale locale) {
+        int generation = Messages.generation();
+        Rendered r = rendered;
+        if (r == null || r.generation != generation || !r.locale.equals(locale)) {
+            r = new Rendered(locale, generation, code == ErrorCode.message ? String.valueOf(args[0]) : Messages.render(code, args, locale));
+            rendered = r;
+        }
+        return r.text;
+    }
+
+    /**
+     * Renders all the failures in the chain, in the default locale.
+     */
+    static List<String> messages(Chain<Failure> failures) {
+        return messages(failures, Messages.defaultLocale());
+    }
+
+    static List<String> messages(Chain<Failure> failures, Locale locale) {
+        List<Failure> list = failures.toList();
+        ArrayList<String> messages = new ArrayList<>(list.size());
+        for (Failure failure : list)
+            messages.add(failure.message(locale));
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Creates failures from plain messages.
+     */
+    static Chain<Failure> literals(List<String> messages) {
+        ArrayList<Failure> failures = new ArrayList<>(messages.size());
+        for (String message : messages)
+            failures.add(of(message));
+        return Chain.ofAll(failures);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Failure failure = (Failure) o;
+        return code == failure.code && Arrays.equals(args, failure.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * code.hashCode() + Arrays.hashCode(args);
+    }
+
+    @Override
+    public String toString() {
+        return message();
+    }
+
+    private static final class Rendered {
+
+        final Locale locale;
+        final int generation;
+        final String text;
+
+        Rendered(Locale locale, int generation, String text) {
+            this.locale = locale;
+            this.generation = generation;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,650 @@
+package org.kantega.cbyc;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Counts why validations fail, in fixed memory, no matter how many results it is given. Meant for bulk imports and
+ * other streams that are too large to keep every Invalid of.
+ * <br/>
+ * Every failure is counted under a reason: the name of its code, or the message itself for failures that were created
+ * from a plain message. A failure that only tells where another failure happened, like the <code>validated.indexed</code>
+ * failures of <code>traverse()</code> and the <code>validated.field</code> failures of a Binder, is counted under the
+ * reason of the failure inside it. The counts are kept in a count-min sketch, so a count may be too high, but never too low:
+ * with a width w and a depth d, a count is at most 2.72 * failures / w too high, with a probability of at least
+ * 1 - 0.37<sup>d</sup>. The reasons with the highest counts are kept in a list of heavy hitters, and for each of them a
+ * reservoir sample of the inputs that failed for that reason.
+ * <br/>
+ * A FailureStats is not thread safe. Give every thread its own, and merge them, which is what the collector of the
+ * Builder does with parallel streams. FailureStats with the same width and depth can also be merged across nodes:
+ * <code>write</code> encodes the sketch, the counters and the heavy hitters with their samples in a compact binary form,
+ * <code>read</code> decodes it on another node, and the reasons are hashed the same way in every JVM.
+ *
+ * @param <A> the type of the inputs
+ */
+public final class FailureStats<A> {
+
+    private static final int magic = 0x46530001;
+    private static final int defaultMaxCells = 1 << 20;
+    private static final int defaultMaxSamples = 1 << 10;
+
+    private final int top;
+    private final int samples;
+    private final int depth;
+    private final int mask;
+    private final long[] sketch;
+    private final Map<String, Reason<A>> reasons = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+
+    private long results;
+    private long invalid;
+    private long failures;
+
+    private FailureStats(int top, int samples, int width, int depth) {
+        this.top = top;
+        this.samples = samples;
+        this.depth = depth;
+        this.mask = width - 1;
+        this.sketch = new long[width * depth];
+    }
+
+    public static <A> Builder<A> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Counts the result of validating an input, and samples the input if it failed.
+     *
+     * @param input  the input that was validated
+     * @param result the result of the validation
+     */
+    public void add(A input, Validated<?> result) {
+        results++;
+        if (result instanceof Validated.Invalid) {
+            invalid++;
+            for (Failure failure : Validated.Invalid.msgsOf(result).toList())
+                count(failure, input);
+        }
+    }
+
+    /**
+     * Counts a result without an input, like the elements of a stream of Validated values.
+     *
+     * @param result the result of a validation
+     */
+    public void add(Validated<?> result) {
+        add(null, result);
+    }
+
+    /**
+     * Wraps a validation, typically a smart constructor, so that every input and result is added to this, as in
+     * <code>Validated.traverse(lines, stats.observe(EmailAddress::of))</code>.
+     *
+     * @param validation the validation
+     * @param <B>        the type of the validated value
+     * @return a function that validates like the validation
+     */
+    public <B> Function<A, Validated<B>> observe(Function<? super A, Validated<B>> validation) {
+        return a -> {
+            Validated<B> result = validation.apply(a);
+            add(a, result);
+            return result;
+        };
+    }
+
+    /**
+     * Adds the counts and samples of another FailureStats to this one. The heavy hitters are chosen again from the
+     * reasons of both, and the samples of a reason that both have are drawn from the two samples in proportion to how
+     * many inputs each of them saw.
+     *
+     * @param other a FailureStats with the same width and depth
+     * @return this
+     * @throws IllegalArgumentException if the other has a different width or depth
+     */
+    public FailureStats<A> merge(FailureStats<A> other) {
+        if (other.sketch.length != sketch.length || other.depth != depth)
+            throw new IllegalArgumentException("Cannot merge FailureStats with different widths or depths");
+        for (int i = 0; i < sketch.length; i++)
+            sketch[i] += other.sketch[i];
+        results += other.results;
+        invalid += other.invalid;
+        failures += other.failures;
+        for (Reason<A> theirs : other.reasons.values()) {
+            Reason<A> ours = reasons.get(theirs.key);
+            if (ours == null)
+                reasons.put(theirs.key, theirs.copy());
+            else
+                ours.merge(theirs, random);
+        }
+        for (Reason<A> reason : reasons.values())
+            reason.count = estimate(reason.key);
+        if (reasons.size() > top) {
+            List<Reason<A>> sorted = sorted();
+            for (Reason<A> reason : sorted.subList(top, sorted.size()))
+                reasons.remove(reason.key);
+        }
+        return this;
+    }
+
+    /**
+     * @return the reasons with the highest counts, the highest first, each with its estimated count and samples
+     */
+    public List<Reason<A>> top() {
+        List<Reason<A>> sorted = sorted();
+        List<Reason<A>> copies = new ArrayList<>(sorted.size());
+        for (Reason<A> reason : sorted)
+            copies.add(reason.copy());
+        return Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * @param code the code of a failure
+     * @return the estimated number of failures with the code
+     */
+    public long count(ErrorCode code) {
+        return estimate(code.name);
+    }
+
+    /**
+     * @return the number of results that have been added
+     */
+    public long results() {
+        return results;
+    }
+
+    /**
+     * @return the number of results that were Invalid
+     */
+    public long invalid() {
+        return invalid;
+    }
+
+    /**
+     * @return the number of failures of the Invalid results, which is more than the number of Invalid results if
+     * some of them have several failures
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * Encodes the stats into a new buffer.
+     *
+     * @param inputs the codec of the sampled inputs
+     * @return a heap buffer with the encoded stats between its position and its limit
+     */
+    public ByteBuffer write(ValueCodec<A> inputs) {
+        for (int size = 1024; ; size *= 2) {
+            ByteBuffer out = ByteBuffer.allocate(size);
+            try {
+                write(out, inputs);
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                if (size > Integer.MAX_VALUE / 4)
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * Encodes the stats at the position of the buffer: the configuration, the counters, the cells of the sketch that
+     * are not zero, and the heavy hitters with their samples. Numbers are varints, so a sketch of a small stream takes
+     * little more than its heavy hitters.
+     *
+     * @param out    the buffer
+     * @param inputs the codec of the sampled inputs
+     * @throws BufferOverflowException if the stats do not fit
+     */
+    public void write(ByteBuffer out, ValueCodec<A> inputs) {
+        out.putInt(magic);
+        ValidatedCodec.putVarint(out, top);
+        ValidatedCodec.putVarint(out, samples);
+        ValidatedCodec.putVarint(out, mask + 1);
+        ValidatedCodec.putVarint(out, depth);
+        ValidatedCodec.putVarint(out, results);
+        ValidatedCodec.putVarint(out, invalid);
+        ValidatedCodec.putVarint(out, failures);
+        int cells = 0;
+        for (long cell : sketch)
+            if (cell != 0)
+                cells++;
+        ValidatedCodec.putVarint(out, cells);
+        int last = -1;
+        for (int i = 0; i < sketch.length; i++)
+            if (sketch[i] != 0) {
+                ValidatedCodec.putVarint(out, i - last);
+                ValidatedCodec.putVarint(out, sketch[i]);
+                last = i;
+            }
+        ValidatedCodec.putVarint(out, reasons.size());
+        for (Reason<A> reason : sorted()) {
+            ValidatedCodec.putString(out, reason.code.name);
+            ValidatedCodec.putString(out, reason.code.defaultTemplate);
+            ValidatedCodec.putString(out, reason.key);
+            ValidatedCodec.putVarint(out, reason.count);
+            ValidatedCodec.putVarint(out, reason.seen);
+            ValidatedCodec.putVarint(out, reason.size);
+            for (int i = 0; i < reason.size; i++)
+                inputs.write(reason.input(i), out);
+        }
+    }
+
+    /**
+     * Decodes stats that were encoded with <code>write</code>, like <code>read(in, inputs, maxCells, maxSamples)</code>
+     * with a sketch of at most 2<sup>20</sup> counters, which is 8 MB, and at most 1024 samples per reason.
+     *
+     * @param in     the buffer
+     * @param inputs the codec of the sampled inputs
+     * @param <A>    the type of the inputs
+     * @return the stats, which can be merged with local stats of the same width and depth
+     * @throws IllegalArgumentException if the buffer does not hold encoded stats, or they are larger than the limits
+     */
+    public static <A> FailureStats<A> read(ByteBuffer in, ValueCodec<A> inputs) {
+        return read(in, inputs, defaultMaxCells, defaultMaxSamples);
+    }
+
+    /**
+     * Decodes stats that were encoded with <code>write</code>, and leaves the position of the buffer after them. The
+     * codes of the reasons are looked up with the same rules as in {@link ValidatedCodec}, so codes that are not known
+     * here are not interned.
+     * <br/>
+     * The sizes in the header are checked against the limits before anything is allocated, and every count is checked
+     * against what is left of the buffer, so a few corrupt or hostile bytes cannot make the reader allocate gigabytes.
+     * The samples of a reason are allocated as they are read.
+     *
+     * @param in         the buffer
+     * @param inputs     the codec of the sampled inputs
+     * @param maxCells   the largest sketch to accept, as width * depth
+     * @param maxSamples the largest number of samples per reason to accept
+     * @param <A>        the type of the inputs
+     * @return the stats, which can be merged with local stats of the same width and depth
+     * @throws IllegalArgumentException if the buffer does not hold encoded stats, or they are larger than the limits
+     */
+    public static <A> FailureStats<A> read(ByteBuffer in, ValueCodec<A> inputs, int maxCells, int maxSamples) {
+        try {
+            if (in.getInt() != magic)
+                throw new IllegalArgumentException("The buffer does not start with FailureStats");
+            int top = count(in);
+            int samples = count(in);
+            int width = count(in);
+            int depth = count(in);
+            if (Integer.bitCount(width) != 1)
+                throw new IllegalArgumentException("The width " + width + " is not a power of two");
+            if ((long) width * depth > maxCells)
+                throw new IllegalArgumentException("A sketch of " + width + " * " + depth + " counters is larger than the limit of " + maxCells);
+            if (samples > maxSamples)
+                throw new IllegalArgumentException(samples + " samples per reason is more than the limit of " + maxSamples);
+            Builder<A> builder = FailureStats.<A>builder().top(top).samples(samples).width(width).depth(depth);
+            FailureStats<A> stats = builder.build();
+            stats.results = ValidatedCodec.getVarint(in);
+            stats.invalid = ValidatedCodec.getVarint(in);
+            stats.failures = ValidatedCodec.getVarint(in);
+            int cells = items(in);
+            if (cells > stats.sketch.length)
+                throw new IllegalArgumentException(cells + " cells of a sketch of " + stats.sketch.length);
+            int index = -1;
+            for (int i = 0; i < cells; i++) {
+                index += count(in);
+                if (index >= stats.sketch.length)
+                    throw new IllegalArgumentException("A cell of the sketch is outside of it, at " + in.position());
+                stats.sketch[index] = ValidatedCodec.getVarint(in);
+            }
+            int n = items(in);
+            if (n > top)
+                throw new IllegalArgumentException(n + " reasons, but at most " + top + " are kept");
+            for (int i = 0; i < n; i++) {
+                ErrorCode code = ErrorCode.lookup(ValidatedCodec.getString(in), ValidatedCodec.getString(in));
+                String key = ValidatedCodec.getString(in);
+                long count = ValidatedCodec.getVarint(in);
+                long seen = ValidatedCodec.getVarint(in);
+                int size = count(in);
+                if (size > samples)
+                    throw new IllegalArgumentException("A reason has " + size + " samples, but at most " + samples + " are kept");
+                Reason<A> reason = new Reason<>(code, key, samples, 0);
+                reason.count = count;
+                for (int s = 0; s < size; s++)
+                    reason.sample(inputs.read(in), null);
+                reason.seen = seen;
+                stats.reasons.put(reason.key, reason);
+            }
+            return stats;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The FailureStats are cut short at " + in.position(), e);
+        }
+    }
+
+    private static int count(ByteBuffer in) {
+        long n = ValidatedCodec.getVarint(in);
+        if (n < 0 || n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A count of " + n + " at " + in.position());
+        return (int) n;
+    }
+
+    /**
+     * Reads the number of items that follow, where every item takes at least one byte, so there cannot be more of them
+     * than there are bytes left.
+     */
+    private static int items(ByteBuffer in) {
+        int n = count(in);
+        if (n > in.remaining())
+            throw new IllegalArgumentException(n + " items at " + in.position() + ", but only " + in.remaining() + " bytes are left");
+        return n;
+    }
+
+    private void count(Failure failure, A input) {
+        failures++;
+        failure = cause(failure);
+        String key = key(failure);
+        long count = increment(key);
+        Reason<A> reason = reasons.get(key);
+        if (reason == null) {
+            if (reasons.size() < top)
+                reason = new Reason<>(failure.code, key, samples);
+            else {
+                Reason<A> min = null;
+                for (Reason<A> r : reasons.values())
+                    if (min == null || r.count < min.count)
+                        min = r;
+                if (min.count >= count)
+                    return;
+                reasons.remove(min.key);
+                reason = new Reason<>(failure.code, key, samples);
+            }
+            reasons.put(key, reason);
+        }
+        reason.count = count;
+        if (input != null)
+            reason.sample(input, random);
+    }
+
+    /**
+     * Unwraps the failures that only tell where the failure inside them happened.
+     */
+    private static Failure cause(Failure failure) {
+        while (failure.code == ErrorCode.indexed || failure.code == ErrorCode.field) {
+            List<Object> args = failure.args();
+            if (args.size() != 2 || !(args.get(1) instanceof Failure))
+                break;
+            failure = (Failure) args.get(1);
+        }
+        return failure;
+    }
+
+    private static String key(Failure failure) {
+        return
+          failure.code == ErrorCode.message ?
+            String.valueOf(failure.args().get(0)) :
+            failure.code.name;
+    }
+
+    private long increment(String key) {
+        return add(key, 1);
+    }
+
+    private long estimate(String key) {
+        return add(key, 0);
+    }
+
+    /**
+     * Adds to the counter of the key in every row, and returns the lowest of them.
+     */
+    private long add(String key, int n) {
+        long hash = hash(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * (mask + 1) + ((int) mix(hash + row * 0x9e3779b97f4a7c15L) & mask);
+            sketch[cell] += n;
+            min = Math.min(min, sketch[cell]);
+        }
+        return min;
+    }
+
+    /**
+     * A 64 bit FNV-1a hash of the chars of the key. String.hashCode has only 32 bits, and keys with the same hashCode
+     * would collide in every row, which breaks the error bound of the sketch.
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, which gives every row of the sketch its own hash of the hash of the key.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private List<Reason<A>> sorted() {
+        List<Reason<A>> sorted = new ArrayList<>(reasons.values());
+        sorted.sort(Comparator.comparingLong((Reason<A> r) -> r.count).reversed().thenComparing(r -> r.key));
+        return sorted;
+    }
+
+    @Override
+    public String toString() {
+        return "FailureStats{" +
+          "results=" + results +
+          ", invalid=" + invalid +
+          ", failures=" + failures +
+          ", top=" + sorted() +
+          '}';
+    }
+
+    /**
+     * A reason that validations fail for, with its estimated count and a sample of the inputs that failed for it.
+     *
+     * @param <A> the type of the inputs
+     */
+    public static final class Reason<A> {
+
+        /**
+         * The code of the failures.
+         */
+        public final ErrorCode code;
+
+        /**
+         * The name of the code, or the message for failures that were created from a plain message.
+         */
+        public final String key;
+
+        long count;
+        long seen;
+        final int capacity;
+        Object[] sample;
+        int size;
+
+        Reason(ErrorCode code, String key, int samples) {
+            this(code, key, samples, samples);
+        }
+
+        /**
+         * A reason that keeps up to capacity samples, but only allocates room for initial of them until it needs more.
+         */
+        Reason(ErrorCode code, String key, int capacity, int initial) {
+            this.code = code;
+            this.key = key;
+            this.capacity = capacity;
+            this.sample = new Object[initial];
+        }
+
+        /**
+         * @return the estimated number of failures for the reason, which may be too high, but is never too low
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return a uniform sample of the inputs that failed for the reason since it became a heavy hitter
+         */
+        @SuppressWarnings("unchecked")
+        public List<A> samples() {
+            return (List<A>) Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(sample, size)));
+        }
+
+        @SuppressWarnings("unchecked")
+        A input(int i) {
+            return (A) sample[i];
+        }
+
+        void sample(A input, SplittableRandom random) {
+            seen++;
+            if (size < capacity) {
+                if (size == sample.length)
+                    sample = Arrays.copyOf(sample, Math.min(capacity, Math.max(4, size * 2)));
+                sample[size++] = input;
+            } else {
+                long i = random.nextLong(seen);
+                if (i < capacity)
+                    sample[(int) i] = input;
+            }
+        }
+
+        /**
+         * Fills the sample by drawing from the two samples without replacement, each with a probability in proportion
+         * to how many inputs its sample was drawn from.
+         */
+        void merge(Reason<A> other, SplittableRandom random) {
+            Object[] ours = Arrays.copyOf(sample, size);
+            long ourSeen = seen;
+            int ourNext = 0;
+            int theirNext = 0;
+            long theirSeen = other.seen;
+            int n = Math.min(capacity, size + other.size);
+            if (sample.length < n)
+                sample = new Object[n];
+            for (int i = 0; i < n; i++) {
+                boolean takeOurs =
+                  theirNext == other.size ||
+                    ourNext < ours.length && random.nextLong(ourSeen + theirSeen) < ourSeen;
+                if (takeOurs) {
+                    sample[i] = ours[ourNext++];
+                    ourSeen--;
+                } else {
+                    sample[i] = other.sample[theirNext++];
+                    theirSeen--;
+                }
+            }
+            size = n;
+            seen += other.seen;
+        }
+
+        Reason<A> copy() {
+            Reason<A> copy = new Reason<>(code, key, capacity, sample.length);
+            copy.count = count;
+            copy.seen = seen;
+            copy.size = size;
+            System.arraycopy(sample, 0, copy.sample, 0, size);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "Reason{" +
+              "key=" + key +
+              ", count=" + count +
+              ", samples=" + samples() +
+              '}';
+        }
+    }
+
+    /**
+     * Configures a FailureStats.
+     *
+     * @param <A> the type of the inputs
+     */
+    public static final class Builder<A> {
+
+        private int top = 10;
+        private int samples = 5;
+        private int width = 2048;
+        private int depth = 4;
+
+        private Builder() {
+        }
+
+        /**
+         * The number of heavy hitters to keep. The default is 10.
+         */
+        public Builder<A> top(int top) {
+            if (top < 1)
+                throw new IllegalArgumentException("top must be at least 1, but was " + top);
+            this.top = top;
+            return this;
+        }
+
+        /**
+         * The number of inputs to sample per heavy hitter. The default is 5.
+         */
+        public Builder<A> samples(int samples) {
+            if (samples < 0)
+                throw new IllegalArgumentException("samples cannot be negative, but was " + samples);
+            this.samples = samples;
+            return this;
+        }
+
+        /**
+         * The number of counters in each row of the sketch, rounded up to a power of two. The default is 2048.
+         */
+        public Builder<A> width(int width) {
+            if (width < 1 || width > 1 << 24)
+                throw new IllegalArgumentException("width must be from 1 to 2^24, but was " + width);
+            this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+            return this;
+        }
+
+        /**
+         * The number of rows of the sketch. The default is 4.
+         */
+        public Builder<A> depth(int depth) {
+            if (depth < 1 || depth > 16)
+                throw new IllegalArgumentException("depth must be from 1 to 16, but was " + depth);
+            this.depth = depth;
+            return this;
+        }
+
+        public FailureStats<A> build() {
+            return new FailureStats<>(top, samples, width, depth);
+        }
+
+        /**
+         * A collector that validates every input of a stream and adds the results to a FailureStats. With a parallel
+         * stream, every thread adds to its own, and they are merged.
+         *
+         * @param validation the validation of the inputs
+         * @return a Collector
+         */
+        public Collector<A, ?, FailureStats<A>> collector(Function<? super A, ? extends Validated<?>> validation) {
+            int top = this.top;
+            int samples = this.samples;
+            int width = this.width;
+            int depth = this.depth;
+            return Collector.of(
+              () -> new FailureStats<A>(top, samples, width, depth),
+              (stats, a) -> stats.add(a, validation.apply(a)),
+              FailureStats::merge,
+              Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.kantega.cbyc;
+
+/**
+ * A function that takes thirteen arguments and produces a result. Used by the 13-argument version of
+ * <code>Validated.accum()</code>, so that the arguments can be combined without currying.
+ *
+ * @param <A> the type of argument 1
+ * @param <B> the type of argument 2
+ * @param <C> the type of argument 3
+ * @param <D> the type of argument 4
+ * @param <E> the type of argument 5
+ * @param <F> the type of argument 6
+ * @param <G> the type of argument 7
+ * @param <H> the type of argument 8
+ * @param <I> the type of argument 9
+ * @param <J> the type of argument 10
+ * @param <K> the type of argument 11
+ * @param <L> the type of argument 12
+ * @param <M> the type of argument 13
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface Function13<A, B, C, D, E, F, G, H, I, J, K, L, M, T> {
+
+    T apply(A a, B b, C c, D d, E e, F f, G g, H h, I i, J j, K k, L l, M m);
+}
@@ -0,0 +1,17 @@
+package org.kantega.cbyc;
+
+/**
+ * A function that takes four arguments and produces a result. Used by the 4-argument version of
+ * <code>Validated.accum()</code>, so that the arguments can be combined without currying.
+ *
+ * @param <A> the type of argument 1
+ * @param <B> the type of argument 2
+ * @param <C> the type of argument 3
+ * @param <D> the type of argument 4
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface Function4<A, B, C, D, T> {
+
+    T apply(A a, B b, C c, D d);
+}
@@ -0,0 +1,19 @@
+package org.kantega.cbyc;
+
+/**
+ * A function that takes six arguments and produces a result. Used by the 6-argument version of
+ * <code>Validated.accum()</code>, so that the arguments can be combined without currying.
+ *
+ * @param <A> the type of argument 1
+ * @param <B> the type of argument 2
+ * @param <C> the type of argument 3
+ * @param <D> the type of argument 4
+ * @param <E> the type of argument 5
+ * @param <F> the type of argument 6
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface Function6<A, B, C, D, E, F, T> {
+
+    T apply(A a, B b, C c, D d, E e, F f);
+}
@@ -0,0 +1,21 @@
+package org.kantega.cbyc;
+
+/**
+ * A function that takes eight arguments and produces a result. Used by the 8-argument version of
+ * <code>Validated.accum()</code>, so that the arguments can be combined without currying.
+ *
+ * @param <A> the type of argument 1
+ * @param <B> the type of argument 2
+ * @param <C> the type of argument 3
+ * @param <D> the type of argument 4
+ * @param <E> the type of argument 5
+ * @param <F> the type of argument 6
+ * @param <G> the type of argument 7
+ * @param <H> the type of argument 8
+ * @param <T> the type of the result
+ */
+@FunctionalInterface
+public interface Function8<A, B, C, D, E, F, G, H, T> {
+
+    T apply(A a, B b, C c, D d, E e, F f, G g, H h);
+}
@@ -0,0 +1,18 @@
+package org.kantega.cbyc;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asks {@link ConstraintProcessor} to generate a smart constructor for the annotated class, from the Bean Validation
+ * constraints on its fields and constructor parameters.
+ * <br/>
+ * For a class <code>ContactInfo</code>, the processor generates <code>ContactInfoValidated</code> in the same package,
+ * with a <code>static Validated&lt;ContactInfo&gt; of(...)</code> that takes the same parameters as the constructor.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateValidated {
+}
@@ -0,0 +1,86 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ValidationListener} that keeps the metrics of every named validation in memory: how many values passed and
+ * failed, and the latencies. The passed and failed validations of a name are recorded in one {@link LatencyHistogram}
+ * each, whose counts are the counters, so that recording a validation is a single atomic increment. Install it with <code>Instrumentation.install</code>, and
+ * read the metrics with <code>stats()</code>, or print them with <code>toString()</code>.
+ * <br/>
+ * The metrics of a name are created the first time the name is reported, and kept until <code>clear()</code>. They take
+ * about 20 kB per name when the name is validated from one thread, and up to about 150 kB when it is validated from
+ * many, see {@link LatencyHistogram}. Every rule that is compiled with a name, like the rules of the classes generated
+ * by {@link ConstraintProcessor}, is a name of its own.
+ */
+public final class InMemoryMetrics implements ValidationListener {
+
+    private final ConcurrentHashMap<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void onValidation(String name, boolean valid, long nanos) {
+        Metrics m = metrics.get(name);
+        if (m == null)
+            m = metrics.computeIfAbsent(name, n -> new Metrics());
+        (valid ? m.passed : m.failed).record(nanos);
+    }
+
+    /**
+     * @return snapshots of the metrics of every validation that has been reported, sorted by name
+     */
+    public List<ValidationStats> stats() {
+        List<ValidationStats> stats = new ArrayList<>(metrics.size());
+        metrics.forEach((name, m) -> stats.add(m.stats(name)));
+        stats.sort(Comparator.comparing(s -> s.name));
+        return stats;
+    }
+
+    /**
+     * @param name the name of a validation
+     * @return a snapshot of the metrics of the validation, or empty if it has not been reported
+     */
+    public Optional<ValidationStats> stats(String name) {
+        return Optional.ofNullable(metrics.get(name)).map(m -> m.stats(name));
+    }
+
+    /**
+     * Forgets the metrics of all validations.
+     */
+    public void clear() {
+        metrics.clear();
+    }
+
+    /**
+     * @return one line per validation, sorted by name, with the counts and the latency percentiles in nanoseconds
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (ValidationStats s : stats())
+            sb
+              .append(s.name)
+              .append(" passed=").append(s.passed)
+              .append(" failed=").append(s.failed)
+              .append(" p50=").append(s.latency.percentile(50))
+              .append(" p99=").append(s.latency.percentile(99))
+              .append(" max=").append(s.latency.max())
+              .append('\n');
+        return sb.toString();
+    }
+
+    private static final class Metrics {
+
+        final LatencyHistogram passed = new LatencyHistogram();
+        final LatencyHistogram failed = new LatencyHistogram();
+
+        ValidationStats stats(String name) {
+            LatencyHistogram.Snapshot p = passed.snapshot();
+            LatencyHistogram.Snapshot f = failed.snapshot();
+            return new ValidationStats(name, p.count, f.count, p.plus(f));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.kantega.cbyc;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The registry of the {@link ValidationListener} that named validations are reported to. There is no listener until
+ * one is installed, and then every named validation is timed and reported.
+ * <br/>
+ * The named validations are <code>Validated.validate</code> and <code>Validated.of</code> with an error code, which are
+ * named after the code, compiled rules that are given a name, like the rules of the smart constructors that
+ * {@link ConstraintProcessor} generates, and functions that are wrapped with <code>instrument</code>.
+ * <br/>
+ * Without a listener, a named validation only reads one volatile field more than an unnamed one.
+ */
+public final class Instrumentation {
+
+    static volatile ValidationListener listener;
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Reports every named validation to the listeners, instead of to the listeners that were installed before.
+     * Installing no listeners is the same as <code>uninstall()</code>.
+     *
+     * @param listeners the listeners
+     */
+    public static void install(ValidationListener... listeners) {
+        listener =
+          listeners.length == 0 ? null :
+          listeners.length == 1 ? listeners[0] :
+          new All(listeners.clone());
+    }
+
+    /**
+     * Stops reporting validations.
+     */
+    public static void uninstall() {
+        listener = null;
+    }
+
+    /**
+     * @return true if a listener is installed
+     */
+    public static boolean enabled() {
+        return listener != null;
+    }
+
+    /**
+     * Names a validation, so that it is reported when a listener is installed. Typically used on smart constructors,
+     * as in <code>Instrumentation.instrument("age", Age::toAge)</code>.
+     *
+     * @param name       the name of the validation
+     * @param validation the validation
+     * @param <A>        the type of the input
+     * @param <B>        the type of the validated value
+     * @return a function that validates like the validation, and reports it
+     */
+    public static <A, B> Function<A, Validated<B>> instrument(String name, Function<A, Validated<B>> validation) {
+        return a -> {
+            ValidationListener l = listener;
+            if (l == null)
+                return validation.apply(a);
+            long start = System.nanoTime();
+            Validated<B> result = validation.apply(a);
+            l.onValidation(name, result instanceof Validated.Valid, System.nanoTime() - start);
+            return result;
+        };
+    }
+
+    static <A> Validated<A> validate(ValidationListener l, A value, Predicate<A> predicate, ErrorCode code) {
+        long start = System.nanoTime();
+        boolean valid = predicate.test(value);
+        l.onValidation(code.name, valid, System.nanoTime() - start);
+        return valid ? Validated.valid(value) : Validated.invalid(code);
+    }
+
+    /**
+     * Reports to several listeners.
+     */
+    private static final class All implements ValidationListener {
+
+        private final ValidationListener[] listeners;
+
+        All(ValidationListener[] listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void onValidation(String name, boolean valid, long nanos) {
+            for (ValidationListener l : listeners)
+                l.onValidation(name, valid, nanos);
+        }
+    }
+}
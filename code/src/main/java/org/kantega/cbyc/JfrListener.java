@@ -0,0 +1,47 @@
+package org.kantega.cbyc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A {@link ValidationListener} that emits every named validation as a Flight Recorder event,
+ * <code>org.kantega.cbyc.Validation</code>, with the name, whether the value was valid, and the latency.
+ * <br/>
+ * The events are only recorded while a recording is running, like one started with
+ * <code>-XX:StartFlightRecording</code> or <code>jcmd &lt;pid&gt; JFR.start</code>. Otherwise the listener only creates
+ * an event, which usually does not escape and is not allocated, and sees that it is disabled.
+ */
+public final class JfrListener implements ValidationListener {
+
+    @Override
+    public void onValidation(String name, boolean valid, long nanos) {
+        ValidationEvent event = new ValidationEvent();
+        if (event.isEnabled()) {
+            event.name = name;
+            event.valid = valid;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    @Name("org.kantega.cbyc.Validation")
+    @Label("Validation")
+    @Category("Validation")
+    @Description("A named validation")
+    static final class ValidationEvent extends Event {
+
+        @Label("Name")
+        String name;
+
+        @Label("Valid")
+        boolean valid;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+}
@@ -0,0 +1,169 @@
+package org.kantega.cbyc;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A histogram of latencies in nanoseconds, with buckets that grow exponentially, like HdrHistogram. Values below 32 get
+ * a bucket each, and every power of two above that is split into 32 buckets, so a value is reported at most about 3%
+ * above what was recorded. Values above about 36 minutes are recorded as 36 minutes.
+ * <br/>
+ * Recording a value is one atomic increment of an array element, without locks or allocation. The counts are striped over
+ * several arrays, one per processor up to eight, and a thread always records into the same stripe, so that threads
+ * on different processors seldom write to the same cache lines. A snapshot adds up the stripes.
+ * <br/>
+ * A stripe is 1184 longs, about 9 kB, and is created the first time a thread records into it. A histogram that is only
+ * recorded from one thread takes one stripe, and one that is recorded from many threads takes up to eight, about 75 kB.
+ */
+public final class LatencyHistogram {
+
+    private static final int subBits = 5;
+    private static final int subBuckets = 1 << subBits;
+    private static final int maxExponent = 40;
+    private static final int buckets = (maxExponent - subBits + 2) * subBuckets;
+    private static final int stripeCount = stripes(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(stripeCount);
+
+    /**
+     * @param nanos the latency to record. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        int s = (int) Thread.currentThread().getId() & (stripeCount - 1);
+        AtomicLongArray stripe = stripes.get(s);
+        if (stripe == null)
+            stripe = createStripe(s);
+        stripe.getAndIncrement(index(Math.max(0, nanos)));
+    }
+
+    private AtomicLongArray createStripe(int s) {
+        AtomicLongArray stripe = new AtomicLongArray(buckets);
+        return stripes.compareAndSet(s, null, stripe) ? stripe : stripes.get(s);
+    }
+
+    /**
+     * @return the counts recorded until now. Values that are recorded while the snapshot is taken may or may not be
+     * included.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets];
+        for (int s = 0; s < stripeCount; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe != null)
+                for (int i = 0; i < buckets; i++)
+                    counts[i] += stripe.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    static int index(long value) {
+        if (value < subBuckets)
+            return (int) value;
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), maxExponent);
+        int shift = exponent - subBits;
+        int sub = (int) Math.min(value >>> shift, 2 * subBuckets - 1) - subBuckets;
+        return (shift + 1) * subBuckets + sub;
+    }
+
+    /**
+     * @return the highest value that is recorded in the bucket
+     */
+    static long highest(int index) {
+        if (index < subBuckets)
+            return index;
+        int shift = index / subBuckets - 1;
+        long sub = index % subBuckets;
+        return ((subBuckets + sub + 1) << shift) - 1;
+    }
+
+    private static int stripes(int processors) {
+        int n = 1;
+        while (n < processors && n < 8)
+            n <<= 1;
+        return n;
+    }
+
+    /**
+     * The counts of a histogram at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        /**
+         * The number of recorded values.
+         */
+        public final long count;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long c = 0;
+            for (long n : counts)
+                c += n;
+            this.count = c;
+        }
+
+        /**
+         * @param other another snapshot
+         * @return a snapshot with the counts of both snapshots
+         */
+        public Snapshot plus(Snapshot other) {
+            long[] sum = counts.clone();
+            for (int i = 0; i < sum.length; i++)
+                sum[i] += other.counts[i];
+            return new Snapshot(sum);
+        }
+
+        /**
+         * @return the mean of the recorded values, as they are reported, or 0 if there are none
+         */
+        public double mean() {
+            if (count == 0)
+                return 0;
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++)
+                if (counts[i] > 0)
+                    sum += (double) counts[i] * highest(i);
+            return sum / count;
+        }
+
+        /**
+         * @param percentile the percentile, from 0 to 100
+         * @return the value that the percentile of the recorded values is at or below, or 0 if there are none
+         */
+        public long percentile(double percentile) {
+            if (count == 0)
+                return 0;
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return highest(i);
+            }
+            return max();
+        }
+
+        /**
+         * @return the highest recorded value, or 0 if there are none
+         */
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--)
+                if (counts[i] > 0)
+                    return highest(i);
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+              "count=" + count +
+              ", mean=" + Math.round(mean()) +
+              ", p50=" + percentile(50) +
+              ", p90=" + percentile(90) +
+              ", p99=" + percentile(99) +
+              ", max=" + max() +
+              '}';
+        }
+    }
+}
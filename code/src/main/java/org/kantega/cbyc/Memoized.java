@@ -0,0 +1,193 @@
+package org.kantega.cbyc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A validation that remembers its results in a bounded cache. Use it for validations that are pure, but expensive,
+ * and that see the same inputs again and again, like email addresses.
+ * <br/>
+ * The cache is split into segments by the hash of the input, and each segment is a small LRU map with its own lock,
+ * so threads that validate different inputs rarely wait for each other. The validation itself runs outside the lock.
+ * Two threads that miss on the same input at the same time may both run the validation, which is harmless since it is
+ * pure.
+ * <br/>
+ * A Memoized is safe to share between threads.
+ *
+ * @param <A> the type of the input
+ * @param <B> the type of the validated value
+ */
+public final class Memoized<A, B> implements Function<A, Validated<B>> {
+
+    private final Function<A, Validated<B>> validation;
+    private final long expireAfterWriteNanos;
+    private final Segment<A, B>[] segments;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Memoized(Function<A, Validated<B>> validation, CachePolicy policy) {
+        this.validation = validation;
+        this.expireAfterWriteNanos = policy.expireAfterWriteNanos;
+        int count = segmentCount(policy.maximumSize);
+        this.segments = new Segment[count];
+        this.mask = count - 1;
+        long perSegment = (policy.maximumSize + count - 1) / count;
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment<>(perSegment);
+    }
+
+    /**
+     * Uses a power of two number of segments, enough to spread the threads, but not so many that the segments
+     * become too small to approximate LRU.
+     */
+    private static int segmentCount(long maximumSize) {
+        int wanted = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        long bySize = Math.max(1, maximumSize / 64);
+        return (int) Math.min(wanted, Long.highestOneBit(bySize));
+    }
+
+    /**
+     * Returns the cached result for the input, or runs the validation and caches its result.
+     *
+     * @param a the input to validate
+     * @return the result of the validation
+     */
+    @Override
+    public Validated<B> apply(A a) {
+        int hash = spread(Objects.hashCode(a));
+        Segment<A, B> segment = segments[hash & mask];
+        long now = expireAfterWriteNanos == 0 ? 0 : System.nanoTime();
+        Cached<B> cached = segment.get(a);
+        if (cached != null) {
+            if (expireAfterWriteNanos == 0 || now - cached.written < expireAfterWriteNanos) {
+                hits.increment();
+                return cached.result;
+            }
+            if (segment.removeExpired(a, cached))
+                expirations.increment();
+        }
+        misses.increment();
+        Validated<B> result = validation.apply(a);
+        if (segment.put(a, new Cached<>(result, now)))
+            evictions.increment();
+        return result;
+    }
+
+    /**
+     * @return a snapshot of the statistics of the cache.
+     */
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment<A, B> segment : segments)
+            size += segment.size();
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size);
+    }
+
+    /**
+     * Removes all results from the cache. The statistics are kept.
+     */
+    public void clear() {
+        for (Segment<A, B> segment : segments)
+            segment.clear();
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "Memoized{" +
+          "stats=" + stats() +
+          '}';
+    }
+
+    private static final class Cached<B> {
+
+        final Validated<B> result;
+        final long written;
+
+        Cached(Validated<B> result, long written) {
+            this.result = result;
+            this.written = written;
+        }
+    }
+
+    private static final class Segment<A, B> {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final long capacity;
+        final LinkedHashMap<A, Cached<B>> entries;
+        boolean evicted;
+
+        Segment(long capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<A, Cached<B>> eldest) {
+                    evicted = size() > Segment.this.capacity;
+                    return evicted;
+                }
+            };
+        }
+
+        Cached<B> get(A a) {
+            lock.lock();
+            try {
+                return entries.get(a);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return true if an older entry was evicted to make room
+         */
+        boolean put(A a, Cached<B> cached) {
+            lock.lock();
+            try {
+                evicted = false;
+                entries.put(a, cached);
+                return evicted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean removeExpired(A a, Cached<B> expired) {
+            lock.lock();
+            try {
+                return entries.remove(a, expired);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
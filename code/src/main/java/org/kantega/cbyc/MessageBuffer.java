@@ -0,0 +1,65 @@
+package org.kantega.cbyc;
+
+/**
+ * A mutable buffer of messages that keeps at most a fixed number of messages. Messages beyond the limit are only
+ * counted. Used by the collectors, where one bad input could otherwise keep millions of messages in memory.
+ * <br/>
+ * A buffer is not thread safe, but two buffers can be combined, keeping the messages of the first buffer first.
+ */
+final class MessageBuffer {
+
+    final int maxMessages;
+    Chain<Failure> msgs;
+    int kept;
+    long omitted;
+
+    MessageBuffer(int maxMessages) {
+        if (maxMessages < 0)
+            throw new IllegalArgumentException("maxMessages cannot be negative, was " + maxMessages);
+        this.maxMessages = maxMessages;
+    }
+
+    boolean isEmpty() {
+        return kept == 0 && omitted == 0;
+    }
+
+    /**
+     * @return the total number of messages that has been added, including the omitted ones
+     */
+    long count() {
+        return kept + omitted;
+    }
+
+    void add(Chain<Failure> more) {
+        int room = maxMessages - kept;
+        int size = more.size();
+        if (room >= size) {
+            msgs = Chain.append(msgs, more);
+            kept += size;
+        } else {
+            if (room > 0) {
+                msgs = Chain.append(msgs, Chain.ofAll(more.toList().subList(0, room)));
+                kept += room;
+            }
+            omitted += size - room;
+        }
+    }
+
+    MessageBuffer combine(MessageBuffer other) {
+        if (other.msgs != null)
+            add(other.msgs);
+        omitted += other.omitted;
+        return this;
+    }
+
+    /**
+     * @return the kept messages, followed by a message that tells how many were omitted, if any. Null if the buffer
+     * is empty.
+     */
+    Chain<Failure> toChain() {
+        return
+          omitted == 0 ?
+            msgs :
+            Chain.append(msgs, Chain.one(Failure.of(ErrorCode.omitted, omitted)));
+    }
+}
@@ -0,0 +1,39 @@
+package org.kantega.cbyc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * A MessageBundle supplies the message templates of one locale. Bundles are registered in {@link Messages}.
+ */
+@FunctionalInterface
+public interface MessageBundle {
+
+    /**
+     * @param code the code of a failure
+     * @return the template of the message, or null if the bundle has no template for the code
+     */
+    String template(ErrorCode code);
+
+    /**
+     * Creates a bundle from a map of templates.
+     *
+     * @param templates the templates, by error code
+     * @return a new MessageBundle
+     */
+    static MessageBundle of(Map<ErrorCode, String> templates) {
+        Map<ErrorCode, String> copy = new HashMap<>(templates);
+        return copy::get;
+    }
+
+    /**
+     * Creates a bundle from a ResourceBundle, where the keys are the names of the error codes.
+     *
+     * @param bundle the resource bundle
+     * @return a new MessageBundle
+     */
+    static MessageBundle of(ResourceBundle bundle) {
+        return code -> bundle.containsKey(code.name) ? bundle.getString(code.name) : null;
+    }
+}
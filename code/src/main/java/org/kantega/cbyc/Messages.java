@@ -0,0 +1,158 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The registry of message bundles that failures are rendered with.
+ * <br/>
+ * When a failure is rendered in a locale, the bundles of the locale are asked first, then the bundles of its
+ * language, then the bundles of <code>Locale.ROOT</code>, and finally the default template of the error code is used.
+ * Templates are parsed once per locale and code, and the parsed templates are cached until a new bundle is registered.
+ * Rendered messages are cached by the failures and the Invalids too, and registering a bundle makes them render again.
+ * <br/>
+ * The default locale is <code>Locale.ROOT</code>, so unless it is changed, failures render with the default templates
+ * of their codes, or the bundles registered for <code>Locale.ROOT</code>.
+ */
+public final class Messages {
+
+    private static final ConcurrentHashMap<Locale, List<MessageBundle>> bundles = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Locale, ConcurrentHashMap<ErrorCode, Template>> templates = new ConcurrentHashMap<>();
+    private static final AtomicInteger generation = new AtomicInteger();
+    private static volatile Locale defaultLocale = Locale.ROOT;
+
+    private Messages() {
+    }
+
+    /**
+     * Registers a bundle for a locale. Bundles that are registered later for the same locale take precedence.
+     *
+     * @param locale the locale of the bundle
+     * @param bundle the bundle
+     */
+    public static void register(Locale locale, MessageBundle bundle) {
+        bundles.computeIfAbsent(locale, l -> new CopyOnWriteArrayList<>()).add(0, bundle);
+        templates.clear();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return a number that changes every time a bundle is registered, so that cached messages can tell that they are
+     * out of date
+     */
+    static int generation() {
+        return generation.get();
+    }
+
+    /**
+     * @return the locale that messages are rendered in when no locale is given, like in <code>Validated.fold()</code>
+     */
+    public static Locale defaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Sets the locale that messages are rendered in when no locale is given.
+     *
+     * @param locale the new default locale
+     */
+    public static void setDefaultLocale(Locale locale) {
+        defaultLocale = locale;
+    }
+
+    /**
+     * The templates of codes that are not interned are not cached, since there may be any number of them.
+     */
+    static String render(ErrorCode code, Object[] args, Locale locale) {
+        if (!code.interned)
+            return Template.parse(find(code, locale)).render(args, locale);
+        return
+          templates
+            .computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+            .computeIfAbsent(code, c -> Template.parse(find(c, locale)))
+            .render(args, locale);
+    }
+
+    private static String find(ErrorCode code, Locale locale) {
+        List<Locale> candidates = new ArrayList<>(3);
+        candidates.add(locale);
+        if (!locale.getCountry().isEmpty() || !locale.getVariant().isEmpty())
+            candidates.add(new Locale(locale.getLanguage()));
+        if (!locale.equals(Locale.ROOT))
+            candidates.add(Locale.ROOT);
+        for (Locale candidate : candidates)
+            for (MessageBundle bundle : bundles.getOrDefault(candidate, List.of())) {
+                String template = bundle.template(code);
+                if (template != null)
+                    return template;
+            }
+        return code.defaultTemplate;
+    }
+
+    /**
+     * A parsed message template. The literal parts and the argument indexes alternate, starting and ending with a
+     * literal part.
+     */
+    private static final class Template {
+
+        final String[] literals;
+        final int[] argIndexes;
+
+        private Template(String[] literals, int[] argIndexes) {
+            this.literals = literals;
+            this.argIndexes = argIndexes;
+        }
+
+        static Template parse(String template) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            int start = 0;
+            int open = template.indexOf('{');
+            while (open >= 0) {
+                int close = template.indexOf('}', open);
+                if (close < 0)
+                    break;
+                int index = parseIndex(template, open + 1, close);
+                if (index >= 0) {
+                    literals.add(template.substring(start, open));
+                    indexes.add(index);
+                    start = close + 1;
+                }
+                open = template.indexOf('{', index >= 0 ? close + 1 : open + 1);
+            }
+            literals.add(template.substring(start));
+            return new Template(literals.toArray(new String[0]), indexes.stream().mapToInt(i -> i).toArray());
+        }
+
+        private static int parseIndex(String template, int from, int to) {
+            if (from == to)
+                return -1;
+            int index = 0;
+            for (int i = from; i < to; i++) {
+                char c = template.charAt(i);
+                if (c < '0' || c > '9')
+                    return -1;
+                index = index * 10 + (c - '0');
+            }
+            return index;
+        }
+
+        String render(Object[] args, Locale locale) {
+            if (argIndexes.length == 0)
+                return literals[0];
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < argIndexes.length; i++) {
+                sb.append(literals[i]);
+                int index = argIndexes[i];
+                Object arg = index < args.length ? args[index] : null;
+                sb.append(arg instanceof Failure ? ((Failure) arg).message(locale) : String.valueOf(arg));
+            }
+            sb.append(literals[argIndexes.length]);
+            return sb.toString();
+        }
+    }
+}
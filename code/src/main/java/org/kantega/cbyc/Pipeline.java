@@ -0,0 +1,108 @@
+package org.kantega.cbyc;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A Pipeline is a validation of an input, composed once and then applied to many inputs. It has the same steps as a
+ * Deferred, consecutive maps are fused, and running it is stack safe. The steps are compiled the first time the
+ * pipeline is applied, and the compiled steps are shared by all later inputs.
+ * <br/>
+ * Pipelines are immutable, and can be shared between threads if the functions they are built from can.
+ *
+ * @param <I> the type of the input
+ * @param <A> the type of the validated value
+ */
+public final class Pipeline<I, A> implements Function<I, Validated<A>> {
+
+    private final Function<I, ? extends Validated<?>> source;
+    private final Steps steps;
+
+    private Pipeline(Function<I, ? extends Validated<?>> source, Steps steps) {
+        this.source = source;
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a Pipeline that starts with the supplied validation.
+     *
+     * @param validation the first validation of the input
+     * @param <I>        the type of the input
+     * @param <A>        the type of the validated value
+     * @return a new Pipeline
+     */
+    public static <I, A> Pipeline<I, A> of(Function<I, Validated<A>> validation) {
+        return new Pipeline<>(validation, Steps.none);
+    }
+
+    /**
+     * Transforms the value if it is Valid.
+     *
+     * @param f   The transformation function
+     * @param <B> the type of the value that the function returns
+     * @return a new Pipeline
+     */
+    public <B> Pipeline<I, B> map(Function<A, B> f) {
+        return new Pipeline<>(source, steps.add(Steps.MAP, f));
+    }
+
+    /**
+     * Applies a new validation to the value if it is Valid.
+     *
+     * @param f   the function that applies a new validation
+     * @param <B> the type of the value the next validation validates
+     * @return a new Pipeline
+     */
+    public <B> Pipeline<I, B> flatMap(Function<A, Validated<B>> f) {
+        return new Pipeline<>(source, steps.add(Steps.FLAT_MAP, f));
+    }
+
+    /**
+     * Continues with a Deferred if the value is Valid.
+     *
+     * @param f   the function that returns the next Deferred
+     * @param <B> the type of the value the next Deferred validates
+     * @return a new Pipeline
+     */
+    public <B> Pipeline<I, B> flatMapDeferred(Function<A, Deferred<B>> f) {
+        return new Pipeline<>(source, steps.add(Steps.FLAT_MAP_DEFERRED, f));
+    }
+
+    /**
+     * Turns an Invalid into a Valid. The function is only called if the validation failed.
+     *
+     * @param f the function that creates a value from the messages
+     * @return a new Pipeline that is always Valid
+     */
+    public Pipeline<I, A> recover(Function<List<String>, A> f) {
+        return new Pipeline<>(source, steps.add(Steps.RECOVER, f));
+    }
+
+    /**
+     * Runs the pipeline on the input.
+     *
+     * @param input the input to validate
+     * @return the result of the validation
+     */
+    @Override
+    public Validated<A> apply(I input) {
+        return steps.run(source.apply(input));
+    }
+
+    /**
+     * Binds the pipeline to an input without running it. The Deferred runs the steps of the pipeline in the same loop
+     * as the Deferred that returned it, so a pipeline may recurse through <code>defer</code> in
+     * <code>flatMapDeferred</code> as deep as it likes.
+     *
+     * @param input the input to validate
+     * @return a Deferred that runs the pipeline on the input
+     */
+    public Deferred<A> defer(I input) {
+        return new Deferred<>(() -> source.apply(input), steps);
+    }
+
+    @Override
+    public String toString() {
+        return "Pipeline{}";
+    }
+}
@@ -0,0 +1,392 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * A Rule describes what a valid value looks like, and which failure to report if it is not. Rules are combined with
+ * <code>and()</code>, <code>or()</code> and <code>not()</code>, and rules about a part of a value are lifted to the
+ * whole value with <code>field()</code>.
+ * <br/>
+ * A Rule is only a description. <code>compile()</code> turns it into a {@link CompiledRule}, a single check object
+ * where nested conjunctions are flattened, adjacent range checks on the same projection are merged into one
+ * comparison, and adjacent rules on the same field share one projection. The checks of a conjunction run in order, and
+ * stop at the first one that fails. Rules combined with <code>andAlso()</code> are all checked, and all their failures
+ * are reported.
+ * <br/>
+ * Rules and compiled rules are immutable, so both can be kept as static constants.
+ *
+ * @param <A> the type of the values the rule applies to
+ */
+public abstract class Rule<A> {
+
+    static final ToIntFunction<Integer> intValue = Integer::intValue;
+    private static final ToIntFunction<CharSequence> lengthOf = CharSequence::length;
+
+    Rule() {
+    }
+
+    /**
+     * A rule that holds when the predicate holds.
+     *
+     * @param predicate the predicate that must hold
+     * @param code      the code of the failure if the predicate does not hold
+     * @param <A>       the type of the values
+     * @return a new Rule
+     */
+    public static <A> Rule<A> of(Predicate<A> predicate, ErrorCode code) {
+        return new Test<>(predicate, Failure.of(code));
+    }
+
+    /**
+     * A rule that holds when the predicate holds.
+     *
+     * @param predicate the predicate that must hold
+     * @param msg       the message if the predicate does not hold
+     * @param <A>       the type of the values
+     * @return a new Rule
+     */
+    public static <A> Rule<A> of(Predicate<A> predicate, String msg) {
+        return new Test<>(predicate, Failure.of(msg));
+    }
+
+    /**
+     * A rule that holds for values that are not null. Put it first in a conjunction, so that the rules after it never
+     * see a null.
+     *
+     * @param code the code of the failure if the value is null
+     * @param <A>  the type of the values
+     * @return a new Rule
+     */
+    public static <A> Rule<A> notNull(ErrorCode code) {
+        return new NotNull<>(Failure.of(code));
+    }
+
+    /**
+     * A rule that holds when the int is between min and max, both inclusive, like the bounds of <code>length()</code>.
+     * The failure has min and max as arguments. A compiled range over Integer can check an int without boxing it,
+     * see <code>CompiledRule.validateInt()</code>.
+     *
+     * @param min  the smallest valid value
+     * @param max  the largest valid value
+     * @param code the code of the failure if the value is out of range
+     * @return a new Rule
+     */
+    public static Rule<Integer> range(int min, int max, ErrorCode code) {
+        return range(intValue, min, max, code);
+    }
+
+    /**
+     * A rule that holds when the projection of the value is between min and max, both inclusive. The failure has min
+     * and max as arguments. Adjacent ranges over the same projection instance are merged when the rule is compiled.
+     *
+     * @param projection the int to check
+     * @param min        the smallest valid value
+     * @param max        the largest valid value
+     * @param code       the code of the failure if the value is out of range
+     * @param <A>        the type of the values
+     * @return a new Rule
+     */
+    public static <A> Rule<A> range(ToIntFunction<? super A> projection, int min, int max, ErrorCode code) {
+        return new Range<>(projection, min, max, Failure.of(code, min, max));
+    }
+
+    /**
+     * A rule that holds when the length of the text is between min and max, both inclusive. The failure has min and
+     * max as arguments. Adjacent length rules are merged when the rule is compiled.
+     *
+     * @param min  the shortest valid length
+     * @param max  the longest valid length
+     * @param code the code of the failure if the length is out of range
+     * @param <S>  the type of the text
+     * @return a new Rule
+     */
+    public static <S extends CharSequence> Rule<S> length(int min, int max, ErrorCode code) {
+        return new Range<>(lengthOf, min, max, Failure.of(code, min, max));
+    }
+
+    /**
+     * A rule that holds when the entire text matches the regular expression. The expression is compiled once, when the
+     * rule is created.
+     *
+     * @param regex the regular expression
+     * @param code  the code of the failure if the text does not match
+     * @param <S>   the type of the text
+     * @return a new Rule
+     */
+    public static <S extends CharSequence> Rule<S> matches(String regex, ErrorCode code) {
+        Pattern pattern = Pattern.compile(regex);
+        return of(s -> pattern.matcher(s).matches(), code);
+    }
+
+    /**
+     * Lifts a rule about a part of a value to a rule about the whole value. Adjacent field rules over the same
+     * projection instance share one call to the projection when the rule is compiled.
+     *
+     * @param projection the part of the value
+     * @param rule       the rule the part must satisfy
+     * @param <A>        the type of the values
+     * @param <B>        the type of the part
+     * @return a new Rule
+     */
+    public static <A, B> Rule<A> field(Function<? super A, ? extends B> projection, Rule<B> rule) {
+        return new Field<>(projection, rule);
+    }
+
+    /**
+     * @param other the rule that must hold after this one
+     * @return a Rule that holds when both hold. The other rule is only checked if this one holds.
+     */
+    public Rule<A> and(Rule<A> other) {
+        return new And<>(List.of(this, other));
+    }
+
+    /**
+     * @param other the rule that must hold as well as this one
+     * @return a Rule that holds when both hold. Unlike <code>and()</code>, the other rule is checked even if this one
+     * does not hold, and the failures of both are reported, the way Bean Validation reports every violated constraint.
+     */
+    public Rule<A> andAlso(Rule<A> other) {
+        return new Every<>(List.of(this, other));
+    }
+
+    /**
+     * @param other the rule that is tried if this one does not hold
+     * @return a Rule that holds when either holds. If neither holds, the failure of the other rule is reported.
+     */
+    public Rule<A> or(Rule<A> other) {
+        return new Or<>(List.of(this, other));
+    }
+
+    /**
+     * @param code the code of the failure if this rule holds
+     * @return a Rule that holds when this one does not
+     */
+    public Rule<A> not(ErrorCode code) {
+        return new Not<>(this, Failure.of(code));
+    }
+
+    /**
+     * Compiles the rule into a single check. Compile once, and keep the result.
+     *
+     * @return the compiled rule
+     */
+    public CompiledRule<A> compile() {
+        return new CompiledRule<>(check(), null);
+    }
+
+    /**
+     * Compiles the rule into a single check with a name, which is reported when instrumentation is enabled.
+     *
+     * @param name the name of the compiled rule
+     * @return the compiled rule
+     */
+    public CompiledRule<A> compile(String name) {
+        return new CompiledRule<>(check(), name);
+    }
+
+    abstract CompiledRule.Check<A> check();
+
+    static final class Test<A> extends Rule<A> {
+
+        final Predicate<A> predicate;
+        final Failure failure;
+
+        Test(Predicate<A> predicate, Failure failure) {
+            this.predicate = predicate;
+            this.failure = failure;
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            return new CompiledRule.TestCheck<>(predicate, true, failure);
+        }
+    }
+
+    static final class NotNull<A> extends Rule<A> {
+
+        final Failure failure;
+
+        NotNull(Failure failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            return new CompiledRule.NotNullCheck<>(failure);
+        }
+    }
+
+    static final class Range<A> extends Rule<A> {
+
+        final ToIntFunction<? super A> projection;
+        final int[] lows;
+        final int[] highs;
+        final Failure[] failures;
+
+        Range(ToIntFunction<? super A> projection, int low, int high, Failure failure) {
+            this(projection, new int[]{low}, new int[]{high}, new Failure[]{failure});
+        }
+
+        private Range(ToIntFunction<? super A> projection, int[] lows, int[] highs, Failure[] failures) {
+            this.projection = projection;
+            this.lows = lows;
+            this.highs = highs;
+            this.failures = failures;
+        }
+
+        Range<A> merge(Range<A> other) {
+            int n = lows.length;
+            int[] ls = Arrays.copyOf(lows, n + other.lows.length);
+            int[] hs = Arrays.copyOf(highs, ls.length);
+            Failure[] fs = Arrays.copyOf(failures, ls.length);
+            System.arraycopy(other.lows, 0, ls, n, other.lows.length);
+            System.arraycopy(other.highs, 0, hs, n, other.highs.length);
+            System.arraycopy(other.failures, 0, fs, n, other.failures.length);
+            return new Range<>(projection, ls, hs, fs);
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            return new CompiledRule.RangeCheck<>(projection, lows, highs, failures);
+        }
+    }
+
+    static final class Field<A, B> extends Rule<A> {
+
+        final Function<? super A, ? extends B> projection;
+        final Rule<B> rule;
+
+        Field(Function<? super A, ? extends B> projection, Rule<B> rule) {
+            this.projection = projection;
+            this.rule = rule;
+        }
+
+        @SuppressWarnings("unchecked")
+        Field<A, B> merge(Field<A, ?> other) {
+            return new Field<>(projection, rule.and((Rule<B>) other.rule));
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            return new CompiledRule.FieldCheck<>(projection, rule.check());
+        }
+    }
+
+    static final class And<A> extends Rule<A> {
+
+        final List<Rule<A>> rules;
+
+        And(List<Rule<A>> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        CompiledRule.Check<A> check() {
+            List<Rule<A>> flat = new ArrayList<>();
+            flatten(this, flat);
+            List<Rule<A>> merged = new ArrayList<>();
+            for (Rule<A> rule : flat) {
+                Rule<A> last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last instanceof Range && rule instanceof Range && ((Range<A>) last).projection == ((Range<A>) rule).projection)
+                    merged.set(merged.size() - 1, ((Range<A>) last).merge((Range<A>) rule));
+                else if (last instanceof Field && rule instanceof Field && ((Field<A, ?>) last).projection == ((Field<A, ?>) rule).projection)
+                    merged.set(merged.size() - 1, ((Field<A, ?>) last).merge((Field<A, ?>) rule));
+                else
+                    merged.add(rule);
+            }
+            List<CompiledRule.Check<A>> checks = new ArrayList<>(merged.size());
+            for (Rule<A> rule : merged)
+                checks.add(rule.check());
+            return CompiledRule.all(checks);
+        }
+
+        private static <A> void flatten(Rule<A> rule, List<Rule<A>> flat) {
+            if (rule instanceof And)
+                for (Rule<A> r : ((And<A>) rule).rules)
+                    flatten(r, flat);
+            else
+                flat.add(rule);
+        }
+    }
+
+    static final class Every<A> extends Rule<A> {
+
+        final List<Rule<A>> rules;
+
+        Every(List<Rule<A>> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            List<Rule<A>> flat = new ArrayList<>();
+            flatten(this, flat);
+            List<CompiledRule.Check<A>> checks = new ArrayList<>(flat.size());
+            for (Rule<A> rule : flat)
+                checks.add(rule.check());
+            return new CompiledRule.EveryCheck<>(checks);
+        }
+
+        private static <A> void flatten(Rule<A> rule, List<Rule<A>> flat) {
+            if (rule instanceof Every)
+                for (Rule<A> r : ((Every<A>) rule).rules)
+                    flatten(r, flat);
+            else
+                flat.add(rule);
+        }
+    }
+
+    static final class Or<A> extends Rule<A> {
+
+        final List<Rule<A>> rules;
+
+        Or(List<Rule<A>> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        CompiledRule.Check<A> check() {
+            List<Rule<A>> flat = new ArrayList<>();
+            flatten(this, flat);
+            List<CompiledRule.Check<A>> checks = new ArrayList<>(flat.size());
+            for (Rule<A> rule : flat)
+                checks.add(rule.check());
+            return new CompiledRule.AnyCheck<>(checks);
+        }
+
+        private static <A> void flatten(Rule<A> rule, List<Rule<A>> flat) {
+            if (rule instanceof Or)
+                for (Rule<A> r : ((Or<A>) rule).rules)
+                    flatten(r, flat);
+            else
+                flat.add(rule);
+        }
+    }
+
+    static final class Not<A> extends Rule<A> {
+
+        final Rule<A> rule;
+        final Failure failure;
+
+        Not(Rule<A> rule, Failure failure) {
+            this.rule = rule;
+            this.failure = failure;
+        }
+
+        @Override
+        CompiledRule.Check<A> check() {
+            return
+              rule instanceof Test ?
+                new CompiledRule.TestCheck<>(((Test<A>) rule).predicate, false, failure) :
+                new CompiledRule.NotCheck<>(rule.check(), failure);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The steps of a Deferred or a Pipeline. The steps are kept as an immutable linked list, newest step first, so that
+ * adding a step never copies the previous ones. The first time the steps are run they are compiled into an array,
+ * where consecutive map steps are fused into one step. The compiled array is cached, and shared by all later runs.
+ * <br/>
+ * The interpreter is a loop with its own stack on the heap, so neither long chains of steps nor deeply nested Deferreds
+ * can overflow the call stack.
+ */
+final class Steps {
+
+    static final int MAP = 0;
+    static final int FLAT_MAP = 1;
+    static final int FLAT_MAP_DEFERRED = 2;
+    static final int RECOVER = 3;
+
+    static final Steps none = new Steps(null, -1, null);
+
+    private final Steps previous;
+    private final int kind;
+    private final Function<Object, Object> f;
+    private volatile Step[] compiled;
+
+    private Steps(Steps previous, int kind, Function<Object, Object> f) {
+        this.previous = previous;
+        this.kind = kind;
+        this.f = f;
+    }
+
+    @SuppressWarnings("unchecked")
+    Steps add(int kind, Function<?, ?> f) {
+        return new Steps(this, kind, (Function<Object, Object>) f);
+    }
+
+    /**
+     * Runs the steps on the result of the first validation.
+     */
+    @SuppressWarnings("unchecked")
+    <A> Validated<A> run(Validated<?> first) {
+        Validated<?> current = first;
+        Step[] steps = compile();
+        int index = 0;
+        Deque<Frame> frames = null;
+        while (true) {
+            if (index == steps.length) {
+                if (frames == null || frames.isEmpty())
+                    return (Validated<A>) current;
+                Frame frame = frames.pop();
+                steps = frame.steps;
+                index = frame.index;
+                continue;
+            }
+            Step step = steps[index++];
+            Chain<Failure> msgs = Validated.Invalid.msgsOf(current);
+            boolean valid = msgs == null;
+            switch (step.kind) {
+                case MAP:
+                    if (valid) {
+                        Object value = Validated.Valid.valueOf(current);
+                        for (Function<Object, Object> f : step.fs)
+                            value = f.apply(value);
+                        current = Validated.valid(value);
+                    }
+                    break;
+                case FLAT_MAP:
+                    if (valid)
+                        current = (Validated<?>) step.fs[0].apply(Validated.Valid.valueOf(current));
+                    break;
+                case FLAT_MAP_DEFERRED:
+                    if (valid) {
+                        Deferred<?> next = (Deferred<?>) step.fs[0].apply(Validated.Valid.valueOf(current));
+                        if (index < steps.length) {
+                            if (frames == null)
+                                frames = new ArrayDeque<>();
+                            frames.push(new Frame(steps, index));
+                        }
+                        current = next.source.get();
+                        steps = next.steps.compile();
+                        index = 0;
+                    }
+                    break;
+                case RECOVER:
+                    if (!valid)
+                        current = Validated.valid(step.fs[0].apply(Failure.messages(msgs)));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown step " + step.kind);
+            }
+        }
+    }
+
+    private Step[] compile() {
+        Step[] steps = compiled;
+        if (steps == null) {
+            steps = fuse();
+            compiled = steps;
+        }
+        return steps;
+    }
+
+    private Step[] fuse() {
+        ArrayList<Steps> inOrder = new ArrayList<>();
+        for (Steps s = this; s.previous != null; s = s.previous)
+            inOrder.add(s);
+        Collections.reverse(inOrder);
+
+        List<Step> fused = new ArrayList<>();
+        List<Function<Object, Object>> maps = new ArrayList<>();
+        for (Steps s : inOrder) {
+            if (s.kind == MAP) {
+                maps.add(s.f);
+                continue;
+            }
+            if (!maps.isEmpty()) {
+                fused.add(new Step(MAP, maps));
+                maps = new ArrayList<>();
+            }
+            fused.add(new Step(s.kind, Collections.singletonList(s.f)));
+        }
+        if (!maps.isEmpty())
+            fused.add(new Step(MAP, maps));
+        return fused.toArray(new Step[0]);
+    }
+
+    private static final class Step {
+
+        final int kind;
+        final Function<Object, Object>[] fs;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Step(int kind, List<Function<Object, Object>> fs) {
+            this.kind = kind;
+            this.fs = fs.toArray(new Function[0]);
+        }
+    }
+
+    private static final class Frame {
+
+        final Step[] steps;
+        final int index;
+
+        Frame(Step[] steps, int index) {
+            this.steps = steps;
+            this.index = index;
+        }
+    }
+}
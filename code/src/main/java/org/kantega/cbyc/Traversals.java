@@ -0,0 +1,103 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * The implementation of the traversals in Validated. Every message of an Invalid element is tagged with the index of
+ * the element, so that the messages of a large traversal can be traced back to the input.
+ */
+final class Traversals {
+
+    private Traversals() {
+    }
+
+    static <A, B> Validated<List<B>> traverse(Iterator<A> as, Function<A, Validated<B>> f) {
+        ArrayList<B> values = new ArrayList<>();
+        Chain<Failure> msgs = null;
+        int index = 0;
+        while (as.hasNext()) {
+            Validated<B> vb = f.apply(as.next());
+            Chain<Failure> bMsgs = Validated.Invalid.msgsOf(vb);
+            if (bMsgs != null)
+                msgs = Chain.append(msgs, tag(index, bMsgs));
+            else if (msgs == null)
+                values.add(Validated.Valid.valueOf(vb));
+            index++;
+        }
+        return
+          msgs == null ?
+            Validated.valid(Collections.unmodifiableList(values)) :
+            Validated.Invalid.of(msgs);
+    }
+
+    static <A, B> Validated<List<B>> parallelTraverse(List<A> as, Function<A, Validated<B>> f, ForkJoinPool pool) {
+        List<A> input = as instanceof RandomAccess ? as : new ArrayList<>(as);
+        Object[] values = new Object[input.size()];
+        int threshold = Math.max(1024, input.size() / (pool.getParallelism() * 8));
+        Chain<Failure> msgs = pool.invoke(new TraverseTask<>(input, f, values, 0, input.size(), threshold));
+        @SuppressWarnings("unchecked")
+        List<B> result = (List<B>) Collections.unmodifiableList(Arrays.asList(values));
+        return
+          msgs == null ?
+            Validated.valid(result) :
+            Validated.Invalid.of(msgs);
+    }
+
+    private static Chain<Failure> tag(int index, Chain<Failure> msgs) {
+        return msgs.map(failure -> Failure.of(ErrorCode.indexed, index, failure));
+    }
+
+    /**
+     * Validates a range of the input, writing the valid values into their own slots of the shared array. The messages
+     * of the two halves are appended in order, which keeps the result independent of how the input was split.
+     */
+    @SuppressWarnings("serial")
+    private static final class TraverseTask<A, B> extends RecursiveTask<Chain<Failure>> {
+
+        final List<A> input;
+        final Function<A, Validated<B>> f;
+        final Object[] values;
+        final int from;
+        final int to;
+        final int threshold;
+
+        TraverseTask(List<A> input, Function<A, Validated<B>> f, Object[] values, int from, int to, int threshold) {
+            this.input = input;
+            this.f = f;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Chain<Failure> compute() {
+            if (to - from <= threshold) {
+                Chain<Failure> msgs = null;
+                for (int i = from; i < to; i++) {
+                    Validated<B> vb = f.apply(input.get(i));
+                    Chain<Failure> bMsgs = Validated.Invalid.msgsOf(vb);
+                    if (bMsgs != null)
+                        msgs = Chain.append(msgs, tag(i, bMsgs));
+                    else
+                        values[i] = Validated.Valid.valueOf(vb);
+                }
+                return msgs;
+            }
+            int middle = (from + to) >>> 1;
+            TraverseTask<A, B> left = new TraverseTask<>(input, f, values, from, middle, threshold);
+            TraverseTask<A, B> right = new TraverseTask<>(input, f, values, middle, to, threshold);
+            left.fork();
+            Chain<Failure> rightMsgs = right.compute();
+            return Chain.append(left.join(), rightMsgs);
+        }
+    }
+}
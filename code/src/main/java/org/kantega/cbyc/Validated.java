@@ -1,12 +1,15 @@
 package org.kantega.cbyc;
 
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A Validated represents a value that has been validated. It can have one of two states. Either it is a Invalid or it is a Valid.
@@ -20,6 +23,8 @@ import java.util.function.Predicate;
  * <code>flatMap()</code> lets you validate a value that depends on another Validated
  * <br/>
  * <code>apply()</code> is like map(), but "inside" a Validated.
+ * <br/>
+ * <code>foldFailures()</code> is like fold(), but gives the structured {@link Failure}s instead of rendered messages.
  *
  * @param <A> the type of the value that is validated
  */
@@ -35,6 +40,19 @@ public interface Validated<A> {
      */
     <T> T fold(Function<List<String>, T> onInvalid, Function<A, T> onSuccess);
 
+    /**
+     * Lets the user introspect the state of the validated object, like <code>fold()</code>, but gives access to the
+     * structured failures instead of their rendered messages. No message text is created.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    default <T> T foldFailures(Function<List<Failure>, T> onInvalid, Function<A, T> onSuccess) {
+        return fold(msgs -> onInvalid.apply(Failure.literals(msgs).toList()), onSuccess);
+    }
+
     /**
      * If the Validated is Valid, then this method return a new Validated with the function applied to its contents. If the Validated is
      * Invalided, then it has no effect.
@@ -77,6 +95,32 @@ public interface Validated<A> {
           v->v
         );
     }
+
+    /**
+     * If the Validated is Valid, then returns the contained value. If not it returns the value of the supplier. Unlike
+     * <code>orElse()</code> the default value is only created if it is needed.
+     * @param defaultValue The supplier of the value to return if the Validated was a Invalid
+     * @return The valid value or the supplied default value.
+     */
+    default A orElseGet(Supplier<A> defaultValue){
+        return fold(
+          t->defaultValue.get(),
+          v->v
+        );
+    }
+
+    /**
+     * Turns an Invalid into a Valid by creating a value from its messages. The function is only called if this is
+     * a Invalid.
+     * @param f The function that creates a value from the messages
+     * @return this if it is Valid, or a Valid with the recovered value.
+     */
+    default Validated<A> recover(Function<List<String>, A> f){
+        return fold(
+          msgs->valid(f.apply(msgs)),
+          v->this
+        );
+    }
     /**
      * Creates a Validated that is Valid and contains the value.
      *
@@ -96,11 +140,83 @@ public interface Validated<A> {
      * @return a Validated that is in the Invalid state
      */
     static <A> Validated<A> invalid(String msg) {
-        List<String> list = new ArrayList<>();
-        list.add(msg);
-        return new Invalid<>(list);
+        return new Invalid<>(Chain.one(Failure.of(msg)));
+    }
+
+    /**
+     * Creates a Validated that is Invalid with a failure of the error code. The Invalid is shared by all callers, so
+     * this does not allocate.
+     *
+     * @param code The code of the failure
+     * @param <A>  the type of the validated value
+     * @return a Validated that is in the Invalid state
+     */
+    @SuppressWarnings("unchecked")
+    static <A> Validated<A> invalid(ErrorCode code) {
+        return (Validated<A>) code.invalid;
     }
 
+    /**
+     * Creates a Validated that is Invalid with a failure of the error code. The message is not rendered until it is
+     * asked for.
+     *
+     * @param code The code of the failure
+     * @param args The arguments of the message
+     * @param <A>  the type of the validated value
+     * @return a Validated that is in the Invalid state
+     */
+    static <A> Validated<A> invalid(ErrorCode code, Object... args) {
+        return args.length == 0 ? invalid(code) : new Invalid<>(Chain.one(Failure.of(code, args)));
+    }
+
+    /**
+     * Creates a Validated that is Invalid with the failure.
+     *
+     * @param failure The reason the validation failed
+     * @param <A>     the type of the validated value
+     * @return a Validated that is in the Invalid state
+     */
+    static <A> Validated<A> invalid(Failure failure) {
+        return new Invalid<>(Chain.one(failure));
+    }
+
+
+    /**
+     * Creates a Deferred validation, that is not run until it is folded. See {@link Deferred}.
+     *
+     * @param validation The validation to defer
+     * @param <A>        The type of the validated value
+     * @return a new Deferred
+     */
+    static <A> Deferred<A> defer(Supplier<Validated<A>> validation) {
+        return Deferred.of(validation);
+    }
+
+    /**
+     * Creates a Pipeline, a validation that is composed once and then applied to many inputs. See {@link Pipeline}.
+     *
+     * @param validation The first validation of the input
+     * @param <I>        The type of the input
+     * @param <A>        The type of the validated value
+     * @return a new Pipeline
+     */
+    static <I, A> Pipeline<I, A> pipeline(Function<I, Validated<A>> validation) {
+        return Pipeline.of(validation);
+    }
+
+    /**
+     * Wraps a validation in a bounded cache, so that validating an input that has been seen recently returns the
+     * cached result instead of running the validation again. The validation must be pure. See {@link Memoized}.
+     *
+     * @param validation The validation to memoize
+     * @param policy     How many results to keep, and for how long
+     * @param <A>        The type of the input
+     * @param <B>        The type of the validated value
+     * @return a memoized validation that is safe to share between threads
+     */
+    static <A, B> Memoized<A, B> memoize(Function<A, Validated<B>> validation, CachePolicy policy) {
+        return new Memoized<>(validation, policy);
+    }
 
     /**
      * Turns an Optional into a Validated with the supplied message if the Optional is empty
@@ -114,6 +230,23 @@ public interface Validated<A> {
         return optional.map(Validated::valid).orElseGet(() -> invalid(msg));
     }
 
+    /**
+     * Turns an Optional into a Validated with a failure of the error code if the Optional is empty.
+     * When instrumentation is enabled, it is reported with the name of the code, and a latency of zero.
+     *
+     * @param optional The optional to check
+     * @param code     the code of the failure if the optional is empty
+     * @param args     the arguments of the message
+     * @param <A>      the type of the validated object
+     * @return a new Validated
+     */
+    static <A> Validated<A> of(Optional<A> optional, ErrorCode code, Object... args) {
+        ValidationListener listener = Instrumentation.listener;
+        if (listener != null)
+            listener.onValidation(code.name, optional.isPresent(), 0);
+        return optional.isPresent() ? valid(optional.get()) : invalid(code, args);
+    }
+
 
 
     /**
@@ -131,6 +264,24 @@ public interface Validated<A> {
         return predicate.test(value) ? valid(value) : invalid(msg);
     }
 
+    /**
+     * Validates an object by applying it to the supplied predicate, like <code>validate(A, Predicate, String)</code>,
+     * but fails with the shared Invalid of the error code. When instrumentation is enabled, it is timed, and reported
+     * with the name of the code.
+     *
+     * @param value     The object to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @param <A>       the type of the object
+     * @return a Validated
+     */
+    static <A> Validated<A> validate(A value, Predicate<A> predicate, ErrorCode code) {
+        ValidationListener listener = Instrumentation.listener;
+        if (listener != null)
+            return Instrumentation.validate(listener, value, predicate, code);
+        return predicate.test(value) ? valid(value) : invalid(code);
+    }
+
     /**
      * Accumulates the values of two Validated values. If both are Valid, the values are applied to the provided function, returning
      * a Valid with the result of the application.
@@ -145,7 +296,7 @@ public interface Validated<A> {
      * @return a new Validated.
      */
     static <A, B, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Function<A, Function<B, T>> f) {
-        return vb.apply(va.map(f));
+        return accum(va, vb, (a, b) -> f.apply(a).apply(b));
     }
 
     /**
@@ -162,7 +313,11 @@ public interface Validated<A> {
      * @return a new Validated.
      */
     static <A, B, T> Validated<T> accum(Validated<A> va, Validated<B> vb, BiFunction<A, B, T> f) {
-        return accum(va, vb, a -> b -> f.apply(a, b));
+        Chain<Failure> msgs = Invalid.append(Invalid.msgsOf(va), vb);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
     }
 
     /**
@@ -177,21 +332,602 @@ public interface Validated<A> {
      * @return a new Validation.
      */
     static <A, B, T> Validated<T> accumBind(Validated<A> va, Validated<B> vb, Function<A, Function<B, Validated<T>>> f) {
-        return vb.apply(va.map(f)).flatMap(i->i);
+        Chain<Failure> msgs = Invalid.append(Invalid.msgsOf(va), vb);
+        return
+          msgs == null ?
+            f.apply(Valid.valueOf(va)).apply(Valid.valueOf(vb)) :
+            new Invalid<>(msgs);
     }
 
     static <A, B, C, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Function<A, Function<B, Function<C, T>>> f) {
-        return vc.apply(vb.apply(va.map(f)));
+        return accum(va, vb, vc, (a, b, c) -> f.apply(a).apply(b).apply(c));
     }
 
     static <A, B, C, D, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Function<A, Function<B, Function<C, Function<D, T>>>> f) {
-        return vd.apply(vc.apply(vb.apply(va.map(f))));
+        return accum(va, vb, vc, vd, (a, b, c, d) -> f.apply(a).apply(b).apply(c).apply(d));
     }
 
     static <A, B, C, D, E, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Function<A, Function<B, Function<C, Function<D, Function<E, T>>>>> f) {
-        return ve.apply(vd.apply(vc.apply(vb.apply(va.map(f)))));
+        return accum(va, vb, vc, vd, ve, (a, b, c, d, e) -> f.apply(a).apply(b).apply(c).apply(d).apply(e));
+    }
+
+    /**
+     * Accumulates the values of three Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Function3<A, B, C, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of four Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Function4<A, B, C, D, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of five Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Function5<A, B, C, D, E, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of six Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Function6<A, B, C, D, E, F, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of seven Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Function7<A, B, C, D, E, F, G, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of eight Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Function8<A, B, C, D, E, F, G, H, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of nine Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Function9<A, B, C, D, E, F, G, H, I, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of ten Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Function10<A, B, C, D, E, F, G, H, I, J, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of eleven Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Function11<A, B, C, D, E, F, G, H, I, J, K, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of twelve Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, L, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Validated<L> vl, Function12<A, B, C, D, E, F, G, H, I, J, K, L, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        msgs = Invalid.append(msgs, vl);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk), Valid.valueOf(vl))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of thirteen Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, L, M, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Validated<L> vl, Validated<M> vm, Function13<A, B, C, D, E, F, G, H, I, J, K, L, M, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        msgs = Invalid.append(msgs, vl);
+        msgs = Invalid.append(msgs, vm);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk), Valid.valueOf(vl), Valid.valueOf(vm))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of fourteen Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Validated<L> vl, Validated<M> vm, Validated<N> vn, Function14<A, B, C, D, E, F, G, H, I, J, K, L, M, N, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        msgs = Invalid.append(msgs, vl);
+        msgs = Invalid.append(msgs, vm);
+        msgs = Invalid.append(msgs, vn);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk), Valid.valueOf(vl), Valid.valueOf(vm), Valid.valueOf(vn))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of fifteen Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Validated<L> vl, Validated<M> vm, Validated<N> vn, Validated<O> vo, Function15<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        msgs = Invalid.append(msgs, vl);
+        msgs = Invalid.append(msgs, vm);
+        msgs = Invalid.append(msgs, vn);
+        msgs = Invalid.append(msgs, vo);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk), Valid.valueOf(vl), Valid.valueOf(vm), Valid.valueOf(vn), Valid.valueOf(vo))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates the values of sixteen Validated values. If all are Valid, the values are applied to the provided function,
+     * returning a Valid with the result. If any are Invalid, all their messages are accumulated into one Invalid.
+     * Every argument is inspected once, and no intermediate Validated is created.
+     *
+     * @return a new Validated.
+     */
+    static <A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> Validated<T> accum(Validated<A> va, Validated<B> vb, Validated<C> vc, Validated<D> vd, Validated<E> ve, Validated<F> vf, Validated<G> vg, Validated<H> vh, Validated<I> vi, Validated<J> vj, Validated<K> vk, Validated<L> vl, Validated<M> vm, Validated<N> vn, Validated<O> vo, Validated<P> vp, Function16<A, B, C, D, E, F, G, H, I, J, K, L, M, N, O, P, T> f) {
+        Chain<Failure> msgs = Invalid.msgsOf(va);
+        msgs = Invalid.append(msgs, vb);
+        msgs = Invalid.append(msgs, vc);
+        msgs = Invalid.append(msgs, vd);
+        msgs = Invalid.append(msgs, ve);
+        msgs = Invalid.append(msgs, vf);
+        msgs = Invalid.append(msgs, vg);
+        msgs = Invalid.append(msgs, vh);
+        msgs = Invalid.append(msgs, vi);
+        msgs = Invalid.append(msgs, vj);
+        msgs = Invalid.append(msgs, vk);
+        msgs = Invalid.append(msgs, vl);
+        msgs = Invalid.append(msgs, vm);
+        msgs = Invalid.append(msgs, vn);
+        msgs = Invalid.append(msgs, vo);
+        msgs = Invalid.append(msgs, vp);
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), Valid.valueOf(vb), Valid.valueOf(vc), Valid.valueOf(vd), Valid.valueOf(ve), Valid.valueOf(vf), Valid.valueOf(vg), Valid.valueOf(vh), Valid.valueOf(vi), Valid.valueOf(vj), Valid.valueOf(vk), Valid.valueOf(vl), Valid.valueOf(vm), Valid.valueOf(vn), Valid.valueOf(vo), Valid.valueOf(vp))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates a validated int and a Validated value, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the int.
+     *
+     * @param va  A validated int a
+     * @param vb  A validated value b
+     * @param f   the function that joins the values
+     * @param <B> the type of b
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <B, T> Validated<T> accum(ValidatedInt va, Validated<B> vb, ValidatedInt.IntObjFunction<B, T> f) {
+        Chain<Failure> msgs = Invalid.append(ValidatedInt.Invalid.msgsOf(va), vb);
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedInt.Valid.valueOf(va), Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
     }
 
+    /**
+     * Accumulates a Validated value and a validated int, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the int.
+     *
+     * @param va  A validated value a
+     * @param vb  A validated int b
+     * @param f   the function that joins the values
+     * @param <A> the type of a
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <A, T> Validated<T> accum(Validated<A> va, ValidatedInt vb, ValidatedInt.ObjIntFunction<A, T> f) {
+        Chain<Failure> msgs = Chain.append(Invalid.msgsOf(va), ValidatedInt.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), ValidatedInt.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates two validated ints, like <code>accum(Validated, Validated, BiFunction)</code>, without boxing them.
+     *
+     * @param va  A validated int a
+     * @param vb  A validated int b
+     * @param f   the function that joins the values
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <T> Validated<T> accum(ValidatedInt va, ValidatedInt vb, ValidatedInt.BiIntFunction<T> f) {
+        Chain<Failure> msgs = Chain.append(ValidatedInt.Invalid.msgsOf(va), ValidatedInt.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedInt.Valid.valueOf(va), ValidatedInt.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates a validated long and a Validated value, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the long.
+     *
+     * @param va  A validated long a
+     * @param vb  A validated value b
+     * @param f   the function that joins the values
+     * @param <B> the type of b
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <B, T> Validated<T> accum(ValidatedLong va, Validated<B> vb, ValidatedLong.LongObjFunction<B, T> f) {
+        Chain<Failure> msgs = Invalid.append(ValidatedLong.Invalid.msgsOf(va), vb);
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedLong.Valid.valueOf(va), Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates a Validated value and a validated long, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the long.
+     *
+     * @param va  A validated value a
+     * @param vb  A validated long b
+     * @param f   the function that joins the values
+     * @param <A> the type of a
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <A, T> Validated<T> accum(Validated<A> va, ValidatedLong vb, ValidatedLong.ObjLongFunction<A, T> f) {
+        Chain<Failure> msgs = Chain.append(Invalid.msgsOf(va), ValidatedLong.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), ValidatedLong.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates two validated longs, like <code>accum(Validated, Validated, BiFunction)</code>, without boxing them.
+     *
+     * @param va  A validated long a
+     * @param vb  A validated long b
+     * @param f   the function that joins the values
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <T> Validated<T> accum(ValidatedLong va, ValidatedLong vb, ValidatedLong.BiLongFunction<T> f) {
+        Chain<Failure> msgs = Chain.append(ValidatedLong.Invalid.msgsOf(va), ValidatedLong.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedLong.Valid.valueOf(va), ValidatedLong.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates a validated double and a Validated value, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the double.
+     *
+     * @param va  A validated double a
+     * @param vb  A validated value b
+     * @param f   the function that joins the values
+     * @param <B> the type of b
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <B, T> Validated<T> accum(ValidatedDouble va, Validated<B> vb, ValidatedDouble.DoubleObjFunction<B, T> f) {
+        Chain<Failure> msgs = Invalid.append(ValidatedDouble.Invalid.msgsOf(va), vb);
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedDouble.Valid.valueOf(va), Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates a Validated value and a validated double, like <code>accum(Validated, Validated, BiFunction)</code>, without
+     * boxing the double.
+     *
+     * @param va  A validated value a
+     * @param vb  A validated double b
+     * @param f   the function that joins the values
+     * @param <A> the type of a
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <A, T> Validated<T> accum(Validated<A> va, ValidatedDouble vb, ValidatedDouble.ObjDoubleFunction<A, T> f) {
+        Chain<Failure> msgs = Chain.append(Invalid.msgsOf(va), ValidatedDouble.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(Valid.valueOf(va), ValidatedDouble.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+    /**
+     * Accumulates two validated doubles, like <code>accum(Validated, Validated, BiFunction)</code>, without boxing them.
+     *
+     * @param va  A validated double a
+     * @param vb  A validated double b
+     * @param f   the function that joins the values
+     * @param <T> the return type of the provided function
+     * @return a new Validated.
+     */
+    static <T> Validated<T> accum(ValidatedDouble va, ValidatedDouble vb, ValidatedDouble.BiDoubleFunction<T> f) {
+        Chain<Failure> msgs = Chain.append(ValidatedDouble.Invalid.msgsOf(va), ValidatedDouble.Invalid.msgsOf(vb));
+        return
+          msgs == null ?
+            valid(f.apply(ValidatedDouble.Valid.valueOf(va), ValidatedDouble.Valid.valueOf(vb))) :
+            new Invalid<>(msgs);
+    }
+
+
+    /**
+     * Validates every element of the input with the supplied function. If all elements are Valid, the result is a Valid
+     * list of the validated values, in the same order as the input. If any are Invalid, all their messages are
+     * accumulated, each message tagged with the index of the element it came from.
+     *
+     * @param as  The elements to validate
+     * @param f   The validation of a single element
+     * @param <A> The type of the elements
+     * @param <B> The type of the validated values
+     * @return a Validated list
+     */
+    static <A, B> Validated<List<B>> traverse(Iterable<A> as, Function<A, Validated<B>> f) {
+        return Traversals.traverse(as.iterator(), f);
+    }
+
+    /**
+     * Validates every element of the stream with the supplied function, like <code>traverse(Iterable, Function)</code>.
+     * The stream is consumed in encounter order.
+     *
+     * @param as  The elements to validate
+     * @param f   The validation of a single element
+     * @param <A> The type of the elements
+     * @param <B> The type of the validated values
+     * @return a Validated list
+     */
+    static <A, B> Validated<List<B>> traverse(Stream<A> as, Function<A, Validated<B>> f) {
+        return Traversals.traverse(as.iterator(), f);
+    }
+
+    /**
+     * Turns a list of Validated values into a Validated list. The messages of every Invalid are accumulated and tagged
+     * with their index.
+     *
+     * @param vs  The Validated values
+     * @param <A> The type of the validated values
+     * @return a Validated list
+     */
+    static <A> Validated<List<A>> sequence(Iterable<Validated<A>> vs) {
+        return traverse(vs, v -> v);
+    }
+
+    /**
+     * Turns a stream of Validated values into a Validated list. The messages of every Invalid are accumulated and
+     * tagged with their index.
+     *
+     * @param vs  The Validated values
+     * @param <A> The type of the validated values
+     * @return a Validated list
+     */
+    static <A> Validated<List<A>> sequence(Stream<Validated<A>> vs) {
+        return traverse(vs, v -> v);
+    }
+
+    /**
+     * Validates every element of the input like <code>traverse()</code>, but splits large inputs into chunks that are
+     * validated in parallel in the common ForkJoinPool. The result keeps the order of the input.
+     * The validation function must be safe to call from several threads at once.
+     *
+     * @param as  The elements to validate
+     * @param f   The validation of a single element
+     * @param <A> The type of the elements
+     * @param <B> The type of the validated values
+     * @return a Validated list
+     */
+    static <A, B> Validated<List<B>> parallelTraverse(List<A> as, Function<A, Validated<B>> f) {
+        return parallelTraverse(as, f, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Validates every element of the input in parallel in the supplied pool, like
+     * <code>parallelTraverse(List, Function)</code>.
+     *
+     * @param as   The elements to validate
+     * @param f    The validation of a single element
+     * @param pool The pool that runs the validations
+     * @param <A>  The type of the elements
+     * @param <B>  The type of the validated values
+     * @return a Validated list
+     */
+    static <A, B> Validated<List<B>> parallelTraverse(List<A> as, Function<A, Validated<B>> f, ForkJoinPool pool) {
+        return Traversals.parallelTraverse(as, f, pool);
+    }
 
     /**
      * The class that represents the Valid state of a Validated.
@@ -206,10 +942,22 @@ public interface Validated<A> {
             this.value = value;
         }
 
+        /**
+         * Extracts the value of a Validated that is known to be Valid.
+         */
+        static <A> A valueOf(Validated<A> v) {
+            return v instanceof Valid ? ((Valid<A>) v).value : v.fold(msgs -> null, a -> a);
+        }
+
         public <T> T fold(Function<List<String>, T> onInvalid, Function<A, T> onSuccess) {
             return onSuccess.apply(value);
         }
 
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, Function<A, T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
         @Override
         public <B> Validated<B> map(Function<A, B> f) {
             return valid(f.apply(value));
@@ -224,10 +972,12 @@ public interface Validated<A> {
         @Override
         public <B> Validated<B> apply(Validated<Function<A, B>> vf) {
             return
-              vf.fold(
-                Invalid::new,
-                f -> valid(f.apply(value))
-              );
+              vf instanceof Invalid ?
+                new Invalid<>(((Invalid<?>) vf).msgs) :
+                vf.fold(
+                  msgs -> new Invalid<>(Failure.literals(msgs)),
+                  f -> valid(f.apply(value))
+                );
         }
 
         @Override
@@ -245,15 +995,56 @@ public interface Validated<A> {
      */
     class Invalid<A> implements Validated<A> {
 
-        final List<String> msgs;
+        final Chain<Failure> msgs;
 
-        private Invalid(List<String> msgs) {
+        //The messages in the default locale, rendered the first time someone asks for them
+        private volatile Rendered rendered;
+
+        private Invalid(Chain<Failure> msgs) {
             this.msgs = msgs;
         }
 
+        static <A> Validated<A> of(Chain<Failure> msgs) {
+            return new Invalid<>(msgs);
+        }
+
+        /**
+         * @return the messages of the Validated, or null if it is Valid.
+         */
+        static Chain<Failure> msgsOf(Validated<?> v) {
+            return v instanceof Invalid ? ((Invalid<?>) v).msgs : v.fold(Failure::literals, a -> null);
+        }
+
+        /**
+         * Appends the messages of the Validated to the accumulated messages, which may be null.
+         */
+        static Chain<Failure> append(Chain<Failure> msgs, Validated<?> v) {
+            return Chain.append(msgs, msgsOf(v));
+        }
+
 
         public <T> T fold(Function<List<String>, T> onInvalid, Function<A, T> onSuccess) {
-            return onInvalid.apply(msgs);
+            return onInvalid.apply(messages());
+        }
+
+        /**
+         * The messages are rendered once, and rendered again only if the default locale is changed, or a bundle is
+         * registered.
+         */
+        private List<String> messages() {
+            Locale locale = Messages.defaultLocale();
+            int generation = Messages.generation();
+            Rendered r = rendered;
+            if (r == null || r.generation != generation || !r.locale.equals(locale)) {
+                r = new Rendered(locale, generation, Failure.messages(msgs, locale));
+                rendered = r;
+            }
+            return r.messages;
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, Function<A, T> onSuccess) {
+            return onInvalid.apply(msgs.toList());
         }
 
         @Override
@@ -266,25 +1057,40 @@ public interface Validated<A> {
             return new Invalid<>(msgs);
         }
 
+        /**
+         * The messages of the function come first, so that accumulated messages appear in the same order as the
+         * arguments to accum. The messages are shared, not copied.
+         */
         @Override
         public <B> Validated<B> apply(Validated<Function<A, B>> vf) {
             return
-              vf.fold(
-                otherMsgs -> {
-                    List<String> newList = new ArrayList<>(msgs);
-                    msgs.addAll(otherMsgs);
-                    return new Invalid<>(newList);
-                },
-                s -> new Invalid<>(msgs)
-              );
+              vf instanceof Invalid ?
+                new Invalid<>(((Invalid<?>) vf).msgs.append(msgs)) :
+                vf.fold(
+                  otherMsgs -> new Invalid<>(Failure.literals(otherMsgs).append(msgs)),
+                  s -> new Invalid<>(msgs)
+                );
         }
 
         @Override
         public String toString() {
             return "Invalid{" +
-              "msgs=" + msgs +
+              "msgs=" + messages() +
               '}';
         }
+
+        private static final class Rendered {
+
+            final Locale locale;
+            final int generation;
+            final List<String> messages;
+
+            Rendered(Locale locale, int generation, List<String> messages) {
+                this.locale = locale;
+                this.generation = generation;
+                this.messages = messages;
+            }
+        }
     }
 
 }
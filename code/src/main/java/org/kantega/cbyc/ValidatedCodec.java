@@ -0,0 +1,513 @@
+package org.kantega.cbyc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact binary format for Validated results, for shipping them between services.
+ * <br/>
+ * A result starts with a tag byte. A Valid is followed by its value, written by a {@link ValueCodec}. An Invalid is
+ * followed by the number of failures, and for each failure a reference to its error code and its arguments. Numbers
+ * are varints, so small numbers take one byte.
+ * <br/>
+ * Error codes and strings are written once, and referred to by their index after that. A reference is a varint: 0
+ * means that a new entry follows and is added to the table, and n means entry n - 1. A code entry is the name and the
+ * default template of the code. When it is read, a code that is interned here is used as it is, with its local
+ * template. A code that is not known here is created for the stream, with the template that was sent, but it is not
+ * interned, so untrusted or changing streams cannot fill up the registry of codes. String
+ * arguments go through the same table as the names and templates, so a message that is repeated costs a byte or two.
+ * The tables hold at most 65536 entries. Later strings are written in full every time.
+ * <br/>
+ * Arguments that are strings, ints, longs, doubles, booleans or null keep their type. Other arguments are written as
+ * their <code>toString()</code>.
+ * <br/>
+ * <code>encode</code> and <code>decode</code> handle one result with its own tables. A {@link Writer} writes a stream of
+ * results to a channel, and a {@link Reader} iterates over a stream in a buffer. The stream shares one set of tables,
+ * so every code and message is only sent, and decoded, once. The Reader decodes straight from the buffer, which can be
+ * direct or memory mapped, and only creates the results one at a time.
+ * <br/>
+ * Input that is not in the format makes the decoding methods throw an IllegalArgumentException.
+ *
+ * @param <A> the type of the valid values
+ */
+public final class ValidatedCodec<A> {
+
+    static final byte validTag = 0;
+    static final byte invalidTag = 1;
+    static final int magic = 0x56430001;
+
+    private static final int maxEntries = 1 << 16;
+
+    private static final byte nullArg = 0;
+    private static final byte stringArg = 1;
+    private static final byte intArg = 2;
+    private static final byte longArg = 3;
+    private static final byte doubleArg = 4;
+    private static final byte trueArg = 5;
+    private static final byte falseArg = 6;
+
+    private final ValueCodec<A> values;
+
+    private ValidatedCodec(ValueCodec<A> values) {
+        this.values = values;
+    }
+
+    /**
+     * @param values the codec of the valid values
+     * @param <A>    the type of the valid values
+     * @return a codec for Validated values of the type
+     */
+    public static <A> ValidatedCodec<A> of(ValueCodec<A> values) {
+        return new ValidatedCodec<>(values);
+    }
+
+    /**
+     * Encodes one result into a new buffer.
+     *
+     * @param validated the result
+     * @return a heap buffer with the encoded result between its position and its limit
+     */
+    public ByteBuffer encode(Validated<A> validated) {
+        for (int size = 256; ; size *= 2) {
+            ByteBuffer out = ByteBuffer.allocate(size);
+            try {
+                encode(validated, out);
+                return out.flip();
+            } catch (BufferOverflowException e) {
+                if (size > Integer.MAX_VALUE / 4)
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * Encodes one result at the position of the buffer.
+     *
+     * @param validated the result
+     * @param out       the buffer
+     * @throws BufferOverflowException if the result does not fit
+     */
+    public void encode(Validated<A> validated, ByteBuffer out) {
+        write(validated, out, new Encoder());
+    }
+
+    /**
+     * Decodes one result from the position of the buffer, and leaves the position after it.
+     *
+     * @param in the buffer
+     * @return the result
+     * @throws IllegalArgumentException if the buffer does not hold an encoded result
+     */
+    public Validated<A> decode(ByteBuffer in) {
+        return read(in, new Decoder());
+    }
+
+    /**
+     * @param channel the channel the stream is written to
+     * @return a Writer that writes a stream of results to the channel, through a buffer of 64 kB
+     */
+    public Writer<A> writer(WritableByteChannel channel) {
+        return new Writer<>(this, channel, 1 << 16);
+    }
+
+    /**
+     * @param in a buffer with a stream of results, from the position to the limit, as written by a Writer
+     * @return a Reader that decodes the results one at a time
+     * @throws IllegalArgumentException if the buffer does not start with a stream header
+     */
+    public Reader<A> reader(ByteBuffer in) {
+        return new Reader<>(this, in);
+    }
+
+    private void write(Validated<A> validated, ByteBuffer out, Encoder encoder) {
+        if (validated instanceof Validated.Valid) {
+            out.put(validTag);
+            values.write(Validated.Valid.valueOf(validated), out);
+            return;
+        }
+        List<Failure> failures = Validated.Invalid.msgsOf(validated).toList();
+        out.put(invalidTag);
+        putVarint(out, failures.size());
+        for (Failure failure : failures) {
+            encoder.code(out, failure.code);
+            List<Object> args = failure.args();
+            putVarint(out, args.size());
+            for (Object arg : args)
+                encoder.arg(out, arg);
+        }
+    }
+
+    private Validated<A> read(ByteBuffer in, Decoder decoder) {
+        try {
+            byte tag = in.get();
+            if (tag == validTag)
+                return Validated.valid(values.read(in));
+            if (tag != invalidTag)
+                throw new IllegalArgumentException("Unknown tag " + tag + " at " + (in.position() - 1));
+            int n = items(in);
+            if (n == 0)
+                throw new IllegalArgumentException("An Invalid without failures at " + in.position());
+            List<Failure> failures = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                ErrorCode code = decoder.code(in);
+                int argc = items(in);
+                Object[] args = argc == 0 ? Failure.noArgs : new Object[argc];
+                for (int a = 0; a < argc; a++)
+                    args[a] = decoder.arg(in);
+                failures.add(argc == 0 ? code.failure : new Failure(code, args));
+            }
+            // A single failure without arguments is the shared Invalid of its code, which needs no allocation
+            return
+              n == 1 && failures.get(0) == failures.get(0).code.failure ?
+                Validated.invalid(failures.get(0).code) :
+                Validated.Invalid.of(Chain.ofAll(failures));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The result is cut short at " + in.position(), e);
+        }
+    }
+
+    /**
+     * The tables of the side that writes. An entry that is added while a result is written can be taken back, if the
+     * result did not fit in the buffer and is written again.
+     */
+    static final class Encoder {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringOrder = new ArrayList<>();
+        private final Map<ErrorCode, Integer> codes = new HashMap<>();
+        private final List<ErrorCode> codeOrder = new ArrayList<>();
+
+        void code(ByteBuffer out, ErrorCode code) {
+            Integer index = codes.get(code);
+            if (index != null) {
+                putVarint(out, index + 1);
+                return;
+            }
+            putVarint(out, 0);
+            string(out, code.name);
+            string(out, code.defaultTemplate);
+            if (codeOrder.size() < maxEntries) {
+                codes.put(code, codeOrder.size());
+                codeOrder.add(code);
+            }
+        }
+
+        void string(ByteBuffer out, String s) {
+            Integer index = strings.get(s);
+            if (index != null) {
+                putVarint(out, index + 1);
+                return;
+            }
+            putVarint(out, 0);
+            putString(out, s);
+            if (stringOrder.size() < maxEntries) {
+                strings.put(s, stringOrder.size());
+                stringOrder.add(s);
+            }
+        }
+
+        void arg(ByteBuffer out, Object arg) {
+            if (arg == null)
+                out.put(nullArg);
+            else if (arg instanceof Integer) {
+                out.put(intArg);
+                putVarint(out, zigzag((Integer) arg));
+            } else if (arg instanceof Long) {
+                out.put(longArg);
+                putVarint(out, zigzag((Long) arg));
+            } else if (arg instanceof Double) {
+                out.put(doubleArg);
+                out.putDouble((Double) arg);
+            } else if (arg instanceof Boolean)
+                out.put((Boolean) arg ? trueArg : falseArg);
+            else {
+                out.put(stringArg);
+                string(out, arg.toString());
+            }
+        }
+
+        long mark() {
+            return (long) stringOrder.size() << 32 | codeOrder.size();
+        }
+
+        void reset(long mark) {
+            int stringSize = (int) (mark >>> 32);
+            int codeSize = (int) mark;
+            while (stringOrder.size() > stringSize)
+                strings.remove(stringOrder.remove(stringOrder.size() - 1));
+            while (codeOrder.size() > codeSize)
+                codes.remove(codeOrder.remove(codeOrder.size() - 1));
+        }
+    }
+
+    /**
+     * The tables of the side that reads.
+     */
+    static final class Decoder {
+
+        private final List<String> strings = new ArrayList<>();
+        private final List<ErrorCode> codes = new ArrayList<>();
+
+        ErrorCode code(ByteBuffer in) {
+            int ref = length(in);
+            if (ref > 0) {
+                if (ref > codes.size())
+                    throw new IllegalArgumentException("Unknown error code " + ref + " at " + in.position());
+                return codes.get(ref - 1);
+            }
+            String name = string(in);
+            String template = string(in);
+            ErrorCode code = ErrorCode.lookup(name, template);
+            if (codes.size() < maxEntries)
+                codes.add(code);
+            return code;
+        }
+
+        String string(ByteBuffer in) {
+            int ref = length(in);
+            if (ref > 0) {
+                if (ref > strings.size())
+                    throw new IllegalArgumentException("Unknown string " + ref + " at " + in.position());
+                return strings.get(ref - 1);
+            }
+            String s = getString(in);
+            if (strings.size() < maxEntries)
+                strings.add(s);
+            return s;
+        }
+
+        Object arg(ByteBuffer in) {
+            byte type = in.get();
+            switch (type) {
+                case nullArg:
+                    return null;
+                case stringArg:
+                    return string(in);
+                case intArg:
+                    return (int) unzigzag(getVarint(in));
+                case longArg:
+                    return unzigzag(getVarint(in));
+                case doubleArg:
+                    return in.getDouble();
+                case trueArg:
+                    return Boolean.TRUE;
+                case falseArg:
+                    return Boolean.FALSE;
+                default:
+                    throw new IllegalArgumentException("Unknown argument type " + type + " at " + (in.position() - 1));
+            }
+        }
+    }
+
+    /**
+     * Writes a stream of results to a channel. The stream starts with a header, and the results share one set of
+     * tables. A Writer is not thread safe. Close it to flush the last results.
+     *
+     * @param <A> the type of the valid values
+     */
+    public static final class Writer<A> implements AutoCloseable {
+
+        private final ValidatedCodec<A> codec;
+        private final WritableByteChannel channel;
+        private final Encoder encoder = new Encoder();
+        private ByteBuffer buffer;
+
+        Writer(ValidatedCodec<A> codec, WritableByteChannel channel, int bufferSize) {
+            this.codec = codec;
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            buffer.putInt(magic);
+        }
+
+        /**
+         * Writes a result. It is buffered, and written to the channel when the buffer is full, or when the Writer is
+         * flushed or closed.
+         *
+         * @param validated the result
+         * @throws UncheckedIOException if the channel cannot be written
+         */
+        public void write(Validated<A> validated) {
+            while (true) {
+                int position = buffer.position();
+                long mark = encoder.mark();
+                try {
+                    codec.write(validated, buffer, encoder);
+                    return;
+                } catch (BufferOverflowException e) {
+                    buffer.position(position);
+                    encoder.reset(mark);
+                    if (position == 0)
+                        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    else
+                        flush();
+                }
+            }
+        }
+
+        /**
+         * Writes the buffered results to the channel.
+         *
+         * @throws UncheckedIOException if the channel cannot be written
+         */
+        public void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        /**
+         * Flushes the Writer and closes the channel.
+         */
+        @Override
+        public void close() {
+            flush();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Iterates over a stream of results in a buffer. Only the result that is returned by <code>next()</code> is
+     * created, so a stream of any size can be read from a memory mapped file. A Reader is not thread safe.
+     *
+     * @param <A> the type of the valid values
+     */
+    public static final class Reader<A> implements Iterator<Validated<A>> {
+
+        private final ValidatedCodec<A> codec;
+        private final ByteBuffer in;
+        private final Decoder decoder = new Decoder();
+
+        Reader(ValidatedCodec<A> codec, ByteBuffer in) {
+            this.codec = codec;
+            this.in = in;
+            if (in.remaining() < 4 || in.getInt() != magic)
+                throw new IllegalArgumentException("The buffer does not start with a stream of Validated results");
+        }
+
+        @Override
+        public boolean hasNext() {
+            return in.hasRemaining();
+        }
+
+        /**
+         * @return the next result
+         * @throws IllegalArgumentException if the stream is corrupt
+         */
+        @Override
+        public Validated<A> next() {
+            if (!in.hasRemaining())
+                throw new NoSuchElementException();
+            return codec.read(in, decoder);
+        }
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalArgumentException("A varint is longer than 10 bytes at " + in.position());
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a varint that is used as a length or a reference, which must fit in an int.
+     */
+    private static int length(ByteBuffer in) {
+        long n = getVarint(in);
+        if (n < 0 || n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("A length of " + n + " at " + in.position());
+        return (int) n;
+    }
+
+    /**
+     * Reads the number of failures or arguments that follow. Every one of them takes at least one byte, so a count
+     * that is larger than what is left of the buffer is rejected before anything is allocated for it.
+     */
+    private static int items(ByteBuffer in) {
+        int n = length(in);
+        if (n > in.remaining())
+            throw new IllegalArgumentException(n + " items at " + in.position() + ", but only " + in.remaining() + " bytes are left");
+        return n;
+    }
+
+    /**
+     * Writes a string as a varint length and UTF-8. ASCII strings are put byte by byte, without encoding them first.
+     */
+    static void putString(ByteBuffer out, String s) {
+        int n = s.length();
+        int i = 0;
+        while (i < n && s.charAt(i) < 0x80)
+            i++;
+        if (i == n) {
+            putVarint(out, n);
+            if (out.remaining() < n)
+                throw new BufferOverflowException();
+            for (int j = 0; j < n; j++)
+                out.put((byte) s.charAt(j));
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putVarint(out, bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    /**
+     * Reads a string from the buffer. A heap buffer is decoded in place. The bytes of a direct buffer are copied into
+     * a byte array first, since a String cannot be decoded from anything else.
+     */
+    static String getString(ByteBuffer in) {
+        int n = length(in);
+        if (n > in.remaining())
+            throw new IllegalArgumentException("A string of " + n + " bytes at " + in.position() + " runs past the end");
+        String s;
+        if (in.hasArray())
+            s = new String(in.array(), in.arrayOffset() + in.position(), n, StandardCharsets.UTF_8);
+        else {
+            byte[] bytes = new byte[n];
+            in.duplicate().get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + n);
+        return s;
+    }
+}
@@ -0,0 +1,213 @@
+package org.kantega.cbyc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Collectors for streams of Validated values. All collectors can be used with parallel streams, every thread
+ * accumulates into its own container, and the containers are combined in encounter order.
+ * <br/>
+ * Every collector can be given a maximum number of messages to keep. Messages beyond the limit are counted, and
+ * reported as one final message that tells how many were omitted.
+ */
+public final class ValidatedCollectors {
+
+    private ValidatedCollectors() {
+    }
+
+    /**
+     * Collects a stream of Validated values into a Validated list. If all are Valid, the list contains all the values
+     * in encounter order. If any are Invalid, all their messages are accumulated.
+     *
+     * @param <A> the type of the validated values
+     * @return a Collector
+     */
+    public static <A> Collector<Validated<A>, ?, Validated<List<A>>> toValidatedList() {
+        return toValidatedList(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Collects a stream of Validated values into a Validated list, keeping at most maxMessages messages.
+     *
+     * @param maxMessages the maximum number of messages to keep
+     * @param <A>         the type of the validated values
+     * @return a Collector
+     */
+    public static <A> Collector<Validated<A>, ?, Validated<List<A>>> toValidatedList(int maxMessages) {
+        return validValues(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList), maxMessages);
+    }
+
+    /**
+     * Passes the values of the Valid elements straight on to the downstream collector, without buffering them.
+     * If any element is Invalid, the result is an Invalid with all the messages, and the downstream collector is no
+     * longer fed.
+     *
+     * @param downstream the collector of the valid values
+     * @param <A>        the type of the validated values
+     * @param <R>        the result of the downstream collector
+     * @return a Collector
+     */
+    public static <A, R> Collector<Validated<A>, ?, Validated<R>> validValues(Collector<A, ?, R> downstream) {
+        return validValues(downstream, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Passes the values of the Valid elements straight on to the downstream collector like
+     * <code>validValues(Collector)</code>, keeping at most maxMessages messages.
+     *
+     * @param downstream  the collector of the valid values
+     * @param maxMessages the maximum number of messages to keep
+     * @param <A>         the type of the validated values
+     * @param <R>         the result of the downstream collector
+     * @return a Collector
+     */
+    public static <A, R> Collector<Validated<A>, ?, Validated<R>> validValues(Collector<A, ?, R> downstream, int maxMessages) {
+        return downstreamCollector(downstream, maxMessages);
+    }
+
+    /**
+     * Splits a stream of Validated values into the valid values and the messages of the invalid ones.
+     *
+     * @param <A> the type of the validated values
+     * @return a Collector
+     */
+    public static <A> Collector<Validated<A>, ?, Partition<A>> partitioning() {
+        return partitioning(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits a stream of Validated values into the valid values and the messages of the invalid ones, keeping at most
+     * maxMessages messages.
+     *
+     * @param maxMessages the maximum number of messages to keep
+     * @param <A>         the type of the validated values
+     * @return a Collector
+     */
+    public static <A> Collector<Validated<A>, ?, Partition<A>> partitioning(int maxMessages) {
+        return Collector.of(
+          () -> new PartitionContainer<A>(maxMessages),
+          PartitionContainer::add,
+          PartitionContainer::combine,
+          PartitionContainer::finish
+        );
+    }
+
+    private static <A, D, R> Collector<Validated<A>, ?, Validated<R>> downstreamCollector(Collector<A, D, R> downstream, int maxMessages) {
+        Supplier<D> supplier = downstream.supplier();
+        BiConsumer<D, A> accumulator = downstream.accumulator();
+        BinaryOperator<D> combiner = downstream.combiner();
+        Function<D, R> finisher = downstream.finisher();
+        return Collector.<Validated<A>, DownstreamContainer<D>, Validated<R>>of(
+          () -> new DownstreamContainer<>(supplier.get(), maxMessages),
+          (container, va) -> {
+              Chain<Failure> msgs = Validated.Invalid.msgsOf(va);
+              if (msgs != null)
+                  container.buffer.add(msgs);
+              else if (container.buffer.isEmpty())
+                  accumulator.accept(container.state, Validated.Valid.valueOf(va));
+          },
+          (left, right) -> {
+              left.buffer.combine(right.buffer);
+              if (left.buffer.isEmpty())
+                  left.state = combiner.apply(left.state, right.state);
+              return left;
+          },
+          container ->
+            container.buffer.isEmpty() ?
+              Validated.valid(finisher.apply(container.state)) :
+              Validated.Invalid.of(container.buffer.toChain())
+        );
+    }
+
+    /**
+     * The result of partitioning a stream of Validated values.
+     *
+     * @param <A> the type of the validated values
+     */
+    public static final class Partition<A> {
+
+        /**
+         * The values of the Valid elements, in encounter order.
+         */
+        public final List<A> valid;
+
+        /**
+         * The messages of the Invalid elements, in encounter order. If messages were omitted, the last message tells
+         * how many.
+         */
+        public final List<String> messages;
+
+        /**
+         * The number of Invalid elements.
+         */
+        public final long invalidCount;
+
+        Partition(List<A> valid, List<String> messages, long invalidCount) {
+            this.valid = valid;
+            this.messages = messages;
+            this.invalidCount = invalidCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Partition{" +
+              "valid=" + valid +
+              ", messages=" + messages +
+              ", invalidCount=" + invalidCount +
+              '}';
+        }
+    }
+
+    private static final class DownstreamContainer<D> {
+
+        D state;
+        final MessageBuffer buffer;
+
+        DownstreamContainer(D state, int maxMessages) {
+            this.state = state;
+            this.buffer = new MessageBuffer(maxMessages);
+        }
+    }
+
+    private static final class PartitionContainer<A> {
+
+        final ArrayList<A> valid = new ArrayList<>();
+        final MessageBuffer buffer;
+        long invalidCount;
+
+        PartitionContainer(int maxMessages) {
+            this.buffer = new MessageBuffer(maxMessages);
+        }
+
+        void add(Validated<A> va) {
+            Chain<Failure> msgs = Validated.Invalid.msgsOf(va);
+            if (msgs != null) {
+                buffer.add(msgs);
+                invalidCount++;
+            } else
+                valid.add(Validated.Valid.valueOf(va));
+        }
+
+        PartitionContainer<A> combine(PartitionContainer<A> other) {
+            valid.addAll(other.valid);
+            buffer.combine(other.buffer);
+            invalidCount += other.invalidCount;
+            return this;
+        }
+
+        Partition<A> finish() {
+            Chain<Failure> msgs = buffer.toChain();
+            return new Partition<>(
+              Collections.unmodifiableList(valid),
+              msgs == null ? Collections.emptyList() : Failure.messages(msgs),
+              invalidCount);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.kantega.cbyc;
+
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A ValidatedDouble is a Validated that holds a double, without boxing it. It can be Valid, with a double value, or Invalid,
+ * with a nonempty list of messages, just like a Validated.
+ * <br/>
+ * <code>validate()</code> checks a double with a DoublePredicate, and <code>mapToObj()</code> turns the double into a domain
+ * object. <code>Validated.accum()</code> has overloads that mix ValidatedDoubles with other Validated values.
+ */
+public interface ValidatedDouble {
+
+    /**
+     * Lets the user introspect the state of the validated double.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    <T> T fold(Function<List<String>, T> onInvalid, DoubleFunction<T> onSuccess);
+
+    /**
+     * Lets the user introspect the state of the validated double, like <code>fold()</code>, but gives access to the
+     * structured failures instead of their rendered messages.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    default <T> T foldFailures(Function<List<Failure>, T> onInvalid, DoubleFunction<T> onSuccess) {
+        return fold(msgs -> onInvalid.apply(Failure.literals(msgs).toList()), onSuccess);
+    }
+
+    /**
+     * Applies the function to the value if this is Valid.
+     *
+     * @param f The transformation function
+     * @return a new ValidatedDouble that contains the transformed value, or the original failure.
+     */
+    ValidatedDouble map(DoubleUnaryOperator f);
+
+    /**
+     * Turns the value into an object if this is Valid, typically a domain object.
+     *
+     * @param f   The function that creates the object
+     * @param <A> the type of the object
+     * @return a Validated that contains the object, or the original failure.
+     */
+    <A> Validated<A> mapToObj(DoubleFunction<A> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f the function that applies a new validation
+     * @return either a new validation based on this one, or the original failure.
+     */
+    ValidatedDouble flatMap(DoubleFunction<ValidatedDouble> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f   the function that applies a new validation
+     * @param <A> the type of the value the next validation validates
+     * @return either a new validation based on this one, or the original failure.
+     */
+    <A> Validated<A> flatMapToObj(DoubleFunction<Validated<A>> f);
+
+    /**
+     * @return a Validated that contains the boxed value, or the original failure.
+     */
+    default Validated<Double> boxed() {
+        return mapToObj(Double::valueOf);
+    }
+
+    /**
+     * If the ValidatedDouble is Valid, then returns the contained value. If not it return the provided default value.
+     *
+     * @param defaultValue The value to return of the ValidatedDouble was a Invalid
+     * @return The valid value or the default value.
+     */
+    default double orElse(double defaultValue) {
+        return fold(
+          t -> defaultValue,
+          v -> v
+        );
+    }
+
+    /**
+     * If the ValidatedDouble is Valid, then returns the contained value. If not it returns the value of the supplier.
+     *
+     * @param defaultValue The supplier of the value to return if the ValidatedDouble was a Invalid
+     * @return The valid value or the supplied default value.
+     */
+    default double orElseGet(DoubleSupplier defaultValue) {
+        return fold(
+          t -> defaultValue.getAsDouble(),
+          v -> v
+        );
+    }
+
+    /**
+     * Creates a ValidatedDouble that is Valid and contains the value.
+     *
+     * @param value The value the Valid contains
+     * @return A ValidatedDouble that is Valid
+     */
+    static ValidatedDouble valid(double value) {
+        return new Valid(value);
+    }
+
+    /**
+     * Creates a ValidatedDouble that is Invalid and contains the message.
+     *
+     * @param msg The reason message
+     * @return a ValidatedDouble that is in the Invalid state
+     */
+    static ValidatedDouble invalid(String msg) {
+        return new Invalid(Chain.one(Failure.of(msg)));
+    }
+
+    /**
+     * Returns the ValidatedDouble that is Invalid with a failure of the error code. There is one per code, so this does
+     * not allocate.
+     *
+     * @param code The code of the failure
+     * @return a ValidatedDouble that is in the Invalid state
+     */
+    static ValidatedDouble invalid(ErrorCode code) {
+        ValidatedDouble invalid = code.invalidDouble;
+        if (invalid == null)
+            code.invalidDouble = invalid = new Invalid(Validated.Invalid.msgsOf(code.invalid));
+        return invalid;
+    }
+
+    /**
+     * Creates a ValidatedDouble that is Invalid with a failure of the error code.
+     *
+     * @param code The code of the failure
+     * @param args The arguments of the message
+     * @return a ValidatedDouble that is in the Invalid state
+     */
+    static ValidatedDouble invalid(ErrorCode code, Object... args) {
+        return args.length == 0 ? invalid(code) : new Invalid(Chain.one(Failure.of(code, args)));
+    }
+
+    /**
+     * Unboxes a Validated Double.
+     *
+     * @param validated The Validated to unbox
+     * @return a ValidatedDouble with the same state
+     */
+    static ValidatedDouble of(Validated<Double> validated) {
+        Chain<Failure> msgs = Validated.Invalid.msgsOf(validated);
+        return msgs == null ? valid(Validated.Valid.valueOf(validated)) : new Invalid(msgs);
+    }
+
+    /**
+     * Validates a double by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param msg       The message if the predicate does not hold
+     * @return a ValidatedDouble
+     */
+    static ValidatedDouble validate(double value, DoublePredicate predicate, String msg) {
+        return predicate.test(value) ? valid(value) : invalid(msg);
+    }
+
+    /**
+     * Validates a double by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @return a ValidatedDouble
+     */
+    static ValidatedDouble validate(double value, DoublePredicate predicate, ErrorCode code) {
+        return predicate.test(value) ? valid(value) : invalid(code);
+    }
+
+    /**
+     * Validates a double by applying it to the supplied predicate, and creates an object from it if the predicate holds.
+     * Like <code>validate(value, predicate, code).mapToObj(f)</code>, but without the intermediate ValidatedDouble, so a
+     * check that passes allocates nothing but the object and its Valid.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @param f         The function that creates the object
+     * @param <A>       the type of the object
+     * @return a Validated
+     */
+    static <A> Validated<A> validate(double value, DoublePredicate predicate, ErrorCode code, DoubleFunction<A> f) {
+        return predicate.test(value) ? Validated.valid(f.apply(value)) : Validated.invalid(code);
+    }
+
+    /**
+     * A function of a double and an object, used by <code>Validated.accum()</code>.
+     *
+     * @param <B> the type of argument 2
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface DoubleObjFunction<B, T> {
+
+        T apply(double a, B b);
+    }
+
+    /**
+     * A function of an object and a double, used by <code>Validated.accum()</code>.
+     *
+     * @param <A> the type of argument 1
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface ObjDoubleFunction<A, T> {
+
+        T apply(A a, double b);
+    }
+
+    /**
+     * A function of two doubles, used by <code>Validated.accum()</code>.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface BiDoubleFunction<T> {
+
+        T apply(double a, double b);
+    }
+
+    /**
+     * The class that represents the Valid state of a ValidatedDouble.
+     */
+    final class Valid implements ValidatedDouble {
+
+        final double value;
+
+        private Valid(double value) {
+            this.value = value;
+        }
+
+        /**
+         * Extracts the value of a ValidatedDouble that is known to be Valid.
+         */
+        static double valueOf(ValidatedDouble v) {
+            return v instanceof Valid ? ((Valid) v).value : v.fold(msgs -> 0.0, a -> a);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, DoubleFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, DoubleFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public ValidatedDouble map(DoubleUnaryOperator f) {
+            return valid(f.applyAsDouble(value));
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(DoubleFunction<A> f) {
+            return Validated.valid(f.apply(value));
+        }
+
+        @Override
+        public ValidatedDouble flatMap(DoubleFunction<ValidatedDouble> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(DoubleFunction<Validated<A>> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public double orElse(double defaultValue) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "Valid{" +
+              "value=" + value +
+              '}';
+        }
+    }
+
+    /**
+     * The class the represents the Invalid state of a ValidatedDouble.
+     */
+    final class Invalid implements ValidatedDouble {
+
+        final Chain<Failure> msgs;
+
+        private Invalid(Chain<Failure> msgs) {
+            this.msgs = msgs;
+        }
+
+        /**
+         * @return the messages of the ValidatedDouble, or null if it is Valid.
+         */
+        static Chain<Failure> msgsOf(ValidatedDouble v) {
+            return v instanceof Invalid ? ((Invalid) v).msgs : v.fold(Failure::literals, a -> null);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, DoubleFunction<T> onSuccess) {
+            return onInvalid.apply(Failure.messages(msgs));
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, DoubleFunction<T> onSuccess) {
+            return onInvalid.apply(msgs.toList());
+        }
+
+        @Override
+        public ValidatedDouble map(DoubleUnaryOperator f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(DoubleFunction<A> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public ValidatedDouble flatMap(DoubleFunction<ValidatedDouble> f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(DoubleFunction<Validated<A>> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public String toString() {
+            return "Invalid{" +
+              "msgs=" + msgs +
+              '}';
+        }
+    }
+}
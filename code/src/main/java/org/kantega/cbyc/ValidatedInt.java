@@ -0,0 +1,369 @@
+package org.kantega.cbyc;
+
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A ValidatedInt is a Validated that holds an int, without boxing it. It can be Valid, with an int value, or Invalid,
+ * with a nonempty list of messages, just like a Validated.
+ * <br/>
+ * <code>validate()</code> checks an int with an IntPredicate, and <code>mapToObj()</code> turns the int into a domain
+ * object. The Valid states of small values, from -128 to 1023, are shared, so a check of such a value that passes
+ * allocates nothing at all. <code>Validated.accum()</code> has overloads that mix ValidatedInts with other Validated
+ * values.
+ */
+public interface ValidatedInt {
+
+    /**
+     * Lets the user introspect the state of the validated int.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    <T> T fold(Function<List<String>, T> onInvalid, IntFunction<T> onSuccess);
+
+    /**
+     * Lets the user introspect the state of the validated int, like <code>fold()</code>, but gives access to the
+     * structured failures instead of their rendered messages.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    default <T> T foldFailures(Function<List<Failure>, T> onInvalid, IntFunction<T> onSuccess) {
+        return fold(msgs -> onInvalid.apply(Failure.literals(msgs).toList()), onSuccess);
+    }
+
+    /**
+     * Applies the function to the value if this is Valid.
+     *
+     * @param f The transformation function
+     * @return a new ValidatedInt that contains the transformed value, or the original failure.
+     */
+    ValidatedInt map(IntUnaryOperator f);
+
+    /**
+     * Turns the value into an object if this is Valid, typically a domain object.
+     *
+     * @param f   The function that creates the object
+     * @param <A> the type of the object
+     * @return a Validated that contains the object, or the original failure.
+     */
+    <A> Validated<A> mapToObj(IntFunction<A> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f the function that applies a new validation
+     * @return either a new validation based on this one, or the original failure.
+     */
+    ValidatedInt flatMap(IntFunction<ValidatedInt> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f   the function that applies a new validation
+     * @param <A> the type of the value the next validation validates
+     * @return either a new validation based on this one, or the original failure.
+     */
+    <A> Validated<A> flatMapToObj(IntFunction<Validated<A>> f);
+
+    /**
+     * @return a Validated that contains the boxed value, or the original failure.
+     */
+    default Validated<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    /**
+     * If the ValidatedInt is Valid, then returns the contained value. If not it return the provided default value.
+     *
+     * @param defaultValue The value to return of the ValidatedInt was a Invalid
+     * @return The valid value or the default value.
+     */
+    default int orElse(int defaultValue) {
+        return fold(
+          t -> defaultValue,
+          v -> v
+        );
+    }
+
+    /**
+     * If the ValidatedInt is Valid, then returns the contained value. If not it returns the value of the supplier.
+     *
+     * @param defaultValue The supplier of the value to return if the ValidatedInt was a Invalid
+     * @return The valid value or the supplied default value.
+     */
+    default int orElseGet(IntSupplier defaultValue) {
+        return fold(
+          t -> defaultValue.getAsInt(),
+          v -> v
+        );
+    }
+
+    /**
+     * Creates a ValidatedInt that is Valid and contains the value.
+     *
+     * @param value The value the Valid contains
+     * @return A ValidatedInt that is Valid
+     */
+    static ValidatedInt valid(int value) {
+        return
+          value >= Valid.cacheLow && value <= Valid.cacheHigh ?
+            Valid.cache[value - Valid.cacheLow] :
+            new Valid(value);
+    }
+
+    /**
+     * Creates a ValidatedInt that is Invalid and contains the message.
+     *
+     * @param msg The reason message
+     * @return a ValidatedInt that is in the Invalid state
+     */
+    static ValidatedInt invalid(String msg) {
+        return new Invalid(Chain.one(Failure.of(msg)));
+    }
+
+    /**
+     * Returns the ValidatedInt that is Invalid with a failure of the error code. There is one per code, so this does
+     * not allocate.
+     *
+     * @param code The code of the failure
+     * @return a ValidatedInt that is in the Invalid state
+     */
+    static ValidatedInt invalid(ErrorCode code) {
+        ValidatedInt invalid = code.invalidInt;
+        if (invalid == null)
+            code.invalidInt = invalid = new Invalid(Validated.Invalid.msgsOf(code.invalid));
+        return invalid;
+    }
+
+    /**
+     * Creates a ValidatedInt that is Invalid with a failure of the error code.
+     *
+     * @param code The code of the failure
+     * @param args The arguments of the message
+     * @return a ValidatedInt that is in the Invalid state
+     */
+    static ValidatedInt invalid(ErrorCode code, Object... args) {
+        return args.length == 0 ? invalid(code) : new Invalid(Chain.one(Failure.of(code, args)));
+    }
+
+    /**
+     * Unboxes a Validated Integer.
+     *
+     * @param validated The Validated to unbox
+     * @return a ValidatedInt with the same state
+     */
+    static ValidatedInt of(Validated<Integer> validated) {
+        Chain<Failure> msgs = Validated.Invalid.msgsOf(validated);
+        return msgs == null ? valid(Validated.Valid.valueOf(validated)) : new Invalid(msgs);
+    }
+
+    /**
+     * Validates an int by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param msg       The message if the predicate does not hold
+     * @return a ValidatedInt
+     */
+    static ValidatedInt validate(int value, IntPredicate predicate, String msg) {
+        return predicate.test(value) ? valid(value) : invalid(msg);
+    }
+
+    /**
+     * Validates an int by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @return a ValidatedInt
+     */
+    static ValidatedInt validate(int value, IntPredicate predicate, ErrorCode code) {
+        return predicate.test(value) ? valid(value) : invalid(code);
+    }
+
+    /**
+     * Validates an int by applying it to the supplied predicate, and creates an object from it if the predicate holds.
+     * Like <code>validate(value, predicate, code).mapToObj(f)</code>, but without the intermediate ValidatedInt, so a
+     * check that passes allocates nothing but the object and its Valid.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @param f         The function that creates the object
+     * @param <A>       the type of the object
+     * @return a Validated
+     */
+    static <A> Validated<A> validate(int value, IntPredicate predicate, ErrorCode code, IntFunction<A> f) {
+        return predicate.test(value) ? Validated.valid(f.apply(value)) : Validated.invalid(code);
+    }
+
+    /**
+     * A function of an int and an object, used by <code>Validated.accum()</code>.
+     *
+     * @param <B> the type of argument 2
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface IntObjFunction<B, T> {
+
+        T apply(int a, B b);
+    }
+
+    /**
+     * A function of an object and an int, used by <code>Validated.accum()</code>.
+     *
+     * @param <A> the type of argument 1
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface ObjIntFunction<A, T> {
+
+        T apply(A a, int b);
+    }
+
+    /**
+     * A function of two ints, used by <code>Validated.accum()</code>.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface BiIntFunction<T> {
+
+        T apply(int a, int b);
+    }
+
+    /**
+     * The class that represents the Valid state of a ValidatedInt.
+     */
+    final class Valid implements ValidatedInt {
+
+        static final int cacheLow = -128;
+        static final int cacheHigh = 1023;
+        static final Valid[] cache = new Valid[cacheHigh - cacheLow + 1];
+
+        static {
+            for (int i = 0; i < cache.length; i++)
+                cache[i] = new Valid(cacheLow + i);
+        }
+
+        final int value;
+
+        private Valid(int value) {
+            this.value = value;
+        }
+
+        /**
+         * Extracts the value of a ValidatedInt that is known to be Valid.
+         */
+        static int valueOf(ValidatedInt v) {
+            return v instanceof Valid ? ((Valid) v).value : v.fold(msgs -> 0, a -> a);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, IntFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, IntFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public ValidatedInt map(IntUnaryOperator f) {
+            return valid(f.applyAsInt(value));
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(IntFunction<A> f) {
+            return Validated.valid(f.apply(value));
+        }
+
+        @Override
+        public ValidatedInt flatMap(IntFunction<ValidatedInt> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(IntFunction<Validated<A>> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public int orElse(int defaultValue) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "Valid{" +
+              "value=" + value +
+              '}';
+        }
+    }
+
+    /**
+     * The class the represents the Invalid state of a ValidatedInt.
+     */
+    final class Invalid implements ValidatedInt {
+
+        final Chain<Failure> msgs;
+
+        private Invalid(Chain<Failure> msgs) {
+            this.msgs = msgs;
+        }
+
+        /**
+         * @return the messages of the ValidatedInt, or null if it is Valid.
+         */
+        static Chain<Failure> msgsOf(ValidatedInt v) {
+            return v instanceof Invalid ? ((Invalid) v).msgs : v.fold(Failure::literals, a -> null);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, IntFunction<T> onSuccess) {
+            return onInvalid.apply(Failure.messages(msgs));
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, IntFunction<T> onSuccess) {
+            return onInvalid.apply(msgs.toList());
+        }
+
+        @Override
+        public ValidatedInt map(IntUnaryOperator f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(IntFunction<A> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public ValidatedInt flatMap(IntFunction<ValidatedInt> f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(IntFunction<Validated<A>> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public String toString() {
+            return "Invalid{" +
+              "msgs=" + msgs +
+              '}';
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.kantega.cbyc;
+
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A ValidatedLong is a Validated that holds a long, without boxing it. It can be Valid, with a long value, or Invalid,
+ * with a nonempty list of messages, just like a Validated.
+ * <br/>
+ * <code>validate()</code> checks a long with a LongPredicate, and <code>mapToObj()</code> turns the long into a domain
+ * object. The Valid states of small values, from -128 to 1023, are shared, so a check of such a value that passes
+ * allocates nothing at all. <code>Validated.accum()</code> has overloads that mix ValidatedLongs with other Validated
+ * values.
+ */
+public interface ValidatedLong {
+
+    /**
+     * Lets the user introspect the state of the validated long.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    <T> T fold(Function<List<String>, T> onInvalid, LongFunction<T> onSuccess);
+
+    /**
+     * Lets the user introspect the state of the validated long, like <code>fold()</code>, but gives access to the
+     * structured failures instead of their rendered messages.
+     *
+     * @param onInvalid The function that is called if this is a Invalid
+     * @param onSuccess The function that is called if this i a Valid
+     * @param <T>       The returned type
+     * @return The result of the corresponding function that has been applied
+     */
+    default <T> T foldFailures(Function<List<Failure>, T> onInvalid, LongFunction<T> onSuccess) {
+        return fold(msgs -> onInvalid.apply(Failure.literals(msgs).toList()), onSuccess);
+    }
+
+    /**
+     * Applies the function to the value if this is Valid.
+     *
+     * @param f The transformation function
+     * @return a new ValidatedLong that contains the transformed value, or the original failure.
+     */
+    ValidatedLong map(LongUnaryOperator f);
+
+    /**
+     * Turns the value into an object if this is Valid, typically a domain object.
+     *
+     * @param f   The function that creates the object
+     * @param <A> the type of the object
+     * @return a Validated that contains the object, or the original failure.
+     */
+    <A> Validated<A> mapToObj(LongFunction<A> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f the function that applies a new validation
+     * @return either a new validation based on this one, or the original failure.
+     */
+    ValidatedLong flatMap(LongFunction<ValidatedLong> f);
+
+    /**
+     * Applies the given validation to the value if this is a Valid and returns the result.
+     *
+     * @param f   the function that applies a new validation
+     * @param <A> the type of the value the next validation validates
+     * @return either a new validation based on this one, or the original failure.
+     */
+    <A> Validated<A> flatMapToObj(LongFunction<Validated<A>> f);
+
+    /**
+     * @return a Validated that contains the boxed value, or the original failure.
+     */
+    default Validated<Long> boxed() {
+        return mapToObj(Long::valueOf);
+    }
+
+    /**
+     * If the ValidatedLong is Valid, then returns the contained value. If not it return the provided default value.
+     *
+     * @param defaultValue The value to return of the ValidatedLong was a Invalid
+     * @return The valid value or the default value.
+     */
+    default long orElse(long defaultValue) {
+        return fold(
+          t -> defaultValue,
+          v -> v
+        );
+    }
+
+    /**
+     * If the ValidatedLong is Valid, then returns the contained value. If not it returns the value of the supplier.
+     *
+     * @param defaultValue The supplier of the value to return if the ValidatedLong was a Invalid
+     * @return The valid value or the supplied default value.
+     */
+    default long orElseGet(LongSupplier defaultValue) {
+        return fold(
+          t -> defaultValue.getAsLong(),
+          v -> v
+        );
+    }
+
+    /**
+     * Creates a ValidatedLong that is Valid and contains the value.
+     *
+     * @param value The value the Valid contains
+     * @return A ValidatedLong that is Valid
+     */
+    static ValidatedLong valid(long value) {
+        return
+          value >= Valid.cacheLow && value <= Valid.cacheHigh ?
+            Valid.cache[(int) value - Valid.cacheLow] :
+            new Valid(value);
+    }
+
+    /**
+     * Creates a ValidatedLong that is Invalid and contains the message.
+     *
+     * @param msg The reason message
+     * @return a ValidatedLong that is in the Invalid state
+     */
+    static ValidatedLong invalid(String msg) {
+        return new Invalid(Chain.one(Failure.of(msg)));
+    }
+
+    /**
+     * Returns the ValidatedLong that is Invalid with a failure of the error code. There is one per code, so this does
+     * not allocate.
+     *
+     * @param code The code of the failure
+     * @return a ValidatedLong that is in the Invalid state
+     */
+    static ValidatedLong invalid(ErrorCode code) {
+        ValidatedLong invalid = code.invalidLong;
+        if (invalid == null)
+            code.invalidLong = invalid = new Invalid(Validated.Invalid.msgsOf(code.invalid));
+        return invalid;
+    }
+
+    /**
+     * Creates a ValidatedLong that is Invalid with a failure of the error code.
+     *
+     * @param code The code of the failure
+     * @param args The arguments of the message
+     * @return a ValidatedLong that is in the Invalid state
+     */
+    static ValidatedLong invalid(ErrorCode code, Object... args) {
+        return args.length == 0 ? invalid(code) : new Invalid(Chain.one(Failure.of(code, args)));
+    }
+
+    /**
+     * Unboxes a Validated Long.
+     *
+     * @param validated The Validated to unbox
+     * @return a ValidatedLong with the same state
+     */
+    static ValidatedLong of(Validated<Long> validated) {
+        Chain<Failure> msgs = Validated.Invalid.msgsOf(validated);
+        return msgs == null ? valid(Validated.Valid.valueOf(validated)) : new Invalid(msgs);
+    }
+
+    /**
+     * Validates a long by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param msg       The message if the predicate does not hold
+     * @return a ValidatedLong
+     */
+    static ValidatedLong validate(long value, LongPredicate predicate, String msg) {
+        return predicate.test(value) ? valid(value) : invalid(msg);
+    }
+
+    /**
+     * Validates a long by applying it to the supplied predicate. The value is not boxed.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @return a ValidatedLong
+     */
+    static ValidatedLong validate(long value, LongPredicate predicate, ErrorCode code) {
+        return predicate.test(value) ? valid(value) : invalid(code);
+    }
+
+    /**
+     * Validates a long by applying it to the supplied predicate, and creates an object from it if the predicate holds.
+     * Like <code>validate(value, predicate, code).mapToObj(f)</code>, but without the intermediate ValidatedLong, so a
+     * check that passes allocates nothing but the object and its Valid.
+     *
+     * @param value     The value to validate
+     * @param predicate The predicate that must hold
+     * @param code      The code of the failure if the predicate does not hold
+     * @param f         The function that creates the object
+     * @param <A>       the type of the object
+     * @return a Validated
+     */
+    static <A> Validated<A> validate(long value, LongPredicate predicate, ErrorCode code, LongFunction<A> f) {
+        return predicate.test(value) ? Validated.valid(f.apply(value)) : Validated.invalid(code);
+    }
+
+    /**
+     * A function of a long and an object, used by <code>Validated.accum()</code>.
+     *
+     * @param <B> the type of argument 2
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface LongObjFunction<B, T> {
+
+        T apply(long a, B b);
+    }
+
+    /**
+     * A function of an object and a long, used by <code>Validated.accum()</code>.
+     *
+     * @param <A> the type of argument 1
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface ObjLongFunction<A, T> {
+
+        T apply(A a, long b);
+    }
+
+    /**
+     * A function of two longs, used by <code>Validated.accum()</code>.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface BiLongFunction<T> {
+
+        T apply(long a, long b);
+    }
+
+    /**
+     * The class that represents the Valid state of a ValidatedLong.
+     */
+    final class Valid implements ValidatedLong {
+
+        static final int cacheLow = -128;
+        static final int cacheHigh = 1023;
+        static final Valid[] cache = new Valid[cacheHigh - cacheLow + 1];
+
+        static {
+            for (int i = 0; i < cache.length; i++)
+                cache[i] = new Valid(cacheLow + i);
+        }
+
+        final long value;
+
+        private Valid(long value) {
+            this.value = value;
+        }
+
+        /**
+         * Extracts the value of a ValidatedLong that is known to be Valid.
+         */
+        static long valueOf(ValidatedLong v) {
+            return v instanceof Valid ? ((Valid) v).value : v.fold(msgs -> 0L, a -> a);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, LongFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, LongFunction<T> onSuccess) {
+            return onSuccess.apply(value);
+        }
+
+        @Override
+        public ValidatedLong map(LongUnaryOperator f) {
+            return valid(f.applyAsLong(value));
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(LongFunction<A> f) {
+            return Validated.valid(f.apply(value));
+        }
+
+        @Override
+        public ValidatedLong flatMap(LongFunction<ValidatedLong> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(LongFunction<Validated<A>> f) {
+            return f.apply(value);
+        }
+
+        @Override
+        public long orElse(long defaultValue) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "Valid{" +
+              "value=" + value +
+              '}';
+        }
+    }
+
+    /**
+     * The class the represents the Invalid state of a ValidatedLong.
+     */
+    final class Invalid implements ValidatedLong {
+
+        final Chain<Failure> msgs;
+
+        private Invalid(Chain<Failure> msgs) {
+            this.msgs = msgs;
+        }
+
+        /**
+         * @return the messages of the ValidatedLong, or null if it is Valid.
+         */
+        static Chain<Failure> msgsOf(ValidatedLong v) {
+            return v instanceof Invalid ? ((Invalid) v).msgs : v.fold(Failure::literals, a -> null);
+        }
+
+        public <T> T fold(Function<List<String>, T> onInvalid, LongFunction<T> onSuccess) {
+            return onInvalid.apply(Failure.messages(msgs));
+        }
+
+        @Override
+        public <T> T foldFailures(Function<List<Failure>, T> onInvalid, LongFunction<T> onSuccess) {
+            return onInvalid.apply(msgs.toList());
+        }
+
+        @Override
+        public ValidatedLong map(LongUnaryOperator f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> mapToObj(LongFunction<A> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public ValidatedLong flatMap(LongFunction<ValidatedLong> f) {
+            return this;
+        }
+
+        @Override
+        public <A> Validated<A> flatMapToObj(LongFunction<Validated<A>> f) {
+            return Validated.Invalid.of(msgs);
+        }
+
+        @Override
+        public String toString() {
+            return "Invalid{" +
+              "msgs=" + msgs +
+              '}';
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.kantega.cbyc;
+
+/**
+ * Is told about every named validation, when it is installed with <code>Instrumentation.install</code>.
+ * <br/>
+ * A listener is called on the thread that validated, right after the validation, so it must be thread safe and fast.
+ * {@link InMemoryMetrics} counts the validations and records their latency, and {@link JfrListener} emits them as
+ * Flight Recorder events.
+ */
+public interface ValidationListener {
+
+    /**
+     * @param name  the name of the validation, like the name of its error code or of its compiled rule
+     * @param valid true if the value was valid
+     * @param nanos how long the validation took, in nanoseconds
+     */
+    void onValidation(String name, boolean valid, long nanos);
+}
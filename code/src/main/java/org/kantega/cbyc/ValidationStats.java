@@ -0,0 +1,52 @@
+package org.kantega.cbyc;
+
+/**
+ * A snapshot of the metrics of one named validation, from {@link InMemoryMetrics}.
+ */
+public final class ValidationStats {
+
+    /**
+     * The name of the validation.
+     */
+    public final String name;
+
+    /**
+     * The number of values that were valid.
+     */
+    public final long passed;
+
+    /**
+     * The number of values that were invalid.
+     */
+    public final long failed;
+
+    /**
+     * The latency of the validations, in nanoseconds.
+     */
+    public final LatencyHistogram.Snapshot latency;
+
+    ValidationStats(String name, long passed, long failed, LatencyHistogram.Snapshot latency) {
+        this.name = name;
+        this.passed = passed;
+        this.failed = failed;
+        this.latency = latency;
+    }
+
+    /**
+     * @return the fraction of the validations that failed, or 0 if there have been none.
+     */
+    public double failureRate() {
+        long calls = passed + failed;
+        return calls == 0 ? 0.0 : (double) failed / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationStats{" +
+          "name=" + name +
+          ", passed=" + passed +
+          ", failed=" + failed +
+          ", latency=" + latency +
+          '}';
+    }
+}
@@ -0,0 +1,60 @@
+package org.kantega.cbyc;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Writes the values of Valid results for a {@link ValidatedCodec}, and reads them back.
+ * <br/>
+ * <code>write</code> puts the value at the position of the buffer, and may throw a BufferOverflowException if it does
+ * not fit. The codec then resets the buffer and tries again with more room. <code>read</code> reads the value from the
+ * position of the buffer, and must leave the position right after it. Reading should use the buffer directly, not copy
+ * it, so that the codec stays zero-copy over direct and memory mapped buffers.
+ *
+ * @param <A> the type of the values
+ */
+public interface ValueCodec<A> {
+
+    void write(A value, ByteBuffer out);
+
+    A read(ByteBuffer in);
+
+    /**
+     * Creates a codec from two functions.
+     */
+    static <A> ValueCodec<A> of(BiConsumer<A, ByteBuffer> write, Function<ByteBuffer, A> read) {
+        return new ValueCodec<A>() {
+            @Override
+            public void write(A value, ByteBuffer out) {
+                write.accept(value, out);
+            }
+
+            @Override
+            public A read(ByteBuffer in) {
+                return read.apply(in);
+            }
+        };
+    }
+
+    /**
+     * @return a codec for strings, as a varint length and UTF-8
+     */
+    static ValueCodec<String> utf8() {
+        return of((s, out) -> ValidatedCodec.putString(out, s), ValidatedCodec::getString);
+    }
+
+    /**
+     * @return a codec for ints, as zigzag varints, so that small negative numbers are small too
+     */
+    static ValueCodec<Integer> int32() {
+        return of((i, out) -> ValidatedCodec.putVarint(out, ValidatedCodec.zigzag(i)), in -> (int) ValidatedCodec.unzigzag(ValidatedCodec.getVarint(in)));
+    }
+
+    /**
+     * @return a codec for longs, as zigzag varints
+     */
+    static ValueCodec<Long> int64() {
+        return of((l, out) -> ValidatedCodec.putVarint(out, ValidatedCodec.zigzag(l)), in -> ValidatedCodec.unzigzag(ValidatedCodec.getVarint(in)));
+    }
+}
@@ -1,8 +1,11 @@
 package org.kantega.cbc.testless._1beanvalidation;
 
+import org.kantega.cbyc.GenerateValidated;
+
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
 
+@GenerateValidated
 public class ContactInfo {
 
     @Email
@@ -1,5 +1,7 @@
 package org.kantega.cbc.testless._1beanvalidation;
 
+import org.kantega.cbyc.BeanValidation;
+
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
@@ -36,6 +38,28 @@ public class Example1 {
         System.out.println(feilConstraintViolations);
 
 
+        //Med BeanValidation deles en Validator, og bruddene blir til en Validated
+        BeanValidation beanValidation =
+          BeanValidation.builder().warmUp(ContactInfo.class).build();
+
+        System.out.println(beanValidation.validate(contactInfo));
+        System.out.println(beanValidation.validate(feilContactInfo));
+
+
+        //De samme annotasjonene kan også kompileres til en smart constructor,
+        //ContactInfoValidated, som ikke trenger noen Validator
+        System.out.println(ContactInfoValidated.of("ola.normann@test.org"));
+        System.out.println(ContactInfoValidated.of("ola.normann_test"));
+
 
+        //Grensen til @DecimalMin er ikke med, så 0 er ugyldig. NaN er ugyldig
+        //for alle tallbegrensninger, og uendelig er større enn alle grenser.
+        //Alle begrensningene som brytes rapporteres, så NaN gir to feil,
+        //akkurat som i Hibernate Validator
+        System.out.println(MeasurementValidated.of(12.5));
+        System.out.println(MeasurementValidated.of(0));
+        System.out.println(MeasurementValidated.of(Double.NaN));
+        System.out.println(MeasurementValidated.of(Double.POSITIVE_INFINITY));
+        System.out.println(validator.validate(new Measurement(Double.NaN)));
     }
 }
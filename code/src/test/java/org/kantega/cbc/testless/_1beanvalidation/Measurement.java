@@ -0,0 +1,29 @@
+package org.kantega.cbc.testless._1beanvalidation;
+
+import org.kantega.cbyc.GenerateValidated;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+
+@GenerateValidated
+public class Measurement {
+
+    @DecimalMin(value = "0", inclusive = false)
+    @Max(1000)
+    private final double value;
+
+    public Measurement(double value) {
+        this.value = value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "Measurement{" +
+          "value=" + value +
+          '}';
+    }
+}
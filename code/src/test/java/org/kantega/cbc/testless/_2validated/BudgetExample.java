@@ -0,0 +1,61 @@
+package org.kantega.cbc.testless._2validated;
+
+import org.kantega.cbyc.ErrorBudget;
+import org.kantega.cbyc.Validated;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class BudgetExample {
+
+    public static void main(String[] args) {
+        AtomicInteger calls = new AtomicInteger();
+
+        //Alle valideringene kjøres, og alle feilene samles
+        Validated<String> all =
+          ErrorBudget.all().accum(
+            counted(calls, () -> EmailAddress.of("ola.normann_test.com")),
+            counted(calls, () -> Phonenumber.of("abcdefghij")),
+            counted(calls, () -> EmailAddress.of("kari.normann_test.com")),
+            (email, phone, other) -> email + " " + phone + " " + other
+          );
+
+        //Skriver ut tre feilmeldinger, og at tre valideringer ble kjørt
+        System.out.println(all);
+        System.out.println(calls.getAndSet(0) + " valideringer ble kjørt");
+
+        //Stopper ved første feil, de to siste valideringene kjøres aldri
+        Validated<String> failFast =
+          ErrorBudget.failFast().accum(
+            counted(calls, () -> EmailAddress.of("ola.normann_test.com")),
+            counted(calls, () -> Phonenumber.of("abcdefghij")),
+            counted(calls, () -> EmailAddress.of("kari.normann_test.com")),
+            (email, phone, other) -> email + " " + phone + " " + other
+          );
+
+        //Skriver ut den første feilen, og en melding om at to valideringer ble hoppet over
+        System.out.println(failFast);
+        System.out.println(calls.getAndSet(0) + " validering ble kjørt");
+
+        //Stopper når to feil er samlet
+        Validated<String> max =
+          ErrorBudget.max(2).accum(
+            counted(calls, () -> EmailAddress.of("ola.normann@test.com")),
+            counted(calls, () -> Phonenumber.of("abcdefghij")),
+            counted(calls, () -> EmailAddress.of("kari.normann_test.com")),
+            counted(calls, () -> Phonenumber.of("ukjent")),
+            (email, phone, other, otherPhone) -> email + " " + phone + " " + other + " " + otherPhone
+          );
+
+        //Skriver ut to feilmeldinger og at én validering ble hoppet over
+        System.out.println(max);
+        System.out.println(calls.getAndSet(0) + " valideringer ble kjørt");
+    }
+
+    static <A> Supplier<Validated<A>> counted(AtomicInteger calls, Supplier<Validated<A>> validation) {
+        return () -> {
+            calls.incrementAndGet();
+            return validation.get();
+        };
+    }
+}
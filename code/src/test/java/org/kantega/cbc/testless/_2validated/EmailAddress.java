@@ -1,10 +1,13 @@
 package org.kantega.cbc.testless._2validated;
 
-import org.apache.commons.validator.routines.EmailValidator;
+import org.kantega.cbyc.EmailSyntax;
+import org.kantega.cbyc.ErrorCode;
 import org.kantega.cbyc.Validated;
 
 public class EmailAddress {
 
+    public static final ErrorCode formatError = ErrorCode.of("email.format", "Feil format");
+
     final String value;
 
     private EmailAddress(String value) {
@@ -13,9 +16,9 @@ public class EmailAddress {
 
     public static Validated<EmailAddress> of(String value) {
         return
-          EmailValidator.getInstance().isValid(value) ?
+          EmailSyntax.isValid(value) ?
             Validated.valid(new EmailAddress(value)) :
-            Validated.invalid("Feil format");
+            Validated.invalid(formatError);
     }
 
     @Override
@@ -1,7 +1,13 @@
 package org.kantega.cbc.testless._2validated;
 
+import org.kantega.cbyc.FailureStats;
 import org.kantega.cbyc.Validated;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 public class Example2 {
 
     public static void main(String[] args) {
@@ -25,5 +31,26 @@ public class Example2 {
 
         //Skriver ut feilmelding
         System.out.println(invalidInfo);
+
+        //Teller hvorfor valideringene feiler i en stor import, med fast minnebruk,
+        //og tar vare på noen eksempler på input for hver feil
+        FailureStats<String[]> stats =
+          IntStream.range(0, 100_000)
+            .parallel()
+            .mapToObj(i -> new String[]{"ola" + i + (i % 4 == 0 ? "_test.com" : "@test.com"), i % 7 == 0 ? "ukjent" : String.valueOf(i)})
+            .collect(FailureStats.<String[]>builder().top(5).samples(3).collector(row ->
+              Validated.accum(EmailAddress.of(row[0]), Phonenumber.of(row[1]), ContactInfo::new)));
+
+        //Skriver ut de vanligste feilene
+        for (FailureStats.Reason<String[]> reason : stats.top())
+            System.out.println(reason.key + ": " + reason.count() + " " + reason.samples().stream().map(Arrays::toString).collect(Collectors.toList()));
+
+        //Feilene fra traverse sier hvilken indeks som feilet, men telles under
+        //feilen inni, så hver ugyldig e-postadresse i listen teller for email.format
+        FailureStats<List<String>> listStats = FailureStats.<List<String>>builder().top(5).build();
+        List<String> emails = List.of("ola@test.com", "kari_test.com", "per_test.com", "pål_test.com");
+        listStats.add(emails, Validated.traverse(emails, EmailAddress::of));
+        for (FailureStats.Reason<List<String>> reason : listStats.top())
+            System.out.println(reason.key + ": " + reason.count());
     }
 }
@@ -0,0 +1,41 @@
+package org.kantega.cbc.testless._2validated;
+
+import org.kantega.cbyc.CachePolicy;
+import org.kantega.cbyc.Memoized;
+import org.kantega.cbyc.Validated;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoizeExample {
+
+    public static void main(String[] args) throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+
+        //Husker de 64 sist brukte resultatene, i 200 millisekunder
+        Memoized<String, EmailAddress> email =
+          Validated.memoize(
+            value -> {
+                calls.incrementAndGet();
+                return EmailAddress.of(value);
+            },
+            CachePolicy.maximumSize(64).expireAfterWrite(Duration.ofMillis(200)));
+
+        //Den andre runden finner alle resultatene i cachen, også feilene
+        for (int round = 0; round < 2; round++)
+            for (int i = 0; i < 50; i++)
+                email.apply(i % 5 == 0 ? "ola" + i + "_test.com" : "ola" + i + "@test.com");
+        System.out.println(calls.getAndSet(0) + " valideringer, " + email.stats());
+
+        //Nye adresser skyver de eldste ut av cachen
+        for (int i = 50; i < 100; i++)
+            email.apply("ola" + i + "@test.com");
+        System.out.println(calls.getAndSet(0) + " valideringer, " + email.stats());
+
+        //Etter 200 millisekunder er resultatene utløpt, og valideres på nytt
+        Thread.sleep(250);
+        for (int i = 90; i < 100; i++)
+            email.apply("ola" + i + "@test.com");
+        System.out.println(calls.getAndSet(0) + " valideringer, " + email.stats());
+    }
+}
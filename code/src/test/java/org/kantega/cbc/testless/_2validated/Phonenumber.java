@@ -1,33 +1,83 @@
 package org.kantega.cbc.testless._2validated;
 
-import fj.Digit;
-import fj.data.List;
-import fj.data.NonEmptyList;
-import fj.data.Option;
-import fj.data.Stream;
+import org.kantega.cbyc.ErrorCode;
 import org.kantega.cbyc.Validated;
 
 public class Phonenumber {
 
-    final NonEmptyList<Digit> digits;
+    public static final ErrorCode digitsError = ErrorCode.of("phonenumber.digits", "Feil format på input, det må være minst ett tall");
 
-    private Phonenumber(NonEmptyList<Digit> digits) {
-        this.digits = digits;
+    //Plass til 16 sifre i en long, fire bit per siffer
+    static final int packedDigits = 16;
+
+    //De første 16 sifrene, det første sifferet i de høyeste bitene som er i bruk
+    final long packed;
+
+    //Sifrene etter de første 16, to sifre per byte, eller null om det ikke er flere
+    final byte[] overflow;
+
+    final int length;
+
+    private Phonenumber(long packed, byte[] overflow, int length) {
+        this.packed = packed;
+        this.overflow = overflow;
+        this.length = length;
     }
 
+    /**
+     * Leser sifrene i én gjennomgang av strengen, og lagrer dem pakket. Alt som ikke er et siffer hoppes over, men det
+     * må være minst ett siffer. Ingenting allokeres underveis, og bare nummer med mer enn 16 sifre trenger en ekstra
+     * tabell.
+     */
     public static Validated<Phonenumber> of(String numberAsString) {
+        long packed = 0;
+        byte[] overflow = null;
+        int length = 0;
+        for (int i = 0, n = numberAsString.length(); i < n; i++) {
+            int digit = numberAsString.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                continue;
+            if (length < packedDigits)
+                packed = (packed << 4) | digit;
+            else {
+                int index = length - packedDigits;
+                if (overflow == null)
+                    overflow = new byte[(n - i + 1) / 2];
+                overflow[index >> 1] |= (index & 1) == 0 ? digit << 4 : digit;
+            }
+            length++;
+        }
 
-        List<Digit> digitList = Option.somes(Stream.fromString(numberAsString).map(Digit::fromChar)).toList();
+        return length == 0 ?
+          Validated.invalid(digitsError) :
+          Validated.valid(new Phonenumber(packed, overflow, length));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int digitAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + ", length " + length);
+        if (index < packedDigits)
+            return (int) (packed >>> ((Math.min(length, packedDigits) - 1 - index) * 4)) & 0xf;
+        int overflowIndex = index - packedDigits;
+        int b = overflow[overflowIndex >> 1];
+        return (overflowIndex & 1) == 0 ? (b >> 4) & 0xf : b & 0xf;
+    }
 
-        return digitList.isEmpty() ?
-          Validated.invalid("Feil format på input, det må være minst ett tall") :
-          Validated.valid(new Phonenumber(NonEmptyList.nel(digitList.head(), digitList.tail())));
+    public String digits() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = (char) ('0' + digitAt(i));
+        return new String(chars);
     }
 
     @Override
     public String toString() {
         return "Phonenumber{" +
-          "digits=" + digits +
+          "digits=" + digits() +
           '}';
     }
 }
@@ -0,0 +1,646 @@
+package org.kantega.cbc.testless._3confirm;
+
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Validated;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Kontaktinformasjon i minnet, slått opp på id. Laget for titalls millioner kontakter, med et forutsigbart minnebruk.
+ * <br/>
+ * Kontaktene lagres ikke som objekter, men i kolonner av primitiver, fordelt på segmenter etter hashen av id-en:
+ * <ul>
+ * <li>id-en, delen av eposten før @ og sifrene etter de første 16 i telefonnummeret som UTF-8 i én byte-tabell</li>
+ * <li>domenet til eposten som et nummer i en felles tabell, der hvert domene bare lagres én gang</li>
+ * <li>de første 16 sifrene i telefonnummeret pakket i en long, som i Phonenumber</li>
+ * <li>tidspunktet eposten ble bekreftet som millisekunder siden epoken, eller Long.MIN_VALUE om den ikke er bekreftet</li>
+ * </ul>
+ * En kontakt med en id på 10 tegn og en epost på 20 tar da rundt 80 byte, mot flere hundre som objekter. Med
+ * <code>expectedContacts</code> får tabellene riktig størrelse med en gang, ellers vokser de med 50% om gangen.
+ * <code>heapBytes()</code> forteller hvor mye tabellene tar.
+ * <br/>
+ * Oppslag låser ikke. En skriving fyller ut en ny rad før den publiseres i hashtabellen, og en tabell som vokser
+ * kopieres og publiseres som en helhet, så den som leser ser enten den gamle eller den nye kontakten. Skrivinger låser
+ * bare segmentet sitt, og en ny verdi for en id legges i en ny rad. De gamle radene ryddes bort når tabellen vokser.
+ * <br/>
+ * Et øyeblikksbilde skrives til en lokal fil med <code>save</code>, og leses inn igjen med <code>load</code>.
+ */
+public final class ContactStore {
+
+    public static final ErrorCode missingError = ErrorCode.of("contact.missing", "Brukeren {0} finnes ikke i databasen");
+    public static final ErrorCode ioError = ErrorCode.of("contact.io", "Kunne ikke lese eller skrive {0}: {1}");
+    public static final ErrorCode snapshotError = ErrorCode.of("contact.snapshot", "{0} er ikke et gyldig øyeblikksbilde: {1}");
+
+    static final long unconfirmed = Long.MIN_VALUE;
+
+    private static final int magic = 0x43535431;
+    private static final int maxLength = 0x7fff;
+    private static final int maxRows = 1 << 28;
+
+    private final Segment[] segments;
+    private final Domains domains = new Domains();
+
+    private ContactStore(int segments, long expectedContacts) {
+        this.segments = new Segment[segments];
+        int perSegment = (int) Math.min(maxRows, expectedContacts / segments + 1);
+        for (int i = 0; i < segments; i++)
+            this.segments[i] = new Segment(perSegment);
+    }
+
+    public static ContactStore create() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Slår opp kontaktinformasjonen til en id.
+     *
+     * @param id id-en til brukeren
+     * @return kontaktinformasjonen, eller en feil om brukeren ikke finnes
+     */
+    public Validated<ContactInfo> infoForId(String id) {
+        int hash = id.hashCode();
+        Table t = segment(hash).table;
+        int mask = t.slots.length() - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int r = t.slots.get(i) - 1;
+            if (r < 0)
+                return Validated.invalid(missingError, id);
+            if (t.hashes[r] == hash && idEquals(t.data, t.offsets[r], id))
+                return Validated.valid(decode(t, r));
+        }
+    }
+
+    /**
+     * Slår opp mange id-er på en gang.
+     *
+     * @param ids id-ene til brukerne
+     * @return kontaktinformasjonen, eller feilen, for hver id, i samme rekkefølge som id-ene
+     */
+    public List<Validated<ContactInfo>> infoForIds(List<String> ids) {
+        List<Validated<ContactInfo>> infos = new ArrayList<>(ids.size());
+        for (String id : ids)
+            infos.add(infoForId(id));
+        return infos;
+    }
+
+    /**
+     * Lagrer kontaktinformasjonen til en id, i stedet for den som var lagret fra før.
+     *
+     * @param id   id-en til brukeren
+     * @param info kontaktinformasjonen
+     */
+    public void put(String id, ContactInfo info) {
+        Row row = encode(id, info);
+        segment(row.hash).put(row);
+    }
+
+    /**
+     * Lagrer mange kontakter på en gang. Radene sorteres på segment først, så hvert segment låses bare én gang.
+     *
+     * @param contacts kontaktinformasjonen etter id
+     */
+    public void putAll(Map<String, ContactInfo> contacts) {
+        List<List<Row>> bySegment = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++)
+            bySegment.add(new ArrayList<>());
+        contacts.forEach((id, info) -> {
+            Row row = encode(id, info);
+            bySegment.get(segmentIndex(row.hash)).add(row);
+        });
+        for (int i = 0; i < segments.length; i++)
+            segments[i].putAll(bySegment.get(i));
+    }
+
+    /**
+     * @return antall kontakter
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments)
+            size += segment.table.live;
+        return size;
+    }
+
+    /**
+     * @return antall byte som tabellene tar, uten objekthodene
+     */
+    public long heapBytes() {
+        long bytes = domains.bytes();
+        for (Segment segment : segments)
+            bytes += segment.table.bytes();
+        return bytes;
+    }
+
+    /**
+     * Skriver et øyeblikksbilde av alle kontaktene til en fil. Skrivinger som skjer samtidig, kan være med eller ikke,
+     * men hver kontakt er enten den gamle eller den nye. Filen byttes ut i ett steg når hele øyeblikksbildet er skrevet,
+     * så den inneholder alltid enten det gamle eller det nye.
+     *
+     * @param file filen
+     * @return antall kontakter som ble skrevet, eller feilen om filen ikke kunne skrives
+     */
+    public Validated<Long> save(Path file) {
+        Table[] tables = new Table[segments.length];
+        int[][] rows = new int[segments.length][];
+        for (int i = 0; i < segments.length; i++) {
+            tables[i] = segments[i].table;
+            rows[i] = tables[i].liveRows();
+        }
+        //Domenene leses etter radene, så de har med domenet til hver rad, og antallet før tabellen
+        int domainCount = domains.size;
+        String[] names = domains.names;
+        long count = 0;
+        //Skriver til en midlertidig fil ved siden av, og bytter den inn til slutt, så et krasj midt i ikke ødelegger
+        //det forrige øyeblikksbildet
+        Path temp = null;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            return Validated.invalid(ioError, file, String.valueOf(e.getMessage()));
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(magic);
+            out.writeInt(domainCount);
+            for (int i = 0; i < domainCount; i++)
+                out.writeUTF(names[i]);
+            for (int s = 0; s < tables.length; s++) {
+                Table t = tables[s];
+                for (int r : rows[s]) {
+                    int length = rowLength(t.data, t.offsets[r]);
+                    out.writeInt(length);
+                    out.writeInt(t.hashes[r]);
+                    out.writeInt(t.domains[r]);
+                    out.writeLong(t.phones[r]);
+                    out.writeLong(t.confirmed[r]);
+                    out.write(t.data, t.offsets[r], length);
+                    count++;
+                }
+            }
+            out.writeInt(-1);
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            return Validated.invalid(ioError, file, String.valueOf(e.getMessage()));
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            return Validated.invalid(ioError, file, String.valueOf(e.getMessage()));
+        }
+        return Validated.valid(count);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            //Filen ryddes bort neste gang, eller av den som rydder i katalogen
+        }
+    }
+
+    /**
+     * Leser inn et øyeblikksbilde som er skrevet med <code>save</code>.
+     *
+     * @param file filen
+     * @return en ny ContactStore med kontaktene i filen, eller feilen om filen ikke kunne leses
+     */
+    public static Validated<ContactStore> load(Path file) {
+        return load(file, builder());
+    }
+
+    /**
+     * Leser inn et øyeblikksbilde i en ContactStore som er satt opp av builderen.
+     */
+    public static Validated<ContactStore> load(Path file, Builder builder) {
+        ContactStore store = builder.build();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != magic)
+                return Validated.invalid(snapshotError, file, "feil format");
+            int domainCount = in.readInt();
+            for (int i = 0; i < domainCount; i++)
+                store.domains.intern(in.readUTF());
+            List<List<Row>> bySegment = new ArrayList<>(store.segments.length);
+            for (int i = 0; i < store.segments.length; i++)
+                bySegment.add(new ArrayList<>());
+            int batch = 0;
+            for (int length = in.readInt(); length != -1; length = in.readInt()) {
+                if (length < 0 || length > 3 * (maxLength + 2))
+                    return Validated.invalid(snapshotError, file, "en rad har lengden " + length);
+                int hash = in.readInt();
+                int domain = in.readInt();
+                if (domain < 0 || domain >= domainCount)
+                    return Validated.invalid(snapshotError, file, "en rad har domenet " + domain);
+                long phone = in.readLong();
+                long confirmed = in.readLong();
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                bySegment.get(store.segmentIndex(hash)).add(new Row(hash, bytes, domain, phone, confirmed));
+                if (++batch == 1 << 16) {
+                    for (int i = 0; i < store.segments.length; i++) {
+                        store.segments[i].putAll(bySegment.get(i));
+                        bySegment.get(i).clear();
+                    }
+                    batch = 0;
+                }
+            }
+            for (int i = 0; i < store.segments.length; i++)
+                store.segments[i].putAll(bySegment.get(i));
+        } catch (EOFException e) {
+            return Validated.invalid(snapshotError, file, "filen slutter for tidlig");
+        } catch (IOException e) {
+            return Validated.invalid(ioError, file, String.valueOf(e.getMessage()));
+        }
+        return Validated.valid(store);
+    }
+
+    private Segment segment(int hash) {
+        return segments[segmentIndex(hash)];
+    }
+
+    private int segmentIndex(int hash) {
+        return (spread(hash) >>> 24) & (segments.length - 1);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Gjør om en kontakt til en rad: id-en, delen av eposten før @ og sifrene etter de første 16 i én byte-tabell,
+     * hver med lengden foran.
+     */
+    private Row encode(String id, ContactInfo info) {
+        String email = info.email.fold(u -> u.value, c -> c.value);
+        long confirmed = info.email.fold(u -> unconfirmed, c -> c.timestamp.toEpochMilli());
+        int at = email.lastIndexOf('@');
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] local = email.substring(0, at).getBytes(StandardCharsets.UTF_8);
+        Phonenumber phone = info.phonenumber;
+        int overflow = overflowBytes(phone.length);
+        if (idBytes.length > maxLength || local.length > maxLength || phone.length > maxLength)
+            throw new IllegalArgumentException("The id, the email or the phone number of " + id + " is too long");
+        byte[] bytes = new byte[width(idBytes.length) + idBytes.length + width(local.length) + local.length + width(phone.length) + overflow];
+        int pos = putBytes(bytes, 0, idBytes);
+        pos = putBytes(bytes, pos, local);
+        pos = putLength(bytes, pos, phone.length);
+        if (overflow > 0)
+            System.arraycopy(phone.overflow, 0, bytes, pos, overflow);
+        int domain = domains.intern(email.substring(at + 1));
+        return new Row(id.hashCode(), bytes, domain, phone.packed, confirmed);
+    }
+
+    private ContactInfo decode(Table t, int r) {
+        byte[] data = t.data;
+        int pos = t.offsets[r];
+        pos += width(data, pos) + length(data, pos);
+        int localLength = length(data, pos);
+        pos += width(data, pos);
+        String email = new String(data, pos, localLength, StandardCharsets.UTF_8) + '@' + domains.names[t.domains[r]];
+        pos += localLength;
+        int phoneLength = length(data, pos);
+        pos += width(data, pos);
+        int overflow = overflowBytes(phoneLength);
+        byte[] overflowDigits = overflow == 0 ? null : Arrays.copyOfRange(data, pos, pos + overflow);
+        long confirmed = t.confirmed[r];
+        EmailAddress.Unconfirmed address = new EmailAddress.Unconfirmed(email);
+        return
+          new ContactInfo(
+            confirmed == unconfirmed ? address : address.confirm(Instant.ofEpochMilli(confirmed)),
+            new Phonenumber(t.phones[r], overflowDigits, phoneLength));
+    }
+
+    /**
+     * Sammenligner id-en med den lagrede id-en uten å lage en streng, så lenge id-en bare har ASCII-tegn.
+     */
+    private static boolean idEquals(byte[] data, int offset, String id) {
+        int length = length(data, offset);
+        int pos = offset + width(data, offset);
+        if (length != id.length())
+            return length > id.length() && id.equals(new String(data, pos, length, StandardCharsets.UTF_8));
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c >= 0x80)
+                return id.equals(new String(data, pos, length, StandardCharsets.UTF_8));
+            if (data[pos + i] != c)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean idEquals(byte[] data, int offset, byte[] other) {
+        int length = length(data, offset) + width(data, offset);
+        return length == length(other, 0) + width(other, 0) && Arrays.equals(data, offset, offset + length, other, 0, length);
+    }
+
+    private static int overflowBytes(int phoneLength) {
+        return phoneLength <= Phonenumber.packedDigits ? 0 : (phoneLength - Phonenumber.packedDigits + 1) / 2;
+    }
+
+    /**
+     * Lengder under 128 tar én byte, og lengder opp til maxLength tar to, med den høyeste biten satt i den første.
+     */
+    private static int width(int length) {
+        return length < 0x80 ? 1 : 2;
+    }
+
+    private static int width(byte[] data, int pos) {
+        return data[pos] >= 0 ? 1 : 2;
+    }
+
+    private static int length(byte[] data, int pos) {
+        int b = data[pos];
+        return b >= 0 ? b : ((b & 0x7f) << 8) | (data[pos + 1] & 0xff);
+    }
+
+    private static int putLength(byte[] bytes, int pos, int length) {
+        if (length < 0x80) {
+            bytes[pos] = (byte) length;
+            return pos + 1;
+        }
+        bytes[pos] = (byte) (0x80 | (length >>> 8));
+        bytes[pos + 1] = (byte) length;
+        return pos + 2;
+    }
+
+    private static int putBytes(byte[] bytes, int pos, byte[] value) {
+        pos = putLength(bytes, pos, value.length);
+        System.arraycopy(value, 0, bytes, pos, value.length);
+        return pos + value.length;
+    }
+
+    private static int rowLength(byte[] data, int offset) {
+        int pos = offset;
+        pos += width(data, pos) + length(data, pos);
+        pos += width(data, pos) + length(data, pos);
+        int phoneLength = length(data, pos);
+        pos += width(data, pos) + overflowBytes(phoneLength);
+        return pos - offset;
+    }
+
+    /**
+     * En kontakt som er gjort om til en rad, men ikke lagret ennå.
+     */
+    static final class Row {
+
+        final int hash;
+        final byte[] bytes;
+        final int domain;
+        final long phone;
+        final long confirmed;
+
+        Row(int hash, byte[] bytes, int domain, long phone, long confirmed) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.domain = domain;
+            this.phone = phone;
+            this.confirmed = confirmed;
+        }
+    }
+
+    /**
+     * Et segment bytter ut tabellen sin når den er full. Bare skrivingene låser segmentet.
+     */
+    static final class Segment {
+
+        volatile Table table;
+
+        Segment(int expected) {
+            //Plass til 32 byte per kontakt, men ikke mer enn en byte-tabell kan ta, slik som i grow
+            table = new Table(expected, (int) Math.min(expected * 32L, Integer.MAX_VALUE - 16));
+        }
+
+        synchronized void put(Row row) {
+            Table t = table;
+            if (!t.fits(1, row.bytes.length))
+                t = grow(t, 1, row.bytes.length);
+            t.add(row);
+        }
+
+        synchronized void putAll(List<Row> rows) {
+            if (rows.isEmpty())
+                return;
+            long bytes = 0;
+            for (Row row : rows)
+                bytes += row.bytes.length;
+            Table t = table;
+            if (!t.fits(rows.size(), bytes))
+                t = grow(t, rows.size(), bytes);
+            for (Row row : rows)
+                t.add(row);
+        }
+
+        /**
+         * Kopierer de levende radene til en ny tabell med plass til dem og de nye, og 50% til, og publiserer den.
+         */
+        private Table grow(Table t, int rows, long bytes) {
+            int[] live = t.liveRows();
+            long liveBytes = 0;
+            for (int r : live)
+                liveBytes += rowLength(t.data, t.offsets[r]);
+            long capacity = (live.length + (long) rows) * 3 / 2 + 16;
+            long dataCapacity = (liveBytes + bytes) * 3 / 2 + 256;
+            if (capacity > maxRows || dataCapacity > Integer.MAX_VALUE - 16)
+                throw new IllegalStateException("The segment is full, use more segments");
+            Table grown = new Table((int) capacity, (int) dataCapacity);
+            for (int r : live)
+                grown.copy(t, r);
+            table = grown;
+            return grown;
+        }
+    }
+
+    /**
+     * Kolonnene til et segment, og hashtabellen som peker på radene. En rad publiseres når nummeret til raden, pluss en,
+     * skrives i hashtabellen. En plass med 0 er ledig.
+     */
+    static final class Table {
+
+        final AtomicIntegerArray slots;
+        final int[] hashes;
+        final int[] offsets;
+        final int[] domains;
+        final long[] phones;
+        final long[] confirmed;
+        final byte[] data;
+
+        //Bare skrivingene bruker disse, med låsen til segmentet
+        int rows;
+        int dataLength;
+        volatile int live;
+
+        Table(int capacity, int dataCapacity) {
+            int slotCount = Integer.highestOneBit((int) Math.max(4, capacity * 4L / 3)) << 1;
+            this.slots = new AtomicIntegerArray(slotCount);
+            this.hashes = new int[capacity];
+            this.offsets = new int[capacity];
+            this.domains = new int[capacity];
+            this.phones = new long[capacity];
+            this.confirmed = new long[capacity];
+            this.data = new byte[dataCapacity];
+        }
+
+        boolean fits(int rows, long bytes) {
+            return this.rows + rows <= hashes.length && dataLength + bytes <= data.length;
+        }
+
+        void add(Row row) {
+            int r = rows++;
+            hashes[r] = row.hash;
+            offsets[r] = dataLength;
+            domains[r] = row.domain;
+            phones[r] = row.phone;
+            confirmed[r] = row.confirmed;
+            System.arraycopy(row.bytes, 0, data, dataLength, row.bytes.length);
+            dataLength += row.bytes.length;
+            publish(r, row.bytes);
+        }
+
+        void copy(Table from, int r) {
+            int length = rowLength(from.data, from.offsets[r]);
+            int to = rows++;
+            hashes[to] = from.hashes[r];
+            offsets[to] = dataLength;
+            domains[to] = from.domains[r];
+            phones[to] = from.phones[r];
+            confirmed[to] = from.confirmed[r];
+            System.arraycopy(from.data, from.offsets[r], data, dataLength, length);
+            dataLength += length;
+            publish(to, null);
+        }
+
+        /**
+         * Legger raden i hashtabellen, i stedet for en rad med samme id om det finnes en. Radene som kopieres når en
+         * tabell vokser, har ulike id-er, så de trenger ikke sammenlignes.
+         */
+        private void publish(int r, byte[] id) {
+            int mask = slots.length() - 1;
+            int hash = hashes[r];
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                int existing = slots.get(i) - 1;
+                if (existing < 0) {
+                    slots.set(i, r + 1);
+                    live++;
+                    return;
+                }
+                if (id != null && hashes[existing] == hash && idEquals(data, offsets[existing], id)) {
+                    slots.set(i, r + 1);
+                    return;
+                }
+            }
+        }
+
+        int[] liveRows() {
+            int[] live = new int[slots.length()];
+            int n = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                int r = slots.get(i) - 1;
+                if (r >= 0)
+                    live[n++] = r;
+            }
+            return Arrays.copyOf(live, n);
+        }
+
+        long bytes() {
+            return 4L * slots.length() + 4L * hashes.length * 3 + 8L * phones.length * 2 + data.length;
+        }
+    }
+
+    /**
+     * Domenene til epostene, der hvert domene får et nummer første gang det lagres. Et nytt domene legges i tabellen
+     * før nummeret brukes i en rad, og tabellen publiseres som en helhet når den vokser.
+     */
+    static final class Domains {
+
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        volatile String[] names = new String[16];
+        volatile int size;
+
+        int intern(String domain) {
+            Integer id = ids.get(domain);
+            return id != null ? id : add(domain);
+        }
+
+        private synchronized int add(String domain) {
+            Integer id = ids.get(domain);
+            if (id != null)
+                return id;
+            String[] n = names;
+            if (size == n.length)
+                n = Arrays.copyOf(n, n.length * 2);
+            n[size] = domain;
+            names = n;
+            ids.put(domain, size);
+            return size++;
+        }
+
+        long bytes() {
+            long bytes = 4L * names.length;
+            for (int i = 0; i < size; i++)
+                bytes += 40 + names[i].length();
+            return bytes;
+        }
+    }
+
+    /**
+     * Setter opp en ContactStore.
+     */
+    public static final class Builder {
+
+        private int segments = 64;
+        private long expectedContacts = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Antall segmenter, rundet opp til en toerpotens. Skrivinger til ulike segmenter låser ikke hverandre.
+         * Standard er 64.
+         */
+        public Builder segments(int segments) {
+            if (segments < 1 || segments > 256)
+                throw new IllegalArgumentException("segments must be from 1 to 256, but was " + segments);
+            this.segments = segments == 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+            return this;
+        }
+
+        /**
+         * Hvor mange kontakter det skal være plass til fra starten, så tabellene ikke trenger å vokse.
+         */
+        public Builder expectedContacts(long expectedContacts) {
+            this.expectedContacts = expectedContacts;
+            return this;
+        }
+
+        public ContactStore build() {
+            return new ContactStore(segments, expectedContacts);
+        }
+    }
+}
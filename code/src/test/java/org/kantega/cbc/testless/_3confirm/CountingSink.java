@@ -0,0 +1,85 @@
+package org.kantega.cbc.testless._3confirm;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * En lokal stand-in for en ekte mottaker, som bare teller det den får. Den ber om en batch om gangen, og måler tiden
+ * fra abonnementet starter til strømmen er ferdig, så den kan brukes til å måle hvor mye en pipeline klarer.
+ *
+ * @param <T> typen til elementene
+ */
+public final class CountingSink<T> implements Flow.Subscriber<T> {
+
+    private final int batch;
+    private final LongAdder count = new LongAdder();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private Flow.Subscription subscription;
+    private int received;
+    private volatile long start;
+    private volatile long end;
+    private volatile Throwable error;
+
+    public CountingSink(int batch) {
+        this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        start = System.nanoTime();
+        subscription.request(batch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        count.increment();
+        if (++received == batch) {
+            received = 0;
+            subscription.request(batch);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        onComplete();
+    }
+
+    @Override
+    public void onComplete() {
+        end = System.nanoTime();
+        done.countDown();
+    }
+
+    /**
+     * Venter til strømmen er ferdig.
+     *
+     * @return true om den ble ferdig før tiden gikk ut
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return feilen strømmen endte med, eller null
+     */
+    public Throwable error() {
+        return error;
+    }
+
+    /**
+     * @return antall elementer per sekund, fra abonnementet startet til strømmen var ferdig
+     */
+    public double perSecond() {
+        long nanos = (end == 0 ? System.nanoTime() : end) - start;
+        return count.sum() * 1e9 / Math.max(1, nanos);
+    }
+}
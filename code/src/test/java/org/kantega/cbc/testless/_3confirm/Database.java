@@ -3,25 +3,23 @@ package org.kantega.cbc.testless._3confirm;
 import org.kantega.cbyc.Validated;
 
 import java.time.Instant;
-import java.util.Optional;
 
 public class Database {
 
-    public static Optional<ContactInfo> infoForId(String id) {
-        return
-          id.equals("a") ?
-            Validated
-              .accum(EmailAddress.of("ola.normann@mail.com"), Phonenumber.of("1234567"), ContactInfo::new)
-              .fold(
-                f -> Optional.empty(),
-                Optional::of) :
-            id.equals("b") ?
-              Validated
-                .accum(EmailAddress.unsafeCreateConfirmed(Instant.now(),"ola.normann@mail.com"), Phonenumber.of("1234567"), ContactInfo::new)
-                .fold(
-                  f -> Optional.empty(),
-                  Optional::of) :
-              Optional.empty();
+    //Bruker a har ikke bekreftet eposten sin, det har bruker b
+    static final ContactStore contacts = ContactStore.create();
+
+    static {
+        Validated
+          .accum(EmailAddress.of("ola.normann@mail.com"), Phonenumber.of("1234567"), ContactInfo::new)
+          .fold(f -> null, info -> { contacts.put("a", info); return info; });
+        Validated
+          .accum(EmailAddress.unsafeCreateConfirmed(Instant.now(), "ola.normann@mail.com"), Phonenumber.of("1234567"), ContactInfo::new)
+          .fold(f -> null, info -> { contacts.put("b", info); return info; });
+    }
+
+    public static Validated<ContactInfo> infoForId(String id) {
+        return contacts.infoForId(id);
     }
 
 }
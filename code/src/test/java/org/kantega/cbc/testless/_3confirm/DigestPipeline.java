@@ -0,0 +1,268 @@
+package org.kantega.cbc.testless._3confirm;
+
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Validated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Lager oppsummeringer til mange brukere som en strøm. Id-er går inn, kontaktene slås opp i batcher, og brukere med en
+ * bekreftet epost blir til en DigestMessage som sendes videre til den som abonnerer. Brukere som ikke finnes, eller som
+ * ikke har bekreftet eposten sin, sendes som Invalid til den som abonnerer på <code>rejections()</code>.
+ * <br/>
+ * Strømmen følger mottrykket hele veien. Pipelinen ber om så mange id-er som det er plass til i batchene den holder på
+ * med, og ber om flere først når en batch er sendt videre. Oppsummeringene og avvisningene går gjennom buffere med en
+ * fast størrelse, og når en abonnent ikke henger med, venter batchene til det er plass, så det kommer ikke inn flere
+ * id-er heller.
+ * <br/>
+ * En batch slås opp når den er full, eller når id-ene tar slutt. Batchene behandles samtidig av like mange tråder som
+ * <code>parallelism</code>, så oppsummeringene kommer ikke nødvendigvis i samme rekkefølge som id-ene.
+ */
+public final class DigestPipeline implements Flow.Processor<String, DigestMessage> {
+
+    public static final ErrorCode unconfirmedError = ErrorCode.of("digest.unconfirmed", "Brukeren {0} har ikke bekreftet eposten sin");
+    public static final ErrorCode lookupError = ErrorCode.of("digest.lookup", "Kunne ikke slå opp brukeren {0}: {1}");
+
+    private final Function<List<String>, List<Validated<ContactInfo>>> lookup;
+    private final Function<EmailAddress.Confirmed, DigestMessage> digest;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final SubmissionPublisher<DigestMessage> digests;
+    private final SubmissionPublisher<Validated<DigestMessage>> rejections;
+
+    //Én for strømmen av id-er, og én for hver batch som behandles. Når den når 0, er alt sendt videre.
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private Flow.Subscription upstream;
+    private List<String> batch;
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    private DigestPipeline(Builder builder) {
+        this.lookup = builder.lookup;
+        this.digest = builder.digest;
+        this.batchSize = builder.batchSize;
+        this.parallelism = builder.parallelism;
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "digest-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.digests = new SubmissionPublisher<>(builder.executor, builder.bufferSize);
+        this.rejections = new SubmissionPublisher<>(builder.executor, builder.bufferSize);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * @param lookup slår opp kontaktinformasjonen til en batch med id-er, i samme rekkefølge som id-ene
+     * @return en Builder
+     */
+    public static Builder builder(Function<List<String>, List<Validated<ContactInfo>>> lookup) {
+        return new Builder(lookup);
+    }
+
+    /**
+     * @param store kontaktene som slås opp
+     * @return en Builder som slår opp i kontaktene
+     */
+    public static Builder builder(ContactStore store) {
+        return new Builder(store::infoForIds);
+    }
+
+    /**
+     * Abonnerer på oppsummeringene.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super DigestMessage> subscriber) {
+        digests.subscribe(subscriber);
+    }
+
+    /**
+     * @return brukerne som ikke fikk noen oppsummering, som Invalid med grunnen
+     */
+    public Flow.Publisher<Validated<DigestMessage>> rejections() {
+        return rejections::subscribe;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        upstream = subscription;
+        request((long) batchSize * parallelism);
+    }
+
+    @Override
+    public void onNext(String id) {
+        batch.add(id);
+        if (batch.size() == batchSize) {
+            dispatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        onComplete();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        if (!batch.isEmpty())
+            dispatch(batch);
+        batch = new ArrayList<>(0);
+        finish();
+    }
+
+    private void dispatch(List<String> ids) {
+        pending.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                process(ids);
+            } finally {
+                if (!done)
+                    request(ids.size());
+                finish();
+            }
+        });
+    }
+
+    /**
+     * Batchene blir ferdige på hver sin tråd, men kallene til request må komme etter hverandre.
+     */
+    private synchronized void request(long n) {
+        upstream.request(n);
+    }
+
+    /**
+     * Alle id-ene i batchen blir enten en oppsummering eller en avvisning. Feiler oppslaget, eller gir det ikke like mange
+     * svar som id-er, avvises hele batchen med lookupError. Feiler oppsummeringen av én bruker, avvises bare den.
+     */
+    private void process(List<String> ids) {
+        List<Validated<ContactInfo>> infos;
+        try {
+            infos = lookup.apply(ids);
+            if (infos.size() != ids.size())
+                throw new IllegalStateException("Oppslaget ga " + infos.size() + " svar for " + ids.size() + " id-er");
+        } catch (RuntimeException e) {
+            for (String id : ids)
+                rejections.submit(Validated.invalid(lookupError, id, String.valueOf(e.getMessage())));
+            return;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            Validated<DigestMessage> validated;
+            try {
+                validated = infos.get(i).flatMap(info -> digest(id, info));
+            } catch (RuntimeException e) {
+                validated = Validated.invalid(lookupError, id, String.valueOf(e.getMessage()));
+            }
+            Validated<DigestMessage> result = validated;
+            result.foldFailures(
+              failures -> rejections.submit(result),
+              message -> digests.submit(message));
+        }
+    }
+
+    /**
+     * Slipper bare gjennom bekreftede eposter. EmailAddress.fold gir den bekreftede typen direkte, uten instanceof
+     * eller refleksjon.
+     */
+    private Validated<DigestMessage> digest(String id, ContactInfo info) {
+        return info.email.fold(
+          unconfirmed -> Validated.invalid(unconfirmedError, id),
+          confirmed -> Validated.valid(digest.apply(confirmed)));
+    }
+
+    private void finish() {
+        if (pending.decrementAndGet() != 0)
+            return;
+        Throwable e = error;
+        if (e == null) {
+            digests.close();
+            rejections.close();
+        } else {
+            digests.closeExceptionally(e);
+            rejections.closeExceptionally(e);
+        }
+        workers.shutdown();
+    }
+
+    /**
+     * Setter opp en DigestPipeline.
+     */
+    public static final class Builder {
+
+        private final Function<List<String>, List<Validated<ContactInfo>>> lookup;
+        private Function<EmailAddress.Confirmed, DigestMessage> digest = confirmed -> new DigestMessage(confirmed, "Dette er en oppsummering");
+        private int batchSize = 256;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int bufferSize = Flow.defaultBufferSize();
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Builder(Function<List<String>, List<Validated<ContactInfo>>> lookup) {
+            this.lookup = lookup;
+        }
+
+        /**
+         * Lager oppsummeringen til en bekreftet epost. Standard er en oppsummering med et fast emne.
+         */
+        public Builder digest(Function<EmailAddress.Confirmed, DigestMessage> digest) {
+            this.digest = digest;
+            return this;
+        }
+
+        /**
+         * Hvor mange id-er som slås opp på en gang. Standard er 256.
+         */
+        public Builder batchSize(int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("The batch size must be positive, was " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Hvor mange batcher som behandles samtidig. Standard er antall prosessorer.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1)
+                throw new IllegalArgumentException("The parallelism must be positive, was " + parallelism);
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Hvor mange oppsummeringer, og hvor mange avvisninger, som kan ligge og vente på hver abonnent. Rundes opp til
+         * en toerpotens. Standard er 256.
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1)
+                throw new IllegalArgumentException("The buffer size must be positive, was " + bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Trådene som leverer til abonnentene. Standard er ForkJoinPool.commonPool().
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public DigestPipeline build() {
+            return new DigestPipeline(this);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.kantega.cbc.testless._3confirm;
 
-import org.apache.commons.validator.routines.EmailValidator;
+import org.kantega.cbyc.EmailSyntax;
+import org.kantega.cbyc.ErrorCode;
 import org.kantega.cbyc.Validated;
 
 import java.time.Instant;
@@ -8,6 +9,8 @@ import java.util.function.Function;
 
 public interface EmailAddress {
 
+    ErrorCode formatError = ErrorCode.of("email.format", "Feil format");
+
     <T> T fold(
       Function<Unconfirmed, T> onUnconfirmed,
       Function<Confirmed, T> onConfirmed
@@ -16,16 +19,16 @@ public interface EmailAddress {
 
     static Validated<EmailAddress> of(String value) {
         return
-          EmailValidator.getInstance().isValid(value) ?
+          EmailSyntax.isValid(value) ?
             Validated.valid(new Unconfirmed(value)) :
-            Validated.invalid("Feil format");
+            Validated.invalid(formatError);
     }
 
     static Validated<EmailAddress> unsafeCreateConfirmed(Instant instant, String value) {
         return
-          EmailValidator.getInstance().isValid(value) ?
+          EmailSyntax.isValid(value) ?
             Validated.valid(new Confirmed(instant,value)) :
-            Validated.invalid("Feil format");
+            Validated.invalid(formatError);
     }
 
     class Unconfirmed implements EmailAddress {
@@ -2,8 +2,6 @@ package org.kantega.cbc.testless._3confirm;
 
 import org.kantega.cbyc.Validated;
 
-import java.util.Optional;
-
 public class Example3 {
 
     public static void main(String[] args) {
@@ -13,16 +11,15 @@ public class Example3 {
         //Vi skal sende ut en oppsummering til en bruker, men
         // 1) Brukeren må finnes
         // 2) Brukeren må ha bekreftet eposten sin
-        final Optional<ContactInfo> maybeInfo =
+        final Validated<ContactInfo> validatedInfo =
           Database.infoForId("a"); //Prøv med b eller c også
 
         final Validated<DigestMessage> validatedDigest =
-          maybeInfo
+          validatedInfo
             .map(contactInfo -> contactInfo.email)
-            .map(emailAddress -> emailAddress.fold(
+            .flatMap(emailAddress -> emailAddress.fold(
               unconfirmed -> Validated.<DigestMessage>invalid("Epostadressen er ikke bekreftet"),
-              confirmed -> Validated.valid(new DigestMessage(confirmed, digestSubject))))
-            .orElseGet(() -> Validated.invalid("Brukeren finnes ikke i databasen"));
+              confirmed -> Validated.valid(new DigestMessage(confirmed, digestSubject))));
 
         System.out.println(validatedDigest);
 
@@ -0,0 +1,67 @@
+package org.kantega.cbc.testless._3confirm;
+
+import org.kantega.cbyc.AsyncValidated;
+import org.kantega.cbyc.BatchLoader;
+import org.kantega.cbyc.Validated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExampleBatch {
+
+    //En database i minnet der hvert kall tar 2 ms, uansett hvor mange id-er vi spør etter
+    static final Map<String, ContactInfo> contacts = new HashMap<>();
+    static final AtomicInteger roundTrips = new AtomicInteger();
+
+    static Map<String, Optional<ContactInfo>> lookup(Set<String> ids) {
+        roundTrips.incrementAndGet();
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Map<String, Optional<ContactInfo>> found = new HashMap<>();
+        for (String id : ids)
+            found.put(id, Optional.ofNullable(contacts.get(id)));
+        return found;
+    }
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 1_000; i++) {
+            String id = "id" + i;
+            Validated
+              .accum(EmailAddress.of("bruker" + i + "@mail.com"), Phonenumber.of("1234" + i), ContactInfo::new)
+              .fold(msgs -> null, info -> contacts.put(id, info));
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1_005; i++)
+            ids.add("id" + i);
+
+        //Ett kall per id
+        long start = System.nanoTime();
+        long singleValid = ids.stream().filter(id -> lookup(Set.of(id)).get(id).isPresent()).count();
+        System.out.println("Enkeltvis: " + singleValid + " gyldige, " + roundTrips.getAndSet(0) + " kall, " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        BatchLoader<String, ContactInfo> loader =
+          BatchLoader.of(ExampleBatch::lookup, id -> "Brukeren " + id + " finnes ikke i databasen");
+
+        //Alle id-ene i ett kall, feilmeldingene for de som mangler får indeksen sin
+        start = System.nanoTime();
+        Validated<List<ContactInfo>> all = loader.traverse(ids);
+        System.out.println("Samlet: " + all.fold(msgs -> msgs.toString(), infos -> infos.size() + " gyldige") + ", " + roundTrips.getAndSet(0) + " kall, " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        //Hver forespørsel får sin egen Validated, men oppslagene skjer samlet når vi kaller dispatch
+        List<AsyncValidated<ContactInfo>> pending = new ArrayList<>();
+        for (String id : List.of("id1", "id2", "id1", "finnes-ikke"))
+            pending.add(loader.load(id));
+        loader.dispatch();
+        pending.forEach(p -> System.out.println(p.join()));
+        System.out.println(roundTrips.get() + " kall");
+    }
+}
@@ -0,0 +1,58 @@
+package org.kantega.cbc.testless._3confirm;
+
+import org.kantega.cbyc.Validated;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+public class ExampleDigest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int users = 1_000_000;
+
+        //Annenhver bruker har bekreftet eposten sin, og hver tiende id finnes ikke
+        ContactStore store = ContactStore.builder().expectedContacts(users).build();
+        Map<String, ContactInfo> contacts = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            if (i % 10 == 9)
+                continue;
+            String id = "id" + i;
+            String email = "bruker" + i + "@mail.com";
+            Validated
+              .accum(
+                i % 2 == 0 ? EmailAddress.unsafeCreateConfirmed(Instant.now(), email) : EmailAddress.of(email),
+                Phonenumber.of("4" + i),
+                ContactInfo::new)
+              .fold(f -> null, info -> contacts.put(id, info));
+        }
+        store.putAll(contacts);
+
+        DigestPipeline pipeline =
+          DigestPipeline.builder(store)
+            .batchSize(512)
+            .parallelism(4)
+            .bufferSize(1024)
+            .build();
+
+        //Oppsummeringene går til en mottaker som bare teller, og avvisningene til en annen
+        CountingSink<DigestMessage> sent = new CountingSink<>(256);
+        CountingSink<Validated<DigestMessage>> rejected = new CountingSink<>(256);
+        pipeline.subscribe(sent);
+        pipeline.rejections().subscribe(rejected);
+
+        //submit venter når pipelinen ikke henger med
+        try (SubmissionPublisher<String> ids = new SubmissionPublisher<>()) {
+            ids.subscribe(pipeline);
+            for (int i = 0; i < users; i++)
+                ids.submit("id" + i);
+        }
+
+        sent.await(1, TimeUnit.MINUTES);
+        rejected.await(1, TimeUnit.MINUTES);
+        System.out.println("Sendt: " + sent.count() + ", " + Math.round(sent.perSecond()) + " per sekund");
+        System.out.println("Avvist: " + rejected.count());
+    }
+}
@@ -0,0 +1,93 @@
+package org.katenga.cbc.propertytest;
+
+import org.apache.commons.validator.routines.EmailValidator;
+import org.kantega.cbyc.EmailSyntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that EmailSyntax gives the same answer as EmailValidator for a large number of generated addresses. The
+ * addresses are put together from pieces that are likely to hit the edge cases: dots and hyphens in odd places,
+ * quoted local parts, IP address domains, whitespace, non ASCII chars, long labels and unknown top level domains.
+ * <br/>
+ * Run with the number of addresses and a seed as arguments. Exits with status 1 if the two disagree.
+ */
+public class EmailSyntaxDifferential {
+
+    static final String[] localPieces = {
+      "ola", "kari.nordmann", "a", "Z", "0", "o'neil", "first+tag", "x_y", "!#$%&*+/=?^`{|}~", ".", "..", "-",
+      "\"quoted\"", "\"quo ted\"", " ", "\t", "(", ")", "<", ">", ",", ";", ":", "\\", "[", "]", "æøå", "\u0001", "@"
+    };
+
+    static final String[] domainPieces = {
+      "example", "mail", "a", "0", "b-c", "-x", "y-", "xn--bcher-kva", ".", "..", "-", "_", " ", "@", "[", "]",
+      "127.0.0.1", "[127.0.0.1]", "[::1]", "ÆØÅ", "localhost", label(63), label(64)
+    };
+
+    static final String[] tlds = {
+      "com", "no", "org", "COM", "No", "museum", "arpa", "local", "localhost", "x", "c0m", "1com", "xn--p1ai",
+      "travel", "co", "uk", "", ".", "abcdefghij"
+    };
+
+    static String label(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        SplittableRandom random = new SplittableRandom(seed);
+        EmailValidator validator = EmailValidator.getInstance();
+
+        List<String> disagreements = new ArrayList<>();
+        int decided = 0;
+        for (int i = 0; i < count; i++) {
+            String email = generate(random);
+            boolean expected = validator.isValid(email);
+            EmailSyntax.Verdict verdict = EmailSyntax.scan(email);
+            if (verdict != EmailSyntax.Verdict.UNKNOWN) {
+                decided++;
+                if ((verdict == EmailSyntax.Verdict.VALID) != expected)
+                    disagreements.add(email + " -> " + verdict + ", EmailValidator says " + expected);
+            }
+            if (EmailSyntax.isValid(email) != expected)
+                disagreements.add(email + " -> isValid " + !expected + ", EmailValidator says " + expected);
+        }
+
+        System.out.println(count + " addresses, " + decided + " decided by the fast path, " + disagreements.size() + " disagreements");
+        disagreements.stream().limit(20).forEach(System.out::println);
+        if (!disagreements.isEmpty())
+            System.exit(1);
+    }
+
+    static String generate(SplittableRandom random) {
+        StringBuilder sb = new StringBuilder();
+        int localParts = 1 + random.nextInt(3);
+        for (int i = 0; i < localParts; i++) {
+            if (i > 0 && random.nextInt(4) > 0)
+                sb.append('.');
+            sb.append(pick(random, localPieces, 8));
+        }
+        if (random.nextInt(20) > 0)
+            sb.append('@');
+        int labels = random.nextInt(4);
+        for (int i = 0; i < labels; i++)
+            sb.append(pick(random, domainPieces, 8)).append(random.nextInt(10) > 0 ? "." : "");
+        sb.append(pick(random, tlds, 4));
+        if (random.nextInt(50) == 0)
+            sb.insert(random.nextInt(sb.length() + 1), (char) random.nextInt(128));
+        return sb.toString();
+    }
+
+    /**
+     * Picks one of the first common pieces most of the time, and any piece otherwise.
+     */
+    static String pick(SplittableRandom random, String[] pieces, int common) {
+        return pieces[random.nextInt(4) > 0 ? random.nextInt(Math.min(common, pieces.length)) : random.nextInt(pieces.length)];
+    }
+}
@@ -1,11 +1,18 @@
 package org.katenga.cbc.validated;
 
+import org.kantega.cbyc.CompiledRule;
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Rule;
 import org.kantega.cbyc.Validated;
 
 public class Age {
 
     public static final Age zero = new Age(0);
 
+    public static final ErrorCode rangeError = ErrorCode.of("age.range", "The age must be in the range [{0},{1}]");
+
+    static final CompiledRule<Integer> rule = Rule.range(0, 149, rangeError).compile("age");
+
     public final int value;
 
     private Age(int value) {
@@ -18,7 +25,7 @@ public class Age {
      * @return
      */
     public static Validated<Age> toAge(int value) {
-        return Validated.validate(value, v -> (v >= 0 && v < 150), "The age must be in the range [0,150)").map(Age::new);
+        return CompiledRule.validateInt(rule, value, Age::new);
     }
 
     @Override
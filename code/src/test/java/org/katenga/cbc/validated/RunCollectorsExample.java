@@ -0,0 +1,36 @@
+package org.katenga.cbc.validated;
+
+import org.kantega.cbyc.ValidatedCollectors;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class RunCollectorsExample {
+
+    public static void main(String[] args) {
+        //All ages are valid, the list keeps encounter order even on a parallel stream
+        var ages = IntStream.range(0, 100_000).parallel()
+          .mapToObj(i -> Age.toAge(i % 150))
+          .collect(ValidatedCollectors.toValidatedList(5));
+        System.out.println(ages.map(list -> list.size() + " ages, the last is " + list.get(list.size() - 1)));
+
+        //Every 1000th age is out of range, only the first five messages are kept,
+        //and a final message tells how many were omitted
+        var invalid = IntStream.range(0, 100_000).parallel()
+          .mapToObj(i -> Age.toAge(i % 1000 == 0 ? 200 + i / 1000 : i % 150))
+          .collect(ValidatedCollectors.toValidatedList(5));
+        System.out.println(invalid);
+
+        //Partitioning keeps the valid values as well as the messages
+        var partition = IntStream.range(0, 100_000).parallel()
+          .mapToObj(i -> Age.toAge(i % 1000 == 0 ? 200 + i / 1000 : i % 150))
+          .collect(ValidatedCollectors.partitioning(3));
+        System.out.println(partition.valid.size() + " valid, " + partition.invalidCount + " invalid: " + partition.messages);
+
+        //The valid values go straight on to the downstream collector, without a list in between
+        var average = IntStream.range(0, 100_000).parallel()
+          .mapToObj(i -> Age.toAge(i % 150))
+          .collect(ValidatedCollectors.validValues(Collectors.averagingInt((Age age) -> age.value)));
+        System.out.println(average);
+    }
+}
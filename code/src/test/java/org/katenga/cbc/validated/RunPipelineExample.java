@@ -0,0 +1,26 @@
+package org.katenga.cbc.validated;
+
+import org.kantega.cbyc.Deferred;
+import org.kantega.cbyc.Pipeline;
+import org.kantega.cbyc.Validated;
+
+public class RunPipelineExample {
+
+    static Pipeline<Integer, Integer> countdown;
+
+    public static void main(String[] args) {
+        //A pipeline is composed once, and applied to many inputs
+        var age = Pipeline.<Integer, Integer>of(Validated::valid).flatMap(Age::toAge).map(a -> a.value + 1);
+        System.out.println(age.apply(35));
+        System.out.println(age.apply(235));
+
+        //A pipeline may recurse through defer, without growing the call stack
+        countdown =
+          Pipeline.<Integer, Integer>of(Validated::valid)
+            .flatMapDeferred(n ->
+              n == 0 ?
+                Deferred.of(() -> Validated.valid(0)) :
+                countdown.defer(n - 1));
+        System.out.println(countdown.apply(200_000));
+    }
+}
@@ -0,0 +1,50 @@
+package org.katenga.cbc.validated;
+
+import org.kantega.cbyc.Validated;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class RunReloadExample {
+
+    static final Settings.Key<String> username = Settings.key("user.name", String.class);
+    static final Settings.Key<Integer> age = Settings.key("user.age", Integer.class);
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("settings");
+        Path defaults = dir.resolve("defaults.properties");
+        Path overrides = dir.resolve("overrides.json");
+        Files.write(defaults, "# Standardverdier\nuser.name = Ola\nuser.age = 35\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(overrides, "{\"user\": {\"age\": 36, \"roles\": [\"admin\", \"dev\"]}}".getBytes(StandardCharsets.UTF_8));
+
+        var reloads = new LinkedBlockingQueue<Validated<Settings>>();
+        var started = SettingsReloader.start(List.of(defaults, overrides), reloads::add);
+
+        try (var reloader = started.orElseGet(() -> { throw new IllegalStateException(started.toString()); })) {
+            //Prints the merged settings, the age from the JSON file wins
+            print(reloader.current());
+
+            //A file with errors is reported, and the old snapshot is kept
+            Files.write(overrides, "{\"user\": {\"age\": 37,, }}".getBytes(StandardCharsets.UTF_8));
+            System.out.println(reloads.poll(10, TimeUnit.SECONDS));
+            print(reloader.current());
+
+            //When the file is fixed, the new snapshot is swapped in
+            Files.write(overrides, "{\"user\": {\"age\": 37}}".getBytes(StandardCharsets.UTF_8));
+            System.out.println(reloads.poll(10, TimeUnit.SECONDS).map(Settings::size));
+            print(reloader.current());
+        }
+
+        //A properties file with several bad lines reports all of them
+        Files.write(defaults, "user.name = Ola\nbad.escape = \\u00zz\nuser.age = 35\nworse = \\u12\n".getBytes(StandardCharsets.UTF_8));
+        System.out.println(SettingsLoader.properties(defaults));
+    }
+
+    static void print(Settings settings) {
+        System.out.println(Validated.accum(settings.get(username), settings.getAsInt(age), (name, a) -> name + " (" + a + ")"));
+    }
+}
@@ -1,6 +1,18 @@
 package org.katenga.cbc.validated;
 
+import org.kantega.cbyc.Binder;
+import org.kantega.cbyc.Failure;
+import org.kantega.cbyc.InMemoryMetrics;
+import org.kantega.cbyc.Instrumentation;
+import org.kantega.cbyc.MessageBundle;
+import org.kantega.cbyc.Messages;
 import org.kantega.cbyc.Validated;
+import org.kantega.cbyc.ValidatedCodec;
+import org.kantega.cbyc.ValueCodec;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
 
 public class RunValidatedExample {
 
@@ -8,16 +20,29 @@ public class RunValidatedExample {
         var settings = Settings.empty().with("age", 235);
 
         var username = settings.getAsString("username");
-        var age = settings.getAsInt("age").flatMap(Age::toAge);
+        var age = settings.getAsInt("age").flatMapToObj(Age::toAge);
 
         var user = Validated.accum(username, age, User::new);
 
         //Prints out a Fail with two messages
         System.out.println(user);
 
+        //The failures carry codes and arguments, and can be rendered
+        //in any language that has a bundle
+        var norwegian = new Locale("nb");
+        Messages.register(Locale.ENGLISH, MessageBundle.of(ResourceBundle.getBundle("messages", Locale.ENGLISH)));
+        Messages.register(norwegian, MessageBundle.of(ResourceBundle.getBundle("messages", norwegian)));
+        user.foldFailures(
+          failures -> {
+              for (Failure failure : failures)
+                  System.out.println(failure.code + ": " + failure.message(Locale.ENGLISH) + " / " + failure.message(norwegian));
+              return failures;
+          },
+          u -> null);
+
         var settings2 = settings.with("age", 35).with("username", "Ola");
         var username2 = settings2.getAsString("username");
-        var age2 = settings2.getAsInt("age").flatMap(Age::toAge);
+        var age2 = settings2.getAsInt("age").flatMapToObj(Age::toAge);
 
         var user2 = Validated.accum(username2, age2, User::new);
 
@@ -25,9 +50,45 @@ public class RunValidatedExample {
         //Prints out a Valid user
         System.out.println(user2);
 
+        //Or let a Binder find the constructor of User, and pass the
+        //age through Age.toAge
+        var binder = Binder.of(User.class);
+        System.out.println(binder.bind(settings::value));
+        System.out.println(binder.bind(settings2::value));
+
+        //Count and time the named validations, like the rule of Age
+        var metrics = new InMemoryMetrics();
+        Instrumentation.install(metrics);
+        for (int i = 0; i < 1000; i++)
+            Age.toAge(i % 200);
+        Instrumentation.uninstall();
+        System.out.print(metrics);
+
+        //Send the result to another service as a few bytes, and read
+        //it back with the same codes and arguments. The age is validated
+        //again when it is read, and a corrupt age fails the decoding
+        var names = ValueCodec.utf8();
+        var ages = ValueCodec.int32();
+        var codec = ValidatedCodec.of(ValueCodec.<User>of(
+          (u, out) -> {
+              names.write(u.username, out);
+              ages.write(u.age.value, out);
+          },
+          in -> {
+              var name = names.read(in);
+              return Age.toAge(ages.read(in)).fold(
+                msgs -> { throw new IllegalArgumentException("The age of " + name + " is not valid: " + msgs); },
+                a -> new User(name, a));
+          }));
+        var user3 = Validated.accum(Validated.valid("Kari"), Age.toAge(140), User::new);
+        for (var result : List.of(user, user2, user3)) {
+            var bytes = codec.encode(result);
+            System.out.println(bytes.remaining() + " bytes: " + codec.decode(bytes));
+        }
+
         //100%-, sure thing-, guaranteed-, cannot invalid-,
         //valid user.
         var validUser =
-          user2.orElse(new User("unknown",Age.zero));
+          user2.orElseGet(() -> new User("unknown",Age.zero));
     }
 }
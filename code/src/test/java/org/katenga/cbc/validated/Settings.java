@@ -1,51 +1,232 @@
 package org.katenga.cbc.validated;
 
-import fj.Ord;
-import fj.data.TreeMap;
+import org.kantega.cbyc.ErrorCode;
 import org.kantega.cbyc.Validated;
+import org.kantega.cbyc.ValidatedInt;
 
-import java.util.Optional;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import static org.kantega.cbyc.Validated.invalid;
 import static org.kantega.cbyc.Validated.valid;
 
+/**
+ * An immutable snapshot of settings. The settings are kept in a flat open addressing hash table, so a lookup is one
+ * hash and usually one string comparison. Many settings are best added with a Builder, which builds the table once,
+ * instead of with(), which copies the table for every setting.
+ * <br/>
+ * Settings that are read often should be read through a Key. A key remembers the result of its last lookup, together
+ * with the snapshot it was made in, so reading the same key from the same snapshot again skips both the hashing and
+ * the type check.
+ */
 public class Settings {
 
+    public static final ErrorCode missingError = ErrorCode.of("settings.missing", "The settings does not contain any value with key '{0}'");
+    public static final ErrorCode typeError = ErrorCode.of("settings.type", "Trying to cast an object of type {0} to type {1}");
 
-    final TreeMap<String, Object> settings;
+    private static final Settings empty = new Settings(new String[1], new Object[1], 0);
 
-    public Settings(TreeMap<String, Object> settings) {
-        this.settings = settings;
+    final String[] keys;
+    final Object[] values;
+    final int size;
+
+    private Settings(String[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
     }
 
     public static Settings empty() {
-        return new Settings(TreeMap.empty(Ord.stringOrd));
+        return empty;
     }
 
+    public static Builder builder() {
+        return new Builder();
+    }
 
+    /**
+     * Creates a key that can be used to read a setting of the given type from any snapshot. A primitive type, like
+     * <code>int.class</code>, reads the boxed values of its wrapper type.
+     */
+    public static <A> Key<A> key(String name, Class<A> type) {
+        return new Key<>(name, boxed(type));
+    }
+
+    /**
+     * Returns a new snapshot with the setting added. Copies the table, use a Builder to add many settings.
+     */
     public Settings with(String key, Object value) {
-        return new Settings(settings.set(key, value));
+        return toBuilder().put(key, value).build();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (int i = 0; i < keys.length; i++)
+            if (keys[i] != null)
+                builder.put(keys[i], values[i]);
+        return builder;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the setting with the given key, or null if there is none
+     */
+    public Object value(String key) {
+        return lookup(key);
     }
 
     public Validated<String> getAsString(String key) {
         return getAs(key, String.class);
     }
 
-    public Validated<Integer> getAsInt(String key) {
-        return getAs(key, Integer.class);
+    public ValidatedInt getAsInt(String key) {
+        Object o = lookup(key);
+        return
+          o instanceof Integer ?
+            ValidatedInt.valid((Integer) o) :
+            ValidatedInt.of(cast(key, o, Integer.class));
     }
 
     public <A> Validated<A> getAs(String key, Class<A> type) {
-        return
-          Validated
-            .of(settings.get(key).option(Optional.empty(), Optional::of), "The settings does not contain any value with key '" + key + "'")
-            .flatMap(o -> cast(o, type));
+        return cast(key, lookup(key), type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <A> Validated<A> get(Key<A> key) {
+        return (Validated<A>) key.resolve(this).validated;
+    }
+
+    public ValidatedInt getAsInt(Key<Integer> key) {
+        return key.resolve(this).validatedInt;
+    }
+
+    private Object lookup(String key) {
+        int mask = keys.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            String k = keys[slot];
+            if (k == null)
+                return null;
+            if (k.equals(key))
+                return values[slot];
+        }
     }
 
-    private static <A> Validated<A> cast(Object o, Class<A> type) {
+    private static <A> Validated<A> cast(String key, Object o, Class<A> type) {
+        Class<A> boxed = boxed(type);
         return
-          type.isInstance(o)
-            ? valid(type.cast(o))
-            : invalid("Trying to cast an object of type " + o.getClass().getName() + " to type " + type.getName());
+          o == null ? invalid(missingError, key) :
+            boxed.isInstance(o)
+              ? valid(boxed.cast(o))
+              : invalid(typeError, o.getClass().getName(), type.getName());
+    }
+
+    /**
+     * The settings only hold objects, so a primitive type is read as its wrapper type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <A> Class<A> boxed(Class<A> type) {
+        return type.isPrimitive() ? (Class<A>) MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Collects settings in a mutable map, and builds the table of the snapshot once. A later setting with the same key
+     * replaces an earlier one.
+     */
+    public static class Builder {
+
+        private final LinkedHashMap<String, Object> settings = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder put(String key, Object value) {
+            settings.put(Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+            return this;
+        }
+
+        public Builder putAll(Map<String, ?> values) {
+            values.forEach(this::put);
+            return this;
+        }
+
+        public Settings build() {
+            int capacity = Integer.highestOneBit(Math.max(1, settings.size()) * 2 - 1) << 1;
+            String[] keys = new String[capacity];
+            Object[] values = new Object[capacity];
+            int mask = capacity - 1;
+            settings.forEach((key, value) -> {
+                int slot = spread(key.hashCode()) & mask;
+                while (keys[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = value;
+            });
+            return new Settings(keys, values, settings.size());
+        }
+    }
+
+    /**
+     * A typed handle for a setting. The result of the last lookup is cached in the key, and reused as long as the key
+     * is read from the same snapshot.
+     * <br/>
+     * There is only room for one snapshot. The key keeps the last snapshot it was read from reachable, until it is
+     * read from another one. When readers alternate between two snapshots, like during a reload where some threads
+     * still hold the old one, every read looks the setting up again and allocates a new Resolution, which costs about
+     * as much as <code>getAs()</code>. Once all readers have moved to the new snapshot, reads are cached again.
+     */
+    public static final class Key<A> {
+
+        public final String name;
+        public final Class<A> type;
+
+        private volatile Resolution resolution;
+
+        private Key(String name, Class<A> type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        Resolution resolve(Settings settings) {
+            Resolution r = resolution;
+            if (r == null || r.settings != settings) {
+                r = new Resolution(settings, settings.getAs(name, type), type);
+                resolution = r;
+            }
+            return r;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+              "name='" + name + '\'' +
+              ", type=" + type.getName() +
+              '}';
+        }
+    }
+
+    /**
+     * The result of looking up a key in one snapshot. Snapshots are immutable, so the result never changes.
+     */
+    static final class Resolution {
+
+        final Settings settings;
+        final Validated<?> validated;
+        final ValidatedInt validatedInt;
+
+        @SuppressWarnings("unchecked")
+        Resolution(Settings settings, Validated<?> validated, Class<?> type) {
+            this.settings = settings;
+            this.validated = validated;
+            this.validatedInt = type == Integer.class ? ValidatedInt.of((Validated<Integer>) validated) : null;
+        }
     }
 }
@@ -0,0 +1,594 @@
+package org.katenga.cbc.validated;
+
+import org.kantega.cbyc.ErrorCode;
+import org.kantega.cbyc.Failure;
+import org.kantega.cbyc.Validated;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads settings from properties files and JSON files. The files are memory mapped and parsed straight from the
+ * mapped bytes, without reading them into strings or going through a Reader first. Only keys and values become
+ * objects.
+ * <br/>
+ * Properties files are UTF-8, with the usual comments, separators, escapes and line continuations. Every line that
+ * cannot be parsed is reported, not just the first.
+ * <br/>
+ * JSON files must have an object at the root. Nested objects are flattened into dotted keys, so
+ * <code>{"db": {"port": 5432}}</code> gives the setting <code>db.port</code>. Numbers become Integer, Long or Double,
+ * true and false become Boolean, arrays become unmodifiable Lists, and null values are left out. Line comments starting
+ * with <code>//</code> or <code>#</code>, and trailing commas, are allowed. Parsing stops at the first error.
+ * <br/>
+ * A value that cannot be read, like a malformed number or escape, is reported as <code>settings.value</code> with the
+ * key it belongs to. Other errors are reported as <code>settings.syntax</code>, and files that cannot be read as
+ * <code>settings.io</code>.
+ */
+public final class SettingsLoader {
+
+    public static final ErrorCode syntaxError = ErrorCode.of("settings.syntax", "Syntax error in {0} at line {1}: {2}");
+    public static final ErrorCode valueError = ErrorCode.of("settings.value", "Bad value for {0} in {1} at line {2}: {3}");
+    public static final ErrorCode ioError = ErrorCode.of("settings.io", "Could not read {0}: {1}");
+
+    private static final int maxDepth = 256;
+
+    private SettingsLoader() {
+    }
+
+    /**
+     * Loads the files in order into one snapshot. A setting in a later file replaces the same setting in an earlier.
+     * The failures of all the files are accumulated.
+     */
+    public static Validated<Settings> loadAll(List<Path> files) {
+        Validated<Settings.Builder> result = Validated.valid(Settings.builder());
+        for (Path file : files)
+            result = Validated.accum(result, load(file), Settings.Builder::putAll);
+        return result.map(Settings.Builder::build);
+    }
+
+    /**
+     * Loads a file as JSON if its name ends with .json, and as properties otherwise.
+     */
+    public static Validated<Map<String, Object>> load(Path file) {
+        return file.getFileName().toString().endsWith(".json") ? json(file) : properties(file);
+    }
+
+    public static Validated<Map<String, Object>> properties(Path file) {
+        return map(file).flatMap(buffer -> properties(buffer, file.toString()));
+    }
+
+    public static Validated<Map<String, Object>> json(Path file) {
+        return map(file).flatMap(buffer -> json(buffer, file.toString()));
+    }
+
+    public static Validated<Map<String, Object>> properties(ByteBuffer buffer, String source) {
+        return new PropertiesParser(buffer, source).parse();
+    }
+
+    public static Validated<Map<String, Object>> json(ByteBuffer buffer, String source) {
+        return new JsonParser(buffer, source).parse();
+    }
+
+    private static Validated<ByteBuffer> map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return Validated.valid(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            return Validated.invalid(ioError, file, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * The bytes of the key or value that is being parsed. Escaped chars are encoded back to UTF-8, so that the whole
+     * string can be decoded at once.
+     */
+    static final class Scratch {
+
+        byte[] bytes = new byte[256];
+        int length;
+
+        void clear() {
+            length = 0;
+        }
+
+        void add(int b) {
+            if (length == bytes.length)
+                bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) b;
+        }
+
+        void addCodePoint(int cp) {
+            if (cp < 0x80)
+                add(cp);
+            else if (cp < 0x800) {
+                add(0xc0 | (cp >> 6));
+                add(0x80 | (cp & 0x3f));
+            } else if (cp < 0x10000) {
+                add(0xe0 | (cp >> 12));
+                add(0x80 | ((cp >> 6) & 0x3f));
+                add(0x80 | (cp & 0x3f));
+            } else {
+                add(0xf0 | (cp >> 18));
+                add(0x80 | ((cp >> 12) & 0x3f));
+                add(0x80 | ((cp >> 6) & 0x3f));
+                add(0x80 | (cp & 0x3f));
+            }
+        }
+
+        String string() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Thrown inside the parsers to report a syntax error, and caught before it leaves them.
+     */
+    static class SyntaxError extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        SyntaxError(String message) {
+            super(message, null, false, false);
+        }
+
+        Failure failure(String source, int line) {
+            return Failure.of(syntaxError, source, line, getMessage());
+        }
+    }
+
+    /**
+     * A syntax error inside a value. The parsers add the key of the value when they know it.
+     */
+    static final class ValueError extends SyntaxError {
+
+        private static final long serialVersionUID = 1L;
+
+        final String key;
+
+        ValueError(String message) {
+            this(null, message);
+        }
+
+        private ValueError(String key, String message) {
+            super(message);
+            this.key = key;
+        }
+
+        ValueError at(String key) {
+            return new ValueError(key, getMessage());
+        }
+
+        @Override
+        Failure failure(String source, int line) {
+            return key == null ? super.failure(source, line) : Failure.of(valueError, key, source, line, getMessage());
+        }
+    }
+
+    abstract static class Parser {
+
+        final ByteBuffer buffer;
+        final String source;
+        final int limit;
+        final Scratch scratch = new Scratch();
+        int pos;
+        int line = 1;
+
+        Parser(ByteBuffer buffer, String source) {
+            this.buffer = buffer;
+            this.source = source;
+            this.pos = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        int peek() {
+            return pos < limit ? buffer.get(pos) & 0xff : -1;
+        }
+
+        int hex(int b) throws SyntaxError {
+            if (b >= '0' && b <= '9')
+                return b - '0';
+            if (b >= 'a' && b <= 'f')
+                return b - 'a' + 10;
+            if (b >= 'A' && b <= 'F')
+                return b - 'A' + 10;
+            throw new ValueError("Malformed \\uxxxx escape");
+        }
+
+        /**
+         * Reads the four hex digits of a \\u escape. A high surrogate followed by an escaped low surrogate is
+         * combined into one code point.
+         */
+        void unicodeEscape() throws SyntaxError {
+            int c = hex4();
+            if (Character.isHighSurrogate((char) c) && pos + 1 < limit && buffer.get(pos) == '\\' && buffer.get(pos + 1) == 'u') {
+                int mark = pos;
+                pos += 2;
+                int low = hex4();
+                if (Character.isLowSurrogate((char) low)) {
+                    scratch.addCodePoint(Character.toCodePoint((char) c, (char) low));
+                    return;
+                }
+                pos = mark;
+            }
+            scratch.addCodePoint(c);
+        }
+
+        private int hex4() throws SyntaxError {
+            if (pos + 4 > limit)
+                throw new ValueError("Malformed \\uxxxx escape");
+            int c = 0;
+            for (int i = 0; i < 4; i++)
+                c = (c << 4) | hex(buffer.get(pos++) & 0xff);
+            return c;
+        }
+    }
+
+    static final class PropertiesParser extends Parser {
+
+        PropertiesParser(ByteBuffer buffer, String source) {
+            super(buffer, source);
+        }
+
+        Validated<Map<String, Object>> parse() {
+            LinkedHashMap<String, Object> settings = new LinkedHashMap<>();
+            Validated<Map<String, Object>> result = Validated.valid(settings);
+            while (pos < limit) {
+                skipBlanks();
+                int b = peek();
+                if (b == -1)
+                    break;
+                if (b == '\n' || b == '\r') {
+                    newline();
+                    continue;
+                }
+                if (b == '#' || b == '!') {
+                    skipLine();
+                    continue;
+                }
+                int startLine = line;
+                try {
+                    String key = key();
+                    skipBlanks();
+                    b = peek();
+                    if (b == '=' || b == ':') {
+                        pos++;
+                        skipBlanks();
+                    }
+                    try {
+                        settings.put(key, value());
+                    } catch (ValueError e) {
+                        throw e.at(key);
+                    }
+                } catch (SyntaxError e) {
+                    Failure failure = e.failure(source, startLine);
+                    result = Validated.accum(result, Validated.invalid(failure), (a, x) -> a);
+                    skipLine();
+                }
+            }
+            return result.map(Collections::unmodifiableMap);
+        }
+
+        private String key() throws SyntaxError {
+            scratch.clear();
+            while (pos < limit) {
+                int b = peek();
+                if (b == '=' || b == ':' || b == ' ' || b == '\t' || b == '\f' || b == '\n' || b == '\r')
+                    break;
+                pos++;
+                if (b == '\\')
+                    escape();
+                else
+                    scratch.add(b);
+            }
+            return scratch.string();
+        }
+
+        private String value() throws SyntaxError {
+            scratch.clear();
+            while (pos < limit) {
+                int b = peek();
+                if (b == '\n' || b == '\r')
+                    break;
+                pos++;
+                if (b == '\\')
+                    escape();
+                else
+                    scratch.add(b);
+            }
+            return scratch.string();
+        }
+
+        private void escape() throws SyntaxError {
+            int b = peek();
+            if (b == -1)
+                return;
+            pos++;
+            switch (b) {
+                case '\r':
+                case '\n':
+                    pos--;
+                    newline();
+                    skipBlanks();
+                    break;
+                case 't':
+                    scratch.add('\t');
+                    break;
+                case 'n':
+                    scratch.add('\n');
+                    break;
+                case 'r':
+                    scratch.add('\r');
+                    break;
+                case 'f':
+                    scratch.add('\f');
+                    break;
+                case 'u':
+                    unicodeEscape();
+                    break;
+                default:
+                    scratch.add(b);
+            }
+        }
+
+        private void skipBlanks() {
+            int b;
+            while ((b = peek()) == ' ' || b == '\t' || b == '\f')
+                pos++;
+        }
+
+        private void skipLine() {
+            int b;
+            while ((b = peek()) != -1 && b != '\n' && b != '\r')
+                pos++;
+        }
+
+        private void newline() {
+            if (peek() == '\r')
+                pos++;
+            if (peek() == '\n')
+                pos++;
+            line++;
+        }
+    }
+
+    static final class JsonParser extends Parser {
+
+        JsonParser(ByteBuffer buffer, String source) {
+            super(buffer, source);
+        }
+
+        Validated<Map<String, Object>> parse() {
+            LinkedHashMap<String, Object> settings = new LinkedHashMap<>();
+            try {
+                skipWhitespace();
+                expect('{');
+                object("", settings, 0);
+                skipWhitespace();
+                if (pos < limit)
+                    throw new SyntaxError("Unexpected content after the root object");
+                return Validated.valid(Collections.unmodifiableMap(settings));
+            } catch (SyntaxError e) {
+                return Validated.invalid(e.failure(source, line));
+            }
+        }
+
+        /**
+         * Parses the members of an object, after the opening brace, into flattened keys.
+         */
+        private void object(String prefix, Map<String, Object> settings, int depth) throws SyntaxError {
+            if (depth > maxDepth)
+                throw new SyntaxError("Too deeply nested");
+            skipWhitespace();
+            while (peek() != '}') {
+                expect('"');
+                String key = prefix.isEmpty() ? string() : prefix + '.' + string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (peek() == '{') {
+                    pos++;
+                    object(key, settings, depth + 1);
+                } else {
+                    Object value;
+                    try {
+                        value = value(depth + 1);
+                    } catch (ValueError e) {
+                        throw e.at(key);
+                    }
+                    if (value != null)
+                        settings.put(key, value);
+                }
+                if (!separator('}'))
+                    break;
+            }
+            expect('}');
+        }
+
+        private Object value(int depth) throws SyntaxError {
+            if (depth > maxDepth)
+                throw new SyntaxError("Too deeply nested");
+            int b = peek();
+            switch (b) {
+                case '"':
+                    pos++;
+                    return string();
+                case '{': {
+                    pos++;
+                    LinkedHashMap<String, Object> object = new LinkedHashMap<>();
+                    object("", object, depth + 1);
+                    return Collections.unmodifiableMap(object);
+                }
+                case '[': {
+                    pos++;
+                    List<Object> array = new ArrayList<>();
+                    skipWhitespace();
+                    while (peek() != ']') {
+                        array.add(value(depth + 1));
+                        if (!separator(']'))
+                            break;
+                    }
+                    expect(']');
+                    return Collections.unmodifiableList(array);
+                }
+                case 't':
+                    literal("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    literal("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    literal("null");
+                    return null;
+                default:
+                    if (b == '-' || (b >= '0' && b <= '9'))
+                        return number();
+                    throw new SyntaxError(b == -1 ? "Unexpected end of file" : "Unexpected character '" + (char) b + "'");
+            }
+        }
+
+        /**
+         * Skips the comma after a member or an element. Returns false if there is none, which must mean that the
+         * object or array ends here.
+         */
+        private boolean separator(int end) throws SyntaxError {
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+                skipWhitespace();
+                return true;
+            }
+            if (peek() != end)
+                throw new SyntaxError("Expected ',' or '" + (char) end + "'");
+            return false;
+        }
+
+        /**
+         * Parses a string, after the opening quote.
+         */
+        private String string() throws SyntaxError {
+            scratch.clear();
+            while (true) {
+                int b = peek();
+                if (b == -1 || b == '\n')
+                    throw new SyntaxError("Unterminated string");
+                pos++;
+                if (b == '"')
+                    return scratch.string();
+                if (b != '\\') {
+                    scratch.add(b);
+                    continue;
+                }
+                int e = peek();
+                pos++;
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        scratch.add(e);
+                        break;
+                    case 'b':
+                        scratch.add('\b');
+                        break;
+                    case 'f':
+                        scratch.add('\f');
+                        break;
+                    case 'n':
+                        scratch.add('\n');
+                        break;
+                    case 'r':
+                        scratch.add('\r');
+                        break;
+                    case 't':
+                        scratch.add('\t');
+                        break;
+                    case 'u':
+                        unicodeEscape();
+                        break;
+                    default:
+                        throw new ValueError("Illegal escape in string");
+                }
+            }
+        }
+
+        /**
+         * Parses an integer without creating a string, unless it has a fraction or exponent, or does not fit in a long.
+         * The digits are accumulated as a negative number, like Long.parseLong does, so that Long.MIN_VALUE fits.
+         */
+        private Object number() throws SyntaxError {
+            int start = pos;
+            boolean negative = peek() == '-';
+            if (negative)
+                pos++;
+            long min = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            long value = 0;
+            boolean overflow = false;
+            int digits = 0;
+            int b;
+            while ((b = peek()) >= '0' && b <= '9') {
+                int d = b - '0';
+                if (value < min / 10 || value * 10 < min + d)
+                    overflow = true;
+                if (!overflow)
+                    value = value * 10 - d;
+                digits++;
+                pos++;
+            }
+            if (digits == 0)
+                throw new ValueError("Malformed number");
+            boolean decimal = false;
+            while ((b = peek()) == '.' || b == 'e' || b == 'E' || b == '+' || b == '-' || (b >= '0' && b <= '9')) {
+                decimal = true;
+                pos++;
+            }
+            if (decimal || overflow) {
+                scratch.clear();
+                for (int i = start; i < pos; i++)
+                    scratch.add(buffer.get(i));
+                try {
+                    return Double.parseDouble(scratch.string());
+                } catch (NumberFormatException e) {
+                    throw new ValueError("Malformed number");
+                }
+            }
+            long signed = negative ? value : -value;
+            return signed >= Integer.MIN_VALUE && signed <= Integer.MAX_VALUE ? (Object) (int) signed : (Object) signed;
+        }
+
+        private void literal(String literal) throws SyntaxError {
+            for (int i = 0; i < literal.length(); i++, pos++)
+                if (peek() != literal.charAt(i))
+                    throw new ValueError("Expected " + literal);
+        }
+
+        private void expect(int b) throws SyntaxError {
+            if (peek() != b)
+                throw new SyntaxError(peek() == -1 ? "Unexpected end of file" : "Expected '" + (char) b + "'");
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < limit) {
+                int b = peek();
+                if (b == '\n') {
+                    line++;
+                    pos++;
+                } else if (b == ' ' || b == '\t' || b == '\r')
+                    pos++;
+                else if (b == '#' || (b == '/' && pos + 1 < limit && buffer.get(pos + 1) == '/'))
+                    while (pos < limit && peek() != '\n')
+                        pos++;
+                else
+                    return;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.katenga.cbc.validated;
+
+import org.kantega.cbyc.Validated;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a Settings snapshot up to date with a list of files. The files are watched with a WatchService, and when some
+ * of them change, only those are parsed again. If they all parse, a new snapshot is built from the latest settings of
+ * every file, and swapped in. If any of them fail, the current snapshot is kept, and the failures are reported to the
+ * listener.
+ * <br/>
+ * Readers call <code>current()</code>, which is a plain read of an AtomicReference, so they never wait for a reload.
+ * Keys read from the new snapshot notice that it is a new snapshot, and look the setting up again.
+ */
+public final class SettingsReloader implements AutoCloseable {
+
+    private static final long settleMillis = 20;
+
+    private final List<Path> files;
+    private final Map<Path, Map<String, Object>> loaded;
+    private final AtomicReference<Settings> current;
+    private final Consumer<Validated<Settings>> listener;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private SettingsReloader(List<Path> files, Map<Path, Map<String, Object>> loaded, Settings settings, Consumer<Validated<Settings>> listener) throws IOException {
+        this.files = files;
+        this.loaded = loaded;
+        this.current = new AtomicReference<>(settings);
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Path file : files)
+            directories.add(file.getParent());
+        for (Path directory : directories)
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "settings-reloader");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Loads the files, and starts watching them if they all load. The listener is called from the watching thread
+     * after every reload, with the new snapshot or the failures.
+     *
+     * @param files    the files, in the order they are merged in
+     * @param listener is told about every reload
+     * @return a running reloader, or the failures of the first load
+     */
+    public static Validated<SettingsReloader> start(List<Path> files, Consumer<Validated<Settings>> listener) {
+        List<Path> absolute = new ArrayList<>();
+        for (Path file : files)
+            absolute.add(file.toAbsolutePath().normalize());
+        Map<Path, Map<String, Object>> loaded = new HashMap<>();
+        Validated<Map<Path, Map<String, Object>>> all = Validated.valid(loaded);
+        for (Path file : absolute)
+            all = Validated.accum(all, SettingsLoader.load(file), (map, settings) -> {
+                map.put(file, settings);
+                return map;
+            });
+        return all.map(map -> {
+            try {
+                SettingsReloader reloader = new SettingsReloader(absolute, map, merge(absolute, map), listener);
+                reloader.thread.start();
+                return reloader;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @return the latest snapshot that loaded without failures
+     */
+    public Settings current() {
+        return current.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collect(watchService.take(), changed);
+                // Editors and deployments often write a file in several steps, so wait until the events settle
+                WatchKey next;
+                while ((next = watchService.poll(settleMillis, TimeUnit.MILLISECONDS)) != null)
+                    collect(next, changed);
+                if (!changed.isEmpty())
+                    reload(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(files);
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context()).normalize();
+            if (loaded.containsKey(file))
+                changed.add(file);
+        }
+        key.reset();
+    }
+
+    private void reload(Set<Path> changed) {
+        Map<Path, Map<String, Object>> updates = new HashMap<>();
+        Validated<Map<Path, Map<String, Object>>> all = Validated.valid(updates);
+        for (Path file : changed)
+            all = Validated.accum(all, SettingsLoader.load(file), (map, settings) -> {
+                map.put(file, settings);
+                return map;
+            });
+        Validated<Settings> result = all.map(map -> {
+            loaded.putAll(map);
+            Settings settings = merge(files, loaded);
+            current.set(settings);
+            return settings;
+        });
+        listener.accept(result);
+    }
+
+    private static Settings merge(List<Path> files, Map<Path, Map<String, Object>> loaded) {
+        Settings.Builder builder = Settings.builder();
+        for (Path file : files)
+            builder.putAll(loaded.get(file));
+        return builder.build();
+    }
+}